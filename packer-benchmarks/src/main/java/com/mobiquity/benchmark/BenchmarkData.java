@@ -0,0 +1,68 @@
+package com.mobiquity.benchmark;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Random;
+
+import com.mobiquity.model.PackerLimits;
+
+/**
+ * Seeded generator of input lines, so every benchmark run measures the same data.
+ */
+final class BenchmarkData {
+
+	static final long SEED = 20_181_018L;
+	static final double MAX_COST = 100;
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * @param random the source of the weights and costs
+	 * @param items the number of items of the line
+	 * @param capacity the weight limit of the package
+	 * @return a line in the input format, item weights range up to the capacity
+	 */
+	static String line(Random random, int items, int capacity) {
+		StringBuilder line = new StringBuilder(items * 20).append(capacity).append(" :");
+		for (int i = 1; i <= items; i++) {
+			double weight = 1 + random.nextInt(capacity * 100) / 100d;
+			int cost = 1 + random.nextInt((int) MAX_COST);
+			line.append(" (").append(i).append(',')
+					.append(String.format(Locale.ROOT, "%.2f", weight))
+					.append(",€").append(cost).append(')');
+		}
+		return line.toString();
+	}
+
+	/**
+	 * @param lines the number of lines of the file
+	 * @param items the number of items per line
+	 * @param capacity the weight limit of every line
+	 * @return a temporary file, deleted on exit
+	 * @throws IOException if the file can not be written
+	 */
+	static Path file(int lines, int items, int capacity) throws IOException {
+		Random random = new Random(SEED);
+		Path file = Files.createTempFile("packer-benchmark-", ".txt");
+		file.toFile().deleteOnExit();
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			for (int i = 0; i < lines; i++) {
+				writer.write(line(random, items, capacity));
+				writer.write('\n');
+			}
+		}
+		return file;
+	}
+
+	/**
+	 * @return limits wide enough to accept the generated lines
+	 */
+	static PackerLimits limits(int items, int capacity) {
+		return new PackerLimits((double) capacity, items, MAX_COST);
+	}
+}
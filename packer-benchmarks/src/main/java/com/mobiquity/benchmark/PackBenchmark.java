@@ -0,0 +1,113 @@
+package com.mobiquity.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.packer.Packer;
+
+/**
+ * End to end packing of a generated file, read, parsed, solved and
+ * written, with one and with all the available solver threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PackBenchmark {
+
+	@Param({"10000"})
+	private int lines;
+
+	@Param({"15", "100"})
+	private int items;
+
+	/**
+	 * Solver threads, 0 for the configured default
+	 */
+	@Param({"1", "0"})
+	private int workers;
+
+	private Path input;
+	private PackerConfig config;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		input = BenchmarkData.file(lines, items, 100);
+		PackerConfig.Builder builder = PackerConfig.builder().limits(BenchmarkData.limits(items, 100));
+		if (workers > 0) {
+			builder.workers(workers);
+		}
+		config = builder.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(input);
+	}
+
+	/**
+	 * The whole answer as one String, as returned by {@link Packer#pack(String, PackerConfig)}
+	 */
+	@Benchmark
+	public String packToString() throws APIException {
+		return Packer.pack(input.toString(), config);
+	}
+
+	/**
+	 * The answers streamed to a sink, as {@link Packer#pack(Path, Writer, PackerConfig)} does
+	 */
+	@Benchmark
+	public void packToWriter(Blackhole blackhole) throws APIException {
+		Packer.pack(input, new BlackholeWriter(blackhole), config);
+	}
+
+	private static class BlackholeWriter extends Writer {
+
+		private final Blackhole blackhole;
+
+		private BlackholeWriter(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void write(char[] buffer, int offset, int length) {
+			blackhole.consume(length);
+		}
+
+		@Override
+		public Writer append(CharSequence sequence) {
+			blackhole.consume(sequence);
+			return this;
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
@@ -0,0 +1,75 @@
+package com.mobiquity.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.pattern.PackageBuilder;
+import com.mobiquity.pattern.PackageParser;
+
+/**
+ * Line parsing alone: the String based {@link PackageBuilder} chain
+ * against the single pass byte {@link PackageParser}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+	@Param({"15", "100"})
+	private int items;
+
+	private String line;
+	private ByteBuffer bytes;
+	private PackageBuilder packageBuilder;
+	private PackageParser packageParser;
+	private PackageProblem problem;
+
+	@Setup
+	public void setUp() {
+		line = BenchmarkData.line(new Random(BenchmarkData.SEED), items, 100);
+		bytes = ByteBuffer.wrap(line.getBytes(StandardCharsets.UTF_8));
+		packageBuilder = new PackageBuilder();
+		packageParser = new PackageParser(BenchmarkData.limits(items, 100));
+		problem = new PackageProblem();
+	}
+
+	@Benchmark
+	public Map<Double, List<PackageMetaData>> builderMap() {
+		packageBuilder.setContent(line);
+		return packageBuilder.splitByColon().splitBySpace().formatPackageData()
+				.splitByCommaAndConvertToList().buildMap();
+	}
+
+	@Benchmark
+	public PackageProblem builderProblem() {
+		packageBuilder.setContent(line);
+		return packageBuilder.splitByColon().splitBySpace().buildProblem(problem);
+	}
+
+	@Benchmark
+	public PackerErrorEnum parserBytes() {
+		return packageParser.parse(bytes, 0, bytes.limit(), problem);
+	}
+}
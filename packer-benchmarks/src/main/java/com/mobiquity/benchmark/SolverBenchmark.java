@@ -0,0 +1,97 @@
+package com.mobiquity.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.pattern.PackageParser;
+import com.mobiquity.service.SolverService;
+import com.mobiquity.solver.BranchAndBoundSolver;
+import com.mobiquity.solver.DynamicProgrammingSolver;
+import com.mobiquity.solver.FptasSolver;
+import com.mobiquity.solver.GreedySolver;
+import com.mobiquity.solver.MeetInTheMiddleSolver;
+import com.mobiquity.solver.SolverSelector;
+
+/**
+ * Solving an already parsed line, per engine, item count and capacity.
+ * <br/>
+ * The meet in the middle engine only takes up to
+ * {@link MeetInTheMiddleSolver#MAX_ITEMS} items, so it is left out of the
+ * default run, use <code>-p engine=mitm -p items=15,40</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+
+	private static final double EPSILON = 0.05d;
+
+	@Param({"15", "40", "100"})
+	private int items;
+
+	@Param({"100", "1000"})
+	private int capacity;
+
+	@Param({"auto", "dp", "bnb", "greedy", "fptas"})
+	private String engine;
+
+	private PackageProblem problem;
+	private SolverService solverService;
+	private SolverSelector solverSelector;
+
+	@Setup
+	public void setUp() {
+		String line = BenchmarkData.line(new Random(BenchmarkData.SEED), items, capacity);
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		problem = new PackageProblem();
+		new PackageParser(BenchmarkData.limits(items, capacity))
+				.parse(ByteBuffer.wrap(bytes), 0, bytes.length, problem);
+		if ("auto".equals(engine)) {
+			solverSelector = new SolverSelector();
+		} else {
+			solverService = solverFor(SolverEngineEnum.fromCode(engine));
+		}
+	}
+
+	@Benchmark
+	public Object solve() {
+		if (solverSelector != null) {
+			return solverSelector.solve(problem);
+		}
+		return solverService.solve(problem);
+	}
+
+	private static SolverService solverFor(SolverEngineEnum engine) {
+		switch (engine) {
+			case DYNAMIC_PROGRAMMING:
+				return new DynamicProgrammingSolver();
+			case MEET_IN_THE_MIDDLE:
+				return new MeetInTheMiddleSolver();
+			case GREEDY:
+				return new GreedySolver();
+			case FPTAS:
+				return new FptasSolver(EPSILON);
+			default:
+				return new BranchAndBoundSolver();
+		}
+	}
+}
@@ -0,0 +1,126 @@
+package com.mobiquity.benchmark;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import com.mobiquity.constant.DistributionEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.packer.Packer;
+import com.mobiquity.workload.WorkloadGenerator;
+import com.mobiquity.workload.WorkloadSummary;
+
+/**
+ * Repeatable end to end throughput of {@link Packer#pack(Path, Writer, PackerConfig)}
+ * over files written by a seeded {@link WorkloadGenerator}, one per scenario.
+ * <br/>
+ * Every scenario is packed once to warm up, then measured over several runs
+ * into a sink, the rejected lines going to a report file. The median run
+ * gives the lines and megabytes per second, the peak heap is the highest
+ * sum of the heap pool peaks over the runs and the GC time is the mean per run.
+ * <br/>
+ * For example: <code>java -cp target/benchmarks.jar com.mobiquity.benchmark.ThroughputHarness 200000 5</code>
+ * packs 200000 lines per scenario 5 times, 100000 lines 5 times by default.
+ */
+public class ThroughputHarness {
+
+	private static final long DEFAULT_LINES = 100_000;
+	private static final int DEFAULT_RUNS = 5;
+	private static final String FORMAT = "%-10s %10s %8s %12s %8s %10s %8s %8s%n";
+
+	public static void main(String[] args) throws IOException, APIException {
+		long lines = args.length > 0 ? Long.parseLong(args[0]) : DEFAULT_LINES;
+		int runs = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_RUNS;
+		System.out.printf(Locale.ROOT, FORMAT, "scenario", "lines", "MB", "lines/s", "MB/s", "heap MB", "GC ms", "GCs");
+		for (Scenario scenario : scenarios(lines)) {
+			scenario.measure(runs);
+		}
+	}
+
+	/**
+	 * @return the workloads measured, each with the settings it is packed with
+	 */
+	private static List<Scenario> scenarios(long lines) {
+		WorkloadGenerator uniform = WorkloadGenerator.builder().lines(lines)
+				.malformedRatio(0.01).build();
+		WorkloadGenerator duplicates = WorkloadGenerator.builder().lines(lines)
+				.malformedRatio(0.01).duplicateRatio(0.3).build();
+		WorkloadGenerator skewed = WorkloadGenerator.builder().lines(lines)
+				.capacity(DistributionEnum.NORMAL, 1, 100)
+				.weight(DistributionEnum.EXPONENTIAL, 0.01, 100)
+				.cost(DistributionEnum.NORMAL, 1, 100)
+				.malformedRatio(0.01).build();
+		WorkloadGenerator wide = WorkloadGenerator.builder().lines(lines / 10).items(20, 40)
+				.malformedRatio(0.01).build();
+		return Arrays.asList(
+				new Scenario("uniform", uniform, PackerConfig.builder().limits(uniform.limits())),
+				new Scenario("duplicates", duplicates,
+						PackerConfig.builder().limits(duplicates.limits()).cacheSize(WorkloadGenerator.HISTORY)),
+				new Scenario("skewed", skewed, PackerConfig.builder().limits(skewed.limits())),
+				new Scenario("wide", wide, PackerConfig.builder().limits(wide.limits())));
+	}
+
+	private static class Scenario {
+
+		private final String name;
+		private final WorkloadGenerator generator;
+		private final PackerConfig.Builder config;
+
+		private Scenario(String name, WorkloadGenerator generator, PackerConfig.Builder config) {
+			this.name = name;
+			this.generator = generator;
+			this.config = config;
+		}
+
+		private void measure(int runs) throws IOException, APIException {
+			Path input = Files.createTempFile("packer-workload-", ".txt");
+			Path rejected = Files.createTempFile("packer-rejected-", ".tsv");
+			try {
+				WorkloadSummary summary = generator.write(input);
+				double megabytes = Files.size(input) / (1024d * 1024d);
+				PackerConfig packerConfig = config.rejectionReport(rejected).build();
+				Packer.pack(input, Writer.nullWriter(), packerConfig);
+
+				long[] nanos = new long[runs];
+				long peakHeap = 0;
+				long gcMillis = 0;
+				long gcCount = 0;
+				List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+				List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+				for (int run = 0; run < runs; run++) {
+					System.gc();
+					pools.forEach(MemoryPoolMXBean::resetPeakUsage);
+					long gcMillisBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+					long gcCountBefore = collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+					long start = System.nanoTime();
+					Packer.pack(input, Writer.nullWriter(), packerConfig);
+					nanos[run] = System.nanoTime() - start;
+					gcMillis += collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionTime).sum() - gcMillisBefore;
+					gcCount += collectors.stream().mapToLong(GarbageCollectorMXBean::getCollectionCount).sum() - gcCountBefore;
+					peakHeap = Math.max(peakHeap, pools.stream().filter(pool -> pool.getType() == MemoryType.HEAP)
+							.mapToLong(pool -> pool.getPeakUsage().getUsed()).sum());
+				}
+				Arrays.sort(nanos);
+				double seconds = nanos[runs / 2] / 1e9;
+				System.out.printf(Locale.ROOT, FORMAT, name, summary.getLines(),
+						String.format(Locale.ROOT, "%.1f", megabytes),
+						String.format(Locale.ROOT, "%.0f", summary.getLines() / seconds),
+						String.format(Locale.ROOT, "%.2f", megabytes / seconds),
+						String.format(Locale.ROOT, "%.1f", peakHeap / (1024d * 1024d)),
+						gcMillis / runs, gcCount / runs);
+			} finally {
+				Files.deleteIfExists(input);
+				Files.deleteIfExists(rejected);
+			}
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package com.mobiquity.benchmark;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.pattern.PackageParser;
+import com.mobiquity.validator.PackerValidator;
+
+/**
+ * The regex format check of a line, and the range check on both the
+ * Map and the {@link PackageProblem} form of an already parsed line.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidationBenchmark {
+
+	@Param({"15", "100"})
+	private int items;
+
+	private String line;
+	private PackerValidator packerValidator;
+	private PackageParser packageParser;
+	private Map<Double, List<PackageMetaData>> packages;
+	private PackageProblem problem;
+
+	@Setup
+	public void setUp() {
+		line = BenchmarkData.line(new Random(BenchmarkData.SEED), items, 100);
+		packerValidator = new PackerValidator(BenchmarkData.limits(items, 100));
+		packageParser = new PackageParser(BenchmarkData.limits(items, 100));
+		problem = new PackageProblem();
+		byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+		packageParser.parse(ByteBuffer.wrap(bytes), 0, bytes.length, problem);
+		packages = problem.toPackages();
+	}
+
+	@Benchmark
+	public boolean regexFormat() throws APIException {
+		return packerValidator.isValidInput(line);
+	}
+
+	@Benchmark
+	public boolean rangeMap() throws APIException {
+		return packerValidator.hasValidRange(packages);
+	}
+
+	@Benchmark
+	public boolean rangeProblem() throws APIException {
+		return packerValidator.hasValidRange(problem);
+	}
+
+	@Benchmark
+	public PackerErrorEnum rangeParser() {
+		return packageParser.checkRange(problem);
+	}
+}
@@ -0,0 +1,62 @@
+package com.mobiquity.vector;
+
+import com.mobiquity.solver.DpKernel;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link DpKernel} updating as many capacity steps per instruction as the
+ * CPU has long lanes, 4 with AVX2, through the incubating Vector API.
+ * <br/>
+ * The row is walked from the largest capacity down, one vector of steps
+ * at a time. The costs a vector reads are at lower steps than the vector
+ * itself, or within it and loaded before it is stored, so they are those
+ * of the previous items exactly as in the scalar loop. The steps left
+ * below the last full vector are done by the scalar loop.
+ * <br/>
+ * Registered as a service, it is picked up once this jar is on the class
+ * path and the JVM runs with <code>--add-modules jdk.incubator.vector</code>.
+ */
+public class VectorDpKernel implements DpKernel {
+
+	private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+	@Override
+	public void update(long[] table, boolean[] taken, int row, int capacity, int weight, long cost) {
+		int lanes = SPECIES.length();
+		int w = capacity;
+		for (; w - lanes + 1 >= weight; w -= lanes) {
+			int base = w - lanes + 1;
+			LongVector candidate = LongVector.fromArray(SPECIES, table, base - weight).add(cost);
+			LongVector current = LongVector.fromArray(SPECIES, table, base);
+			VectorMask<Long> better = candidate.compare(VectorOperators.GT, current);
+			if (better.anyTrue()) {
+				candidate.intoArray(table, base, better);
+				better.intoArray(taken, row + base);
+			}
+		}
+		for (; w >= weight; w--) {
+			long candidate = table[w - weight] + cost;
+			if (candidate > table[w]) {
+				table[w] = candidate;
+				taken[row + w] = true;
+			}
+		}
+	}
+
+	/**
+	 * @return true if the CPU has at least two long lanes
+	 */
+	@Override
+	public boolean isSupported() {
+		return SPECIES.length() >= 2;
+	}
+
+	@Override
+	public String getName() {
+		return "vector-" + SPECIES.length() + "x64";
+	}
+}
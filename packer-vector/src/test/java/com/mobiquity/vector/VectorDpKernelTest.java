@@ -0,0 +1,74 @@
+package com.mobiquity.vector;
+
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.solver.DpKernel;
+import com.mobiquity.solver.DpKernels;
+import com.mobiquity.solver.DynamicProgrammingSolver;
+import com.mobiquity.solver.GreedySolver;
+import com.mobiquity.solver.ScalarDpKernel;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VectorDpKernelTest {
+
+    @Test
+    public void rowMatchesScalarKernelTest() {
+        Random random = new Random(21);
+        DpKernel scalar = new ScalarDpKernel();
+        DpKernel vector = new VectorDpKernel();
+        for (int run = 0; run < 500; run++) {
+            int capacity = random.nextInt(300);
+            int weight = random.nextInt(capacity + 1);
+            long cost = random.nextInt(1000);
+            long[] table = new long[capacity + 1];
+            for (int w = 1; w <= capacity; w++) {
+                table[w] = table[w - 1] + random.nextInt(50);
+            }
+            long[] expectedTable = table.clone();
+            boolean[] expectedTaken = new boolean[2 * (capacity + 1)];
+            boolean[] actualTaken = new boolean[2 * (capacity + 1)];
+
+            scalar.update(expectedTable, expectedTaken, capacity + 1, capacity, weight, cost);
+            vector.update(table, actualTaken, capacity + 1, capacity, weight, cost);
+            assertArrayEquals(expectedTable, table, "run " + run);
+            assertArrayEquals(expectedTaken, actualTaken, "run " + run);
+        }
+    }
+
+    @Test
+    public void solverMatchesScalarAndBeatsGreedyTest() {
+        Random random = new Random(22);
+        DynamicProgrammingSolver scalar = new DynamicProgrammingSolver(new ScalarDpKernel());
+        DynamicProgrammingSolver vector = new DynamicProgrammingSolver(new VectorDpKernel());
+        GreedySolver greedy = new GreedySolver();
+        for (int line = 0; line < 300; line++) {
+            PackageProblem problem = new PackageProblem();
+            problem.setCapacity(1 + random.nextInt(10000));
+            for (int i = 1; i <= 1 + random.nextInt(15); i++) {
+                problem.add(i, random.nextInt(10000), 100L * (1 + random.nextInt(100)));
+            }
+            String answer = vector.solve(problem);
+            assertEquals(scalar.solve(problem), answer, problem.toString());
+            assertTrue(cost(problem, answer) >= cost(problem, greedy.solve(problem)), problem.toString());
+        }
+    }
+
+    @Test
+    public void loadedAsServiceTest() {
+        assertTrue(DpKernels.get() instanceof VectorDpKernel || !new VectorDpKernel().isSupported());
+    }
+
+    private long cost(PackageProblem problem, String answer) {
+        if (answer.equals("-")) {
+            return 0;
+        }
+        return Arrays.stream(answer.split(",")).mapToInt(Integer::parseInt)
+                .mapToLong(index -> problem.getCost(index - 1)).sum();
+    }
+}
@@ -0,0 +1,101 @@
+package com.mobiquity.cache;
+
+import java.util.Arrays;
+
+import com.mobiquity.model.PackageProblem;
+
+/**
+ * Canonical form of a {@link PackageProblem}: the capacity followed by the
+ * index, weight and cost of every item, items sorted by index. Two lines
+ * listing the same items in a different order share the same key.
+ * <br/>
+ * The hash is computed once, so a lookup costs one pass over the values.
+ */
+public final class ProblemKey {
+
+	private final long[] values;
+	private final int hash;
+
+	private ProblemKey(long[] values) {
+		this.values = values;
+		this.hash = Arrays.hashCode(values);
+	}
+
+	/**
+	 * @param problem a parsed line, it is not kept
+	 * @return the canonical key of the line
+	 */
+	public static ProblemKey of(PackageProblem problem) {
+		int size = problem.size();
+		long[] values = new long[1 + 3 * size];
+		values[0] = problem.getCapacity();
+		if (isSortedByIndex(problem)) {
+			for (int i = 0; i < size; i++) {
+				store(values, i, problem, i);
+			}
+		} else {
+			long[] order = new long[size];
+			for (int i = 0; i < size; i++) {
+				order[i] = ((long) problem.getIndex(i) << 32) | i;
+			}
+			Arrays.sort(order);
+			for (int i = 0; i < size; i++) {
+				store(values, i, problem, (int) order[i]);
+			}
+		}
+		return new ProblemKey(values);
+	}
+
+	/**
+	 * @param values the key as written by {@link #values()}
+	 * @return the key
+	 */
+	static ProblemKey of(long[] values) {
+		return new ProblemKey(values);
+	}
+
+	/**
+	 * @return the capacity, then index, weight and cost per item, not a copy
+	 */
+	long[] values() {
+		return values;
+	}
+
+	private static boolean isSortedByIndex(PackageProblem problem) {
+		for (int i = 1; i < problem.size(); i++) {
+			if (problem.getIndex(i - 1) > problem.getIndex(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void store(long[] values, int position, PackageProblem problem, int item) {
+		int offset = 1 + 3 * position;
+		values[offset] = problem.getIndex(item);
+		values[offset + 1] = problem.getWeight(item);
+		values[offset + 2] = problem.getCost(item);
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) {
+			return true;
+		}
+		if (!(other instanceof ProblemKey)) {
+			return false;
+		}
+		ProblemKey key = (ProblemKey) other;
+		return hash == key.hash && Arrays.equals(values, key.values);
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public String toString() {
+		return "ProblemKey" + Arrays.toString(values);
+	}
+}
@@ -0,0 +1,291 @@
+package com.mobiquity.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.constant.SolutionModeEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.model.PackerLimits;
+
+/**
+ * Bounded cache of answers keyed by the canonical {@link ProblemKey} of a line,
+ * the least recently used entry is evicted first.
+ * <br/>
+ * The answers depend on the settings the lines were solved with, the error
+ * bound, the forced engine, the solution mode and the limits, so a cache
+ * should only be shared by handlers using the same settings. A saved cache
+ * records them, see {@link #settingsOf(PackerConfig)}, and is only loaded
+ * by a cache built for the same ones. Lines
+ * holding the same items in a different order get the same answer, which
+ * is optimal for both, even if a fresh solve could break an exact tie
+ * between two selections the other way.
+ * <br/>
+ * Thread safe, the handlers of all the solver threads can share one cache.
+ */
+public class ResultCache {
+
+	private static Logger logger = Logger.getLogger(ResultCache.class);
+
+	private static final int MAGIC = 0x504B4331;
+	private static final int VERSION = 3;
+
+	private final int maxEntries;
+	private final String settings;
+	private final LinkedHashMap<ProblemKey, PackResult> entries;
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+
+	/**
+	 * @param maxEntries the number of answers kept, solved exactly
+	 * within the default limits and picking the engine per line
+	 */
+	public ResultCache(int maxEntries) {
+		this(maxEntries, settings(0d, null, SolutionModeEnum.BEST, 1, PackerLimits.defaults()));
+	}
+
+	/**
+	 * @param maxEntries the number of answers kept
+	 * @param settings the settings the answers are solved with, see {@link #settingsOf(PackerConfig)}
+	 */
+	public ResultCache(int maxEntries, String settings) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("maxEntries must be positive, was " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.settings = settings;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<ProblemKey, PackResult> eldest) {
+				return size() > ResultCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * @param config the cache size and file of a run
+	 * @return the cache of the run, loaded from the cache file if it exists,
+	 * or null if caching is off. A cache file which can not be read is
+	 * logged and the run starts with an empty cache
+	 */
+	public static ResultCache open(PackerConfig config) {
+		if (config.getCacheSize() == 0) {
+			return null;
+		}
+		ResultCache resultCache = new ResultCache(config.getCacheSize(), settingsOf(config));
+		if (config.getCacheFile() != null && Files.exists(config.getCacheFile())) {
+			try {
+				resultCache.load(config.getCacheFile());
+			} catch (IOException e) {
+				logger.warn("Ignoring the cache file " + config.getCacheFile(), e);
+				resultCache.clear();
+			}
+		}
+		return resultCache;
+	}
+
+	/**
+	 * @param config the settings of a run
+	 * @return the settings which change the answers of the run, e.g.
+	 * <code>epsilon=0;engine=auto;mode=best;limits=100/15/100</code>
+	 */
+	public static String settingsOf(PackerConfig config) {
+		return settings(config.getEpsilon(), config.getEngine(), config.getMode(), config.getTopK(), config.getLimits());
+	}
+
+	private static String settings(double epsilon, SolverEngineEnum engine, SolutionModeEnum mode, int topK,
+								   PackerLimits limits) {
+		return "epsilon=" + PackerLimits.format(epsilon)
+				+ ";engine=" + (engine == null ? "auto" : engine.getCode())
+				+ ";mode=" + mode.getCode() + (mode == SolutionModeEnum.TOP_K ? ";topK=" + topK : "")
+				+ ";limits=" + PackerLimits.format(limits.getMaxWeight()) + "/" + limits.getMaxItems()
+				+ "/" + PackerLimits.format(limits.getMaxCost());
+	}
+
+	/**
+	 * @param file the cache file of the run, or null to keep the cache in memory only
+	 * @throws IOException if the file can not be written
+	 *
+	 * Logs the hit counters at the end of a run and saves the cache
+	 */
+	public void persist(Path file) throws IOException {
+		logger.info("Result cache : " + this);
+		if (file != null) {
+			save(file);
+		}
+	}
+
+	/**
+	 * @param problem a parsed line
+	 * @return the cached answer, or null if the line was not seen
+	 */
+	public PackResult get(PackageProblem problem) {
+		return get(ProblemKey.of(problem));
+	}
+
+	/**
+	 * @param key the canonical form of a line
+	 * @return the cached answer, or null if the line was not seen
+	 */
+	public PackResult get(ProblemKey key) {
+		PackResult result;
+		synchronized (entries) {
+			result = entries.get(key);
+		}
+		if (result == null) {
+			misses.increment();
+		} else {
+			hits.increment();
+		}
+		return result;
+	}
+
+	/**
+	 * @param key the canonical form of a line
+	 * @param result the answer of the line
+	 */
+	public void put(ProblemKey key, PackResult result) {
+		synchronized (entries) {
+			entries.put(key, result);
+		}
+	}
+
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	public String getSettings() {
+		return settings;
+	}
+
+	public int getMaxEntries() {
+		return maxEntries;
+	}
+
+	public long getHits() {
+		return hits.sum();
+	}
+
+	public long getMisses() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return the share of the lookups answered from the cache, 0 before the first lookup
+	 */
+	public double getHitRatio() {
+		long hitCount = hits.sum();
+		long lookups = hitCount + misses.sum();
+		return lookups == 0 ? 0d : (double) hitCount / lookups;
+	}
+
+	/**
+	 * @param file written through a temporary file next to it, then moved in place
+	 * @throws IOException if the file can not be written
+	 *
+	 * Writes the entries from the least to the most recently used,
+	 * so loading them back keeps the eviction order
+	 */
+	public void save(Path file) throws IOException {
+		List<Map.Entry<ProblemKey, PackResult>> snapshot;
+		synchronized (entries) {
+			snapshot = new ArrayList<>(entries.entrySet());
+		}
+		Path parent = file.toAbsolutePath().getParent();
+		Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+		try {
+			try (DataOutputStream output = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+				output.writeInt(MAGIC);
+				output.writeInt(VERSION);
+				output.writeInt(PackageProblem.SCALE);
+				output.writeUTF(settings);
+				output.writeInt(snapshot.size());
+				for (Map.Entry<ProblemKey, PackResult> entry : snapshot) {
+					long[] values = entry.getKey().values();
+					output.writeInt(values.length);
+					for (long value : values) {
+						output.writeLong(value);
+					}
+					PackResult result = entry.getValue();
+					output.writeUTF(result.getIndices());
+					output.writeUTF(result.getEngine().getCode());
+					output.writeDouble(result.getOptimalityGap());
+				}
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(temporary);
+		}
+		logger.info("Saved " + snapshot.size() + " cached answers to " + file);
+	}
+
+	/**
+	 * @param file a file written by {@link #save(Path)}
+	 * @return the number of entries read, the oldest ones are evicted
+	 * if the file holds more than {@link #getMaxEntries()}
+	 * @throws IOException if the file can not be read or is not a cache file
+	 * saved with the current scale and the settings of this cache
+	 */
+	public int load(Path file) throws IOException {
+		try (DataInputStream input = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(file)))) {
+			if (input.readInt() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException(file + " is not a packer cache file");
+			}
+			int scale = input.readInt();
+			if (scale != PackageProblem.SCALE) {
+				throw new IOException(file + " was saved with scale " + scale + ", not " + PackageProblem.SCALE);
+			}
+			String saved = input.readUTF();
+			if (!saved.equals(settings)) {
+				throw new IOException(file + " was saved with " + saved + ", not " + settings);
+			}
+			int count = input.readInt();
+			for (int i = 0; i < count; i++) {
+				long[] values = new long[input.readInt()];
+				for (int j = 0; j < values.length; j++) {
+					values[j] = input.readLong();
+				}
+				String indices = input.readUTF();
+				SolverEngineEnum engine = SolverEngineEnum.fromCode(input.readUTF());
+				put(ProblemKey.of(values), new PackResult(indices, engine, input.readDouble()));
+			}
+			logger.info("Loaded " + count + " cached answers from " + file);
+			return count;
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "ResultCache{" +
+				"size=" + size() +
+				", maxEntries=" + maxEntries +
+				", hits=" + hits.sum() +
+				", misses=" + misses.sum() +
+				'}';
+	}
+}
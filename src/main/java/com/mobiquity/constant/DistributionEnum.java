@@ -0,0 +1,35 @@
+package com.mobiquity.constant;
+
+/**
+ * How the generated capacities, weights or costs spread over their range,
+ * see {@link com.mobiquity.workload.WorkloadGenerator}
+ */
+public enum DistributionEnum {
+
+	UNIFORM("uniform"),
+	NORMAL("normal"),
+	EXPONENTIAL("exponential");
+
+	private String code;
+
+	private DistributionEnum(String code) {
+		this.code = code;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * @param code the short name of a distribution, e.g. "normal"
+	 * @return the distribution, looked up by code or by constant name
+	 */
+	public static DistributionEnum fromCode(String code) {
+		for (DistributionEnum distribution : values()) {
+			if (distribution.code.equalsIgnoreCase(code) || distribution.name().equalsIgnoreCase(code)) {
+				return distribution;
+			}
+		}
+		throw new IllegalArgumentException("Unknown distribution " + code);
+	}
+}
@@ -0,0 +1,40 @@
+package com.mobiquity.constant;
+
+import com.mobiquity.model.PackerLimits;
+
+public enum PackerErrorEnum {
+
+	MISSING_WEIGHT("Can not read weight of from the given input"),
+	INVALID_FORMAT("Can not read the input, please align with the format"),
+	MAX_WEIGHT_EXCEEDED("Max weight that a package can take is "),
+	MAX_ITEMS_EXCEEDED("Max items that a package can take is "),
+	MAX_COST_EXCEEDED("Max Cost that a package can take is "),
+	UNSOLVABLE("Can not solve the given input");
+
+	private String message;
+
+	private PackerErrorEnum(String message) {
+		this.message = message;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+
+	/**
+	 * @param limits the limits the line was checked against
+	 * @return the message, completed with the limit for the range errors
+	 */
+	public String getMessage(PackerLimits limits) {
+		switch (this) {
+			case MAX_WEIGHT_EXCEEDED:
+				return message + PackerLimits.format(limits.getMaxWeight());
+			case MAX_ITEMS_EXCEEDED:
+				return message + limits.getMaxItems();
+			case MAX_COST_EXCEEDED:
+				return message + PackerLimits.format(limits.getMaxCost());
+			default:
+				return message;
+		}
+	}
+}
@@ -0,0 +1,17 @@
+package com.mobiquity.constant;
+
+/**
+ * Steps a line goes through, timed by {@link com.mobiquity.metrics.PackerMetrics}
+ */
+public enum PackerStageEnum {
+
+	/**
+	 * Reading the line into a problem. The parser checks the format
+	 * and the limits while parsing, that check is part of this stage
+	 */
+	PARSE,
+	/**
+	 * Choosing the items, including the cache lookup
+	 */
+	SOLVE
+}
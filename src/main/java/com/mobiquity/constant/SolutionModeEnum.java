@@ -0,0 +1,35 @@
+package com.mobiquity.constant;
+
+/**
+ * What a line is answered with: the best selection, or alternatives to it
+ * separated by {@link StingDelimitersEnum#PIPE}
+ */
+public enum SolutionModeEnum {
+
+	BEST("best"),
+	TOP_K("top-k"),
+	FRONTIER("frontier");
+
+	private String code;
+
+	private SolutionModeEnum(String code) {
+		this.code = code;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * @param code the short name of a mode, e.g. "top-k"
+	 * @return the mode, looked up by code or by constant name
+	 */
+	public static SolutionModeEnum fromCode(String code) {
+		for (SolutionModeEnum mode : values()) {
+			if (mode.code.equalsIgnoreCase(code) || mode.name().equalsIgnoreCase(code)) {
+				return mode;
+			}
+		}
+		throw new IllegalArgumentException("Unknown solution mode " + code);
+	}
+}
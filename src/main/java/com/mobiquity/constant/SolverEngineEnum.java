@@ -0,0 +1,34 @@
+package com.mobiquity.constant;
+
+public enum SolverEngineEnum {
+
+	GREEDY("greedy"),
+	DYNAMIC_PROGRAMMING("dp"),
+	MEET_IN_THE_MIDDLE("mitm"),
+	BRANCH_AND_BOUND("bnb"),
+	FPTAS("fptas"),
+	MULTIPLE_KNAPSACK("mkp");
+
+	private String code;
+
+	private SolverEngineEnum(String code) {
+		this.code = code;
+	}
+
+	public String getCode() {
+		return code;
+	}
+
+	/**
+	 * @param code the short name of an engine, e.g. "dp"
+	 * @return the engine, looked up by code or by constant name
+	 */
+	public static SolverEngineEnum fromCode(String code) {
+		for (SolverEngineEnum engine : values()) {
+			if (engine.code.equalsIgnoreCase(code) || engine.name().equalsIgnoreCase(code)) {
+				return engine;
+			}
+		}
+		throw new IllegalArgumentException("Unknown solver engine " + code);
+	}
+}
@@ -9,7 +9,9 @@ public enum StingDelimitersEnum {
 	DASH("-"),
     BRACKETOPEN("("),
     EURO("€"),
-    BRACKETCLOSE(")");
+    BRACKETCLOSE(")"),
+	PIPE("|"),
+	SEMICOLON(";");
 	
 	private String delimeter;
 	
@@ -1,8 +1,33 @@
 package com.mobiquity.exception;
 
+import com.mobiquity.constant.PackerErrorEnum;
+
 public class APIException extends Exception {
 
+    private final PackerErrorEnum error;
+
     public APIException(String errorMessage) {
+        this(null, errorMessage);
+    }
+
+    public APIException(String errorMessage, Throwable cause) {
+        super(errorMessage, cause);
+        this.error = null;
+    }
+
+    /**
+     * @param error the reason a line was rejected
+     * @param errorMessage the message of the reason, completed with the limit if any
+     */
+    public APIException(PackerErrorEnum error, String errorMessage) {
         super(errorMessage);
+        this.error = error;
+    }
+
+    /**
+     * @return the reason a line was rejected, null if the exception is not about a line
+     */
+    public PackerErrorEnum getError() {
+        return error;
     }
 }
@@ -0,0 +1,195 @@
+package com.mobiquity.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.mobiquity.model.PackageProblem;
+
+/**
+ * Reads the problems written by {@link BinaryProblemWriter} through memory
+ * mapped windows of at most {@link MappedInput#MAX_MAPPING} bytes.
+ * <br/>
+ * A record is copied straight into a {@link PackageProblem}, there is
+ * nothing to parse or validate, so reading is bounded by the disk rather
+ * than by the CPU. Not thread safe.
+ */
+public class BinaryProblemReader implements Closeable {
+
+	private final FileChannel channel;
+	private final long size;
+	private final long records;
+	private final int version;
+	private MappedByteBuffer buffer;
+	private long windowStart;
+	private int windowLength;
+	private int position;
+	private long recordOffset;
+
+	private BinaryProblemReader(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+		ByteBuffer header = ByteBuffer.allocate(BinaryProblemWriter.HEADER_BYTES);
+		while (header.hasRemaining() && channel.read(header) >= 0) {
+			// reads the whole header
+		}
+		header.flip();
+		if (header.remaining() < BinaryProblemWriter.HEADER_BYTES
+				|| header.getInt() != BinaryProblemWriter.MAGIC) {
+			throw new IOException("Not a binary problem file");
+		}
+		this.version = header.getInt();
+		if (version < 1 || version > BinaryProblemWriter.VERSION) {
+			throw new IOException("Unsupported binary problem file version " + version);
+		}
+		int scale = header.getInt();
+		if (scale != PackageProblem.SCALE) {
+			throw new IOException("Binary problem file scale " + scale + " differs from " + PackageProblem.SCALE);
+		}
+		header.getInt();
+		this.records = header.getLong();
+		this.windowStart = BinaryProblemWriter.HEADER_BYTES;
+	}
+
+	/**
+	 * @param path the file to read
+	 * @return the opened reader, positioned before the first record
+	 * @throws IOException if the file can not be opened or is not a binary problem file
+	 */
+	public static BinaryProblemReader open(Path path) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		try {
+			return new BinaryProblemReader(channel);
+		} catch (IOException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * @param path the file to check
+	 * @return true if the file starts with the binary problem magic number
+	 * @throws IOException if the file can not be read
+	 */
+	public static boolean isBinary(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer magic = ByteBuffer.allocate(4);
+			while (magic.hasRemaining() && channel.read(magic) >= 0) {
+				// reads the magic number
+			}
+			return !magic.hasRemaining() && magic.getInt(0) == BinaryProblemWriter.MAGIC;
+		}
+	}
+
+	/**
+	 * @return the number of records of the file
+	 */
+	public long getRecords() {
+		return records;
+	}
+
+	/**
+	 * @param problem cleared and filled with the next record
+	 * @return true if a record was read, false at the end of the file
+	 * @throws IOException if the file can not be mapped or is truncated
+	 */
+	public boolean next(PackageProblem problem) throws IOException {
+		if (!ensure(4)) {
+			return false;
+		}
+		int length = buffer.getInt(position);
+		if (length < 12 || !ensure(4 + length)) {
+			throw new IOException("Truncated record at offset " + (windowStart + position));
+		}
+		recordOffset = windowStart + position;
+		int at = position + 4;
+		problem.clear();
+		int bags = 1;
+		if (version > 1) {
+			bags = buffer.getInt(at);
+			at += 4;
+			if (bags < 1 || 8L * bags > length) {
+				throw new IOException("Corrupted record at offset " + recordOffset);
+			}
+		}
+		problem.setCapacity(buffer.getLong(at));
+		for (int i = 1; i < bags; i++) {
+			problem.addBag(buffer.getLong(at + 8 * i));
+		}
+		at += 8 * bags;
+		int items = buffer.getInt(at);
+		if (length != (version > 1 ? 8 : 4) + 8 * bags + 20L * items) {
+			throw new IOException("Corrupted record at offset " + recordOffset);
+		}
+		int indexes = at + 4;
+		int weights = indexes + 4 * items;
+		int costs = weights + 8 * items;
+		for (int i = 0; i < items; i++) {
+			problem.add(buffer.getInt(indexes + 4 * i), buffer.getLong(weights + 8 * i), buffer.getLong(costs + 8 * i));
+		}
+		position += 4 + length;
+		return true;
+	}
+
+	/**
+	 * @return the file offset of the last record read
+	 */
+	public long offset() {
+		return recordOffset;
+	}
+
+	/**
+	 * @return the file offset after the last record read
+	 */
+	public long nextOffset() {
+		return windowStart + position;
+	}
+
+	/**
+	 * @param offset the offset of a record, as returned by {@link #nextOffset()}
+	 * @throws IOException if the offset is outside of the records of the file
+	 */
+	public void seek(long offset) throws IOException {
+		if (offset < BinaryProblemWriter.HEADER_BYTES || offset > size) {
+			throw new IOException("Offset " + offset + " is outside of the records of the file");
+		}
+		buffer = null;
+		windowStart = offset;
+		windowLength = 0;
+		position = 0;
+	}
+
+	/**
+	 * Maps the next window when fewer than the given bytes are left in the current one
+	 */
+	private boolean ensure(int bytes) throws IOException {
+		if (buffer != null && position + bytes <= windowLength) {
+			return true;
+		}
+		long start = windowStart + position;
+		if (start + bytes > size) {
+			if (start < size && bytes == 4) {
+				throw new IOException("Truncated record at offset " + start);
+			}
+			return start + bytes <= size;
+		}
+		long length = Math.min(MappedInput.MAX_MAPPING, size - start);
+		if (length < bytes) {
+			throw new IOException("Record at offset " + start + " is longer than " + MappedInput.MAX_MAPPING + " bytes");
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+		windowStart = start;
+		windowLength = (int) length;
+		position = 0;
+		return true;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
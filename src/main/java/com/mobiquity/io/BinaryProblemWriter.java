@@ -0,0 +1,149 @@
+package com.mobiquity.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.pattern.PackageParser;
+
+/**
+ * Writes problems in the binary format read by {@link BinaryProblemReader}.
+ * <br/>
+ * The file starts with a header of {@link #HEADER_BYTES} bytes:
+ * <p>
+ * <code>{magic:int} {version:int} {scale:int} {reserved:int} {records:long}</code>
+ * </p>
+ * followed by one length-prefixed record per problem, all numbers big endian:
+ * <p>
+ * <code>{length:int} {bags:int} {capacity:long}* {items:int} {index:int}* {weight:long}* {cost:long}*</code>
+ * </p>
+ * where the length counts the bytes after itself. Version 1 records had a
+ * single capacity and no bag count, {@link BinaryProblemReader} reads both. Weights, costs and the
+ * capacity are fixed-point numbers of <code>scale</code> units. The number of
+ * records is written by {@link #close()}. Not thread safe.
+ */
+public class BinaryProblemWriter implements Closeable {
+
+	private static Logger logger = Logger.getLogger(BinaryProblemWriter.class);
+
+	public static final int MAGIC = 0x504B5031;
+	public static final int VERSION = 2;
+	public static final int HEADER_BYTES = 24;
+
+	private final FileChannel channel;
+	private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+	private long records;
+
+	private BinaryProblemWriter(FileChannel channel) throws IOException {
+		this.channel = channel;
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(PackageProblem.SCALE).putInt(0).putLong(0);
+	}
+
+	/**
+	 * @param file replaced if it exists
+	 * @return the writer
+	 * @throws IOException if the file can not be created
+	 */
+	public static BinaryProblemWriter create(Path file) throws IOException {
+		return new BinaryProblemWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+	}
+
+	/**
+	 * @param input the text file to convert
+	 * @param output the binary file, replaced if it exists
+	 * @param config the limits each line is validated against, rejected lines go to
+	 * {@link PackerConfig#getRejectionReport()} when set and are logged otherwise
+	 * @return the number of problems written
+	 * @throws IOException if the input can not be read or the output written
+	 *
+	 * Lines are validated once here, the binary file only holds valid problems
+	 */
+	public static long convert(Path input, Path output, PackerConfig config) throws IOException {
+		PackageParser packageParser = new PackageParser(config.getLimits());
+		PackageProblem problem = new PackageProblem();
+		try (MappedInput mappedInput = MappedInput.open(input);
+			 BinaryProblemWriter writer = create(output);
+			 RejectionReport rejectionReport = config.getRejectionReport() == null ? null
+					 : RejectionReport.create(config.getRejectionReport(), config.getLimits())) {
+			MappedInput.LineCursor cursor = mappedInput.lines(mappedInput.all());
+			while (cursor.next()) {
+				PackerErrorEnum error = packageParser.parse(cursor.buffer(), cursor.start(), cursor.end(), problem);
+				if (error == null) {
+					writer.write(problem);
+				} else if (rejectionReport != null) {
+					rejectionReport.append(cursor.lineNumber(), cursor.offset(), error);
+				} else {
+					logger.error("Invalid Data : " + error.getMessage(config.getLimits()));
+				}
+			}
+			return writer.getRecords();
+		}
+	}
+
+	/**
+	 * @param problem appended as the next record
+	 * @throws IOException if the file can not be written
+	 */
+	public void write(PackageProblem problem) throws IOException {
+		int size = problem.size();
+		int bags = problem.getBags();
+		int length = 8 + 8 * bags + 20 * size;
+		if (buffer.remaining() < 4 + length) {
+			flush();
+			if (buffer.capacity() < 4 + length) {
+				buffer = ByteBuffer.allocateDirect(Math.max(4 + length, 2 * buffer.capacity()));
+			}
+		}
+		buffer.putInt(length).putInt(bags);
+		for (int i = 0; i < bags; i++) {
+			buffer.putLong(problem.getCapacity(i));
+		}
+		buffer.putInt(size);
+		for (int i = 0; i < size; i++) {
+			buffer.putInt(problem.getIndex(i));
+		}
+		for (int i = 0; i < size; i++) {
+			buffer.putLong(problem.getWeight(i));
+		}
+		for (int i = 0; i < size; i++) {
+			buffer.putLong(problem.getCost(i));
+		}
+		records++;
+	}
+
+	public long getRecords() {
+		return records;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	/**
+	 * Writes the pending records and the record count, then closes the file
+	 */
+	@Override
+	public void close() throws IOException {
+		try {
+			flush();
+			ByteBuffer count = ByteBuffer.allocate(8).putLong(0, records);
+			channel.write(count, HEADER_BYTES - 8);
+			channel.force(false);
+		} finally {
+			channel.close();
+		}
+	}
+}
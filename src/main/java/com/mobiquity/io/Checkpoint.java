@@ -0,0 +1,193 @@
+package com.mobiquity.io;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Progress of a run packing a file into another, saved every so many lines
+ * next to the output so that a run which died can resume instead of
+ * starting over:
+ * <p>
+ * <code>{magic:int}{version:int}{inputOffset:long}{lineNumber:long}{outputBytes:long}{rejectedBytes:long}
+ * {inputSize:long}{inputModified:long}</code>
+ * </p>
+ * The input offset is where the line after the last one written starts,
+ * the byte counts are the length of the output and of the rejection report
+ * once that line was written. Both files are forced to disk before the
+ * checkpoint, which is itself written to a temporary file, forced and
+ * moved in place, so a checkpoint never points past data which was lost.
+ * The size and last modified time of the input tell whether a resumed run
+ * reads the same file, see {@link #checkInput(Path)}.
+ */
+public class Checkpoint {
+
+	public static final String SUFFIX = ".checkpoint";
+
+	private static final int MAGIC = 0x504B4350;
+	private static final int VERSION = 2;
+	private static final int BYTES = 56;
+
+	private final long inputOffset;
+	private final long lineNumber;
+	private final long outputBytes;
+	private final long rejectedBytes;
+	private final long inputSize;
+	private final long inputModified;
+
+	/**
+	 * @param inputOffset the input offset the next run starts reading at
+	 * @param lineNumber the number of input lines done
+	 * @param outputBytes the length of the output holding the answers of those lines
+	 * @param rejectedBytes the length of the rejection report, 0 if there is none
+	 * @param inputSize the size of the input when the run started
+	 * @param inputModified the last modified time of the input in milliseconds, when the run started
+	 */
+	public Checkpoint(long inputOffset, long lineNumber, long outputBytes, long rejectedBytes,
+					  long inputSize, long inputModified) {
+		this.inputOffset = inputOffset;
+		this.lineNumber = lineNumber;
+		this.outputBytes = outputBytes;
+		this.rejectedBytes = rejectedBytes;
+		this.inputSize = inputSize;
+		this.inputModified = inputModified;
+	}
+
+	/**
+	 * @param output the file the answers are written to
+	 * @return the checkpoint file of the output, <code>{output}.checkpoint</code>
+	 */
+	public static Path fileFor(Path output) {
+		return Paths.get(output.toString() + SUFFIX);
+	}
+
+	/**
+	 * @param file a file written by {@link #save(Path)}
+	 * @return the checkpoint
+	 * @throws IOException if the file can not be read or is not a checkpoint
+	 */
+	public static Checkpoint read(Path file) throws IOException {
+		try (DataInputStream input = new DataInputStream(Files.newInputStream(file))) {
+			if (Files.size(file) != BYTES || input.readInt() != MAGIC || input.readInt() != VERSION) {
+				throw new IOException(file + " is not a packer checkpoint");
+			}
+			return new Checkpoint(input.readLong(), input.readLong(), input.readLong(), input.readLong(),
+					input.readLong(), input.readLong());
+		}
+	}
+
+	/**
+	 * @param input the file a run is about to resume from this checkpoint
+	 * @throws IOException if the file can not be read, or its size or last modified
+	 * time differ from the input the checkpoint was saved for, as the saved offset
+	 * would then point into other lines
+	 */
+	public void checkInput(Path input) throws IOException {
+		long size = Files.size(input);
+		long modified = Files.getLastModifiedTime(input).toMillis();
+		if (size != inputSize || modified != inputModified) {
+			throw new IOException(input + " changed since its checkpoint, size " + size + " and modified at "
+					+ modified + " instead of " + inputSize + " and " + inputModified + ", pack it again without resuming");
+		}
+	}
+
+	/**
+	 * @param file replaced atomically once the new content is on disk
+	 * @throws IOException if the file can not be written
+	 */
+	public void save(Path file) throws IOException {
+		ByteBuffer content = ByteBuffer.allocate(BYTES).putInt(MAGIC).putInt(VERSION)
+				.putLong(inputOffset).putLong(lineNumber).putLong(outputBytes).putLong(rejectedBytes)
+				.putLong(inputSize).putLong(inputModified);
+		content.flip();
+		Path parent = file.toAbsolutePath().getParent();
+		Path temporary = parent.resolve(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (content.hasRemaining()) {
+				channel.write(content);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		force(parent);
+	}
+
+	/**
+	 * @param path a file, or a directory to make a rename in it durable
+	 * @return the size of the file
+	 * @throws IOException if a file can not be forced to disk
+	 *
+	 * Forcing a directory is not supported on every platform, it is skipped where it fails
+	 */
+	public static long force(Path path) throws IOException {
+		if (Files.isDirectory(path)) {
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+				channel.force(true);
+			} catch (IOException e) {
+				// the rename is durable once the file system commits it
+			}
+			return 0;
+		}
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.force(false);
+			return channel.size();
+		}
+	}
+
+	/**
+	 * @param file cut back to the given length, the bytes after it are dropped
+	 * @param length the length recorded by a checkpoint
+	 * @throws IOException if the file is shorter than the length or can not be written
+	 */
+	public static void truncate(Path file, long length) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+			if (channel.size() < length) {
+				throw new IOException(file + " is shorter than its checkpoint, " + channel.size() + " < " + length);
+			}
+			channel.truncate(length);
+		}
+	}
+
+	public long getInputOffset() {
+		return inputOffset;
+	}
+
+	public long getLineNumber() {
+		return lineNumber;
+	}
+
+	public long getOutputBytes() {
+		return outputBytes;
+	}
+
+	public long getRejectedBytes() {
+		return rejectedBytes;
+	}
+
+	public long getInputSize() {
+		return inputSize;
+	}
+
+	public long getInputModified() {
+		return inputModified;
+	}
+
+	@Override
+	public String toString() {
+		return "Checkpoint{" +
+				"inputOffset=" + inputOffset +
+				", lineNumber=" + lineNumber +
+				", outputBytes=" + outputBytes +
+				", rejectedBytes=" + rejectedBytes +
+				", inputSize=" + inputSize +
+				", inputModified=" + inputModified +
+				'}';
+	}
+}
@@ -0,0 +1,227 @@
+package com.mobiquity.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Input file read through memory mapped windows of at most
+ * {@link #MAX_MAPPING} bytes, each ending on a line break.
+ * <br/>
+ * The file can be split into newline-aligned {@link Chunk}s whose lines
+ * are iterated independently, so the chunks can be parsed concurrently.
+ */
+public class MappedInput implements Closeable {
+
+	public static final long MAX_MAPPING = 1L << 30;
+
+	private final FileChannel channel;
+	private final long size;
+
+	private MappedInput(FileChannel channel) throws IOException {
+		this.channel = channel;
+		this.size = channel.size();
+	}
+
+	/**
+	 * @param path the file to read
+	 * @return the opened input
+	 * @throws IOException if the file can not be opened
+	 */
+	public static MappedInput open(Path path) throws IOException {
+		return new MappedInput(FileChannel.open(path, StandardOpenOption.READ));
+	}
+
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * @return the whole file as a single chunk
+	 */
+	public Chunk all() {
+		return new Chunk(0, size);
+	}
+
+	/**
+	 * @param parts the number of chunks wanted
+	 * @return up to that many chunks of about equal size, each starting
+	 * at a line start and ending after a line break or at the end of file
+	 * @throws IOException if the file can not be read
+	 */
+	public List<Chunk> split(int parts) throws IOException {
+		List<Chunk> chunks = new ArrayList<>();
+		long target = Math.max(1, size / Math.max(1, parts));
+		long start = 0;
+		while (start < size) {
+			long end = start + target >= size ? size : lineEnd(start + target);
+			chunks.add(new Chunk(start, end));
+			start = end;
+		}
+		return chunks;
+	}
+
+	/**
+	 * @param chunk the range to iterate
+	 * @return a cursor over the lines of the range
+	 */
+	public LineCursor lines(Chunk chunk) {
+		return new LineCursor(chunk);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * @return the offset after the first line break at or after the position
+	 */
+	private long lineEnd(long position) throws IOException {
+		while (position < size) {
+			long length = Math.min(64 * 1024, size - position);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+			for (int i = 0; i < length; i++) {
+				if (window.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += length;
+		}
+		return size;
+	}
+
+	/**
+	 * Byte range of the file, [start, end)
+	 */
+	public static class Chunk {
+
+		private final long start;
+		private final long end;
+
+		public Chunk(long start, long end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		public long getStart() {
+			return start;
+		}
+
+		public long getEnd() {
+			return end;
+		}
+
+		@Override
+		public String toString() {
+			return "Chunk{" + start + ", " + end + '}';
+		}
+	}
+
+	/**
+	 * Iterates the lines of a chunk, mapping it window by window.
+	 * <br/>
+	 * After {@link #next()} returned true, the line is the bytes
+	 * [{@link #start()}, {@link #end()}) of {@link #buffer()}, without its
+	 * line break. Not thread safe, but the buffers handed out stay valid
+	 * and can be read from other threads.
+	 */
+	public class LineCursor {
+
+		private final long chunkEnd;
+		private MappedByteBuffer buffer;
+		private long windowStart;
+		private int windowLength;
+		private int position;
+		private int lineStart;
+		private int lineEnd;
+		private long lineNumber;
+
+		private LineCursor(Chunk chunk) {
+			this.chunkEnd = chunk.getEnd();
+			this.windowStart = chunk.getStart();
+		}
+
+		/**
+		 * @return true if a line was found, false at the end of the chunk
+		 * @throws IOException if the file can not be mapped or a line
+		 * is longer than {@link #MAX_MAPPING}
+		 */
+		public boolean next() throws IOException {
+			if (buffer == null || position >= windowLength) {
+				if (!map()) {
+					return false;
+				}
+			}
+			lineStart = position;
+			while (position < windowLength && buffer.get(position) != '\n') {
+				position++;
+			}
+			lineEnd = position;
+			position++;
+			lineNumber++;
+			return true;
+		}
+
+		private boolean map() throws IOException {
+			long start = windowStart + windowLength;
+			if (start >= chunkEnd) {
+				return false;
+			}
+			long length = Math.min(MAX_MAPPING, chunkEnd - start);
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, length);
+			if (start + length < chunkEnd) {
+				int last = (int) length - 1;
+				while (last >= 0 && buffer.get(last) != '\n') {
+					last--;
+				}
+				if (last < 0) {
+					throw new IOException("Line at offset " + start + " is longer than " + MAX_MAPPING + " bytes");
+				}
+				length = last + 1;
+			}
+			windowStart = start;
+			windowLength = (int) length;
+			position = 0;
+			return true;
+		}
+
+		public MappedByteBuffer buffer() {
+			return buffer;
+		}
+
+		public int start() {
+			return lineStart;
+		}
+
+		public int end() {
+			return lineEnd;
+		}
+
+		/**
+		 * @return the file offset of the first byte of the line
+		 */
+		public long offset() {
+			return windowStart + lineStart;
+		}
+
+		/**
+		 * @return the file offset after the line break of the line
+		 */
+		public long nextOffset() {
+			return Math.min(windowStart + lineEnd + 1, chunkEnd);
+		}
+
+		/**
+		 * @return the 1-based number of the line within the chunk
+		 */
+		public long lineNumber() {
+			return lineNumber;
+		}
+	}
+}
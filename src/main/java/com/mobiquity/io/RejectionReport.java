@@ -0,0 +1,100 @@
+package com.mobiquity.io;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.model.PackerLimits;
+
+/**
+ * Side file listing the rejected lines of an input, tab separated:
+ * <p>
+ * <code>{lineNumber}	{byteOffset}	{errorCode}	{message}</code>
+ * </p>
+ * Not thread safe, the pipeline writes it from its writer thread
+ * so the lines keep the input order.
+ */
+public class RejectionReport implements Closeable {
+
+	public static final String HEADER = "line\toffset\terror\tmessage";
+
+	private final Writer output;
+	private final PackerLimits limits;
+	private long rejected;
+
+	/**
+	 * @param output receives the report, closed by {@link #close()}
+	 * @param limits completes the messages of the range errors
+	 * @throws IOException if the header can not be written
+	 */
+	public RejectionReport(Writer output, PackerLimits limits) throws IOException {
+		this(output, limits, true);
+	}
+
+	private RejectionReport(Writer output, PackerLimits limits, boolean header) throws IOException {
+		this.output = output;
+		this.limits = limits;
+		if (header) {
+			output.append(HEADER).append('\n');
+		}
+	}
+
+	/**
+	 * @param file replaced if it exists
+	 * @param limits completes the messages of the range errors
+	 * @return the report
+	 * @throws IOException if the file can not be written
+	 */
+	public static RejectionReport create(Path file, PackerLimits limits) throws IOException {
+		return new RejectionReport(Files.newBufferedWriter(file, StandardCharsets.UTF_8), limits);
+	}
+
+	/**
+	 * @param file a report written by an earlier run
+	 * @param length the length of the report at the checkpoint the run resumes from,
+	 * the rows written after it are dropped and the new rows appended
+	 * @param limits completes the messages of the range errors
+	 * @return the report
+	 * @throws IOException if the file is shorter than the length or can not be written
+	 */
+	public static RejectionReport resume(Path file, long length, PackerLimits limits) throws IOException {
+		Checkpoint.truncate(file, length);
+		return new RejectionReport(Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.APPEND), limits, length == 0);
+	}
+
+	/**
+	 * @param lineNumber the 1-based number of the line
+	 * @param offset the byte offset of the line
+	 * @param error the reason the line was rejected
+	 * @throws IOException if the report can not be written
+	 */
+	public void append(long lineNumber, long offset, PackerErrorEnum error) throws IOException {
+		output.append(Long.toString(lineNumber)).append('\t')
+				.append(Long.toString(offset)).append('\t')
+				.append(error.name()).append('\t')
+				.append(error.getMessage(limits)).append('\n');
+		rejected++;
+	}
+
+	/**
+	 * @return the number of lines reported
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void flush() throws IOException {
+		output.flush();
+	}
+
+	@Override
+	public void close() throws IOException {
+		output.close();
+	}
+}
@@ -0,0 +1,138 @@
+package com.mobiquity.metrics;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Distribution of non negative values in power of two buckets, bucket
+ * <code>b</code> counting the values from <code>2^b</code> up to
+ * <code>2^(b+1) - 1</code>, 0 falling in the first one.
+ * <br/>
+ * Recording touches two striped counters and takes no lock, so it can
+ * be called from every solver thread on every line. Percentiles are
+ * reported as the upper bound of their bucket, within a factor of two.
+ */
+public class Histogram {
+
+	private static final int BUCKETS = 64;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+	private final LongAdder sum = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+	public Histogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * @param value the value to count, negative values count as 0
+	 */
+	public void record(long value) {
+		long recorded = Math.max(0L, value);
+		buckets[Math.max(0, 63 - Long.numberOfLeadingZeros(recorded))].increment();
+		sum.add(recorded);
+		max.accumulate(recorded);
+	}
+
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+		sum.reset();
+		max.reset();
+	}
+
+	/**
+	 * @return the counts read bucket by bucket, not atomically
+	 * while values are being recorded
+	 */
+	public Snapshot snapshot() {
+		long[] counts = new long[BUCKETS];
+		long count = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets[i].sum();
+			count += counts[i];
+		}
+		long maxValue = max.get();
+		return new Snapshot(count, sum.sum(), maxValue,
+				percentile(counts, count, maxValue, 0.5d),
+				percentile(counts, count, maxValue, 0.9d),
+				percentile(counts, count, maxValue, 0.99d));
+	}
+
+	private static long percentile(long[] counts, long count, long maxValue, double quantile) {
+		long rank = (long) Math.ceil(quantile * count);
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank && seen > 0) {
+				long upper = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+				return Math.min(upper, maxValue);
+			}
+		}
+		return 0L;
+	}
+
+	/**
+	 * Values of a histogram at one point in time
+	 */
+	public static class Snapshot {
+
+		private final long count;
+		private final long sum;
+		private final long max;
+		private final long p50;
+		private final long p90;
+		private final long p99;
+
+		Snapshot(long count, long sum, long max, long p50, long p90, long p99) {
+			this.count = count;
+			this.sum = sum;
+			this.max = max;
+			this.p50 = p50;
+			this.p90 = p90;
+			this.p99 = p99;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getSum() {
+			return sum;
+		}
+
+		public double getMean() {
+			return count == 0 ? 0d : (double) sum / count;
+		}
+
+		public long getMax() {
+			return max;
+		}
+
+		public long getP50() {
+			return p50;
+		}
+
+		public long getP90() {
+			return p90;
+		}
+
+		public long getP99() {
+			return p99;
+		}
+
+		@Override
+		public String toString() {
+			return "{count=" + count +
+					", mean=" + String.format("%.1f", getMean()) +
+					", p50=" + p50 +
+					", p90=" + p90 +
+					", p99=" + p99 +
+					", max=" + max +
+					'}';
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package com.mobiquity.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+
+/**
+ * Values of the {@link PackerMetrics} at one point in time,
+ * stage latencies are in nanoseconds.
+ */
+public class MetricsSnapshot {
+
+	private final long linesProcessed;
+	private final long linesCached;
+	private final Map<PackerErrorEnum, Long> rejections;
+	private final Map<SolverEngineEnum, Long> engines;
+	private final Map<PackerStageEnum, Histogram.Snapshot> stages;
+	private final Histogram.Snapshot itemsPerLine;
+
+	MetricsSnapshot(long linesProcessed, long linesCached, Map<PackerErrorEnum, Long> rejections,
+					Map<SolverEngineEnum, Long> engines, Map<PackerStageEnum, Histogram.Snapshot> stages,
+					Histogram.Snapshot itemsPerLine) {
+		this.linesProcessed = linesProcessed;
+		this.linesCached = linesCached;
+		this.rejections = Collections.unmodifiableMap(rejections);
+		this.engines = Collections.unmodifiableMap(engines);
+		this.stages = Collections.unmodifiableMap(stages);
+		this.itemsPerLine = itemsPerLine;
+	}
+
+	/**
+	 * @return the lines answered, from the cache or by a solver
+	 */
+	public long getLinesProcessed() {
+		return linesProcessed;
+	}
+
+	/**
+	 * @return the lines answered from the result cache
+	 */
+	public long getLinesCached() {
+		return linesCached;
+	}
+
+	public long getLinesRejected() {
+		long rejected = 0;
+		for (long count : rejections.values()) {
+			rejected += count;
+		}
+		return rejected;
+	}
+
+	public long getRejections(PackerErrorEnum error) {
+		return rejections.get(error);
+	}
+
+	public Map<PackerErrorEnum, Long> getRejections() {
+		return rejections;
+	}
+
+	public long getEngine(SolverEngineEnum engine) {
+		return engines.get(engine);
+	}
+
+	public Map<SolverEngineEnum, Long> getEngines() {
+		return engines;
+	}
+
+	public Histogram.Snapshot getStage(PackerStageEnum stage) {
+		return stages.get(stage);
+	}
+
+	public Map<PackerStageEnum, Histogram.Snapshot> getStages() {
+		return stages;
+	}
+
+	public Histogram.Snapshot getItemsPerLine() {
+		return itemsPerLine;
+	}
+
+	@Override
+	public String toString() {
+		return "MetricsSnapshot{" +
+				"linesProcessed=" + linesProcessed +
+				", linesCached=" + linesCached +
+				", rejections=" + rejections +
+				", engines=" + engines +
+				", stages=" + stages +
+				", itemsPerLine=" + itemsPerLine +
+				'}';
+	}
+}
@@ -0,0 +1,210 @@
+package com.mobiquity.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+
+/**
+ * Counters and latency histograms of every line packed in the JVM:
+ * lines processed, cached and rejected per reason, the engine used,
+ * the items per line and the time spent per {@link PackerStageEnum}.
+ * <br/>
+ * All the values are striped counters, recording takes no lock and does
+ * not allocate, so the metrics stay on. They are read through
+ * {@link #snapshot()} or JMX, see {@link PackerMetricsMXBean}.
+ */
+public final class PackerMetrics implements PackerMetricsMXBean {
+
+	private static Logger logger = Logger.getLogger(PackerMetrics.class);
+
+	public static final String OBJECT_NAME = "com.mobiquity.packer:type=PackerMetrics";
+
+	private static final PackerErrorEnum[] ERRORS = PackerErrorEnum.values();
+	private static final SolverEngineEnum[] ENGINES = SolverEngineEnum.values();
+	private static final PackerStageEnum[] STAGES = PackerStageEnum.values();
+	private static final PackerMetrics INSTANCE = register(new PackerMetrics());
+
+	private final LongAdder linesProcessed = new LongAdder();
+	private final LongAdder linesCached = new LongAdder();
+	private final LongAdder[] rejections = adders(ERRORS.length);
+	private final LongAdder[] engines = adders(ENGINES.length);
+	private final Histogram[] stages = new Histogram[STAGES.length];
+	private final Histogram itemsPerLine = new Histogram();
+
+	private PackerMetrics() {
+		for (int i = 0; i < stages.length; i++) {
+			stages[i] = new Histogram();
+		}
+	}
+
+	public static PackerMetrics getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * @param stage the step timed
+	 * @param nanos the time it took
+	 */
+	public void recordStage(PackerStageEnum stage, long nanos) {
+		stages[stage.ordinal()].record(nanos);
+	}
+
+	/**
+	 * @param engine the engine which answered the line
+	 * @param items the number of items of the line
+	 * @param cached true if the answer came from the result cache
+	 */
+	public void recordSolved(SolverEngineEnum engine, int items, boolean cached) {
+		linesProcessed.increment();
+		if (cached) {
+			linesCached.increment();
+		}
+		engines[engine.ordinal()].increment();
+		itemsPerLine.record(items);
+	}
+
+	/**
+	 * @param error the reason the line was rejected, null counts as
+	 * {@link PackerErrorEnum#INVALID_FORMAT}
+	 */
+	public void recordRejected(PackerErrorEnum error) {
+		rejections[(error == null ? PackerErrorEnum.INVALID_FORMAT : error).ordinal()].increment();
+	}
+
+	/**
+	 * @return the current values, read counter by counter
+	 */
+	public MetricsSnapshot snapshot() {
+		Map<PackerErrorEnum, Long> rejected = new EnumMap<>(PackerErrorEnum.class);
+		for (PackerErrorEnum error : ERRORS) {
+			rejected.put(error, rejections[error.ordinal()].sum());
+		}
+		Map<SolverEngineEnum, Long> used = new EnumMap<>(SolverEngineEnum.class);
+		for (SolverEngineEnum engine : ENGINES) {
+			used.put(engine, engines[engine.ordinal()].sum());
+		}
+		Map<PackerStageEnum, Histogram.Snapshot> timed = new EnumMap<>(PackerStageEnum.class);
+		for (PackerStageEnum stage : STAGES) {
+			timed.put(stage, stages[stage.ordinal()].snapshot());
+		}
+		return new MetricsSnapshot(linesProcessed.sum(), linesCached.sum(), rejected, used, timed,
+				itemsPerLine.snapshot());
+	}
+
+	@Override
+	public long getLinesProcessed() {
+		return linesProcessed.sum();
+	}
+
+	@Override
+	public long getLinesRejected() {
+		long rejected = 0;
+		for (LongAdder rejection : rejections) {
+			rejected += rejection.sum();
+		}
+		return rejected;
+	}
+
+	@Override
+	public long getLinesCached() {
+		return linesCached.sum();
+	}
+
+	@Override
+	public Map<String, Long> getRejections() {
+		Map<String, Long> rejected = new LinkedHashMap<>();
+		for (PackerErrorEnum error : ERRORS) {
+			rejected.put(error.name(), rejections[error.ordinal()].sum());
+		}
+		return rejected;
+	}
+
+	@Override
+	public Map<String, Long> getEngines() {
+		Map<String, Long> used = new LinkedHashMap<>();
+		for (SolverEngineEnum engine : ENGINES) {
+			used.put(engine.getCode(), engines[engine.ordinal()].sum());
+		}
+		return used;
+	}
+
+	@Override
+	public Map<String, Double> getStageMeanMicros() {
+		Map<String, Double> means = new LinkedHashMap<>();
+		for (PackerStageEnum stage : STAGES) {
+			means.put(stage.name(), stages[stage.ordinal()].snapshot().getMean() / 1000d);
+		}
+		return means;
+	}
+
+	@Override
+	public Map<String, Double> getStageP99Micros() {
+		Map<String, Double> percentiles = new LinkedHashMap<>();
+		for (PackerStageEnum stage : STAGES) {
+			percentiles.put(stage.name(), stages[stage.ordinal()].snapshot().getP99() / 1000d);
+		}
+		return percentiles;
+	}
+
+	@Override
+	public double getItemsPerLineMean() {
+		return itemsPerLine.snapshot().getMean();
+	}
+
+	@Override
+	public long getItemsPerLineMax() {
+		return itemsPerLine.snapshot().getMax();
+	}
+
+	/**
+	 * Sets every counter back to 0, lines recorded meanwhile may be lost
+	 */
+	@Override
+	public void reset() {
+		linesProcessed.reset();
+		linesCached.reset();
+		for (LongAdder rejection : rejections) {
+			rejection.reset();
+		}
+		for (LongAdder engine : engines) {
+			engine.reset();
+		}
+		for (Histogram stage : stages) {
+			stage.reset();
+		}
+		itemsPerLine.reset();
+	}
+
+	private static LongAdder[] adders(int count) {
+		LongAdder[] adders = new LongAdder[count];
+		for (int i = 0; i < count; i++) {
+			adders[i] = new LongAdder();
+		}
+		return adders;
+	}
+
+	private static PackerMetrics register(PackerMetrics metrics) {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(metrics, name);
+			}
+		} catch (JMException | RuntimeException e) {
+			logger.warn("Unable to register the packer metrics with JMX", e);
+		}
+		return metrics;
+	}
+}
@@ -0,0 +1,43 @@
+package com.mobiquity.metrics;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link PackerMetrics}, registered as
+ * <code>com.mobiquity.packer:type=PackerMetrics</code>.
+ * Latencies are in microseconds.
+ */
+public interface PackerMetricsMXBean {
+
+	long getLinesProcessed();
+
+	long getLinesRejected();
+
+	long getLinesCached();
+
+	/**
+	 * @return rejected lines per {@link com.mobiquity.constant.PackerErrorEnum}
+	 */
+	Map<String, Long> getRejections();
+
+	/**
+	 * @return solved lines per {@link com.mobiquity.constant.SolverEngineEnum}
+	 */
+	Map<String, Long> getEngines();
+
+	/**
+	 * @return the mean latency per {@link com.mobiquity.constant.PackerStageEnum}
+	 */
+	Map<String, Double> getStageMeanMicros();
+
+	/**
+	 * @return the 99th percentile latency per {@link com.mobiquity.constant.PackerStageEnum}
+	 */
+	Map<String, Double> getStageP99Micros();
+
+	double getItemsPerLineMean();
+
+	long getItemsPerLineMax();
+
+	void reset();
+}
@@ -0,0 +1,111 @@
+package com.mobiquity.model;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a bulk run: one {@link FileSummary} per input file, in the
+ * order of the file names, and the elapsed time of the whole run.
+ */
+public class BulkSummary {
+
+	private final List<FileSummary> files;
+	private final long elapsedNanos;
+
+	public BulkSummary(List<FileSummary> files, long elapsedNanos) {
+		this.files = Collections.unmodifiableList(files);
+		this.elapsedNanos = elapsedNanos;
+	}
+
+	public List<FileSummary> getFiles() {
+		return files;
+	}
+
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	public long getLines() {
+		long lines = 0;
+		for (FileSummary file : files) {
+			lines += file.getLines();
+		}
+		return lines;
+	}
+
+	public long getRejected() {
+		long rejected = 0;
+		for (FileSummary file : files) {
+			rejected += file.getRejected();
+		}
+		return rejected;
+	}
+
+	@Override
+	public String toString() {
+		return "BulkSummary{" +
+				"files=" + files.size() +
+				", lines=" + getLines() +
+				", rejected=" + getRejected() +
+				", elapsedMillis=" + elapsedNanos / 1_000_000 +
+				'}';
+	}
+
+	/**
+	 * Outcome of one file of a bulk run
+	 */
+	public static class FileSummary {
+
+		private final Path input;
+		private final Path output;
+		private final long lines;
+		private final long rejected;
+		private final long elapsedNanos;
+
+		/**
+		 * @param input the file packed
+		 * @param output the file the answers were written to
+		 * @param lines the number of lines read
+		 * @param rejected the number of lines rejected
+		 * @param elapsedNanos the time from the first chunk started to the output closed
+		 */
+		public FileSummary(Path input, Path output, long lines, long rejected, long elapsedNanos) {
+			this.input = input;
+			this.output = output;
+			this.lines = lines;
+			this.rejected = rejected;
+			this.elapsedNanos = elapsedNanos;
+		}
+
+		public Path getInput() {
+			return input;
+		}
+
+		public Path getOutput() {
+			return output;
+		}
+
+		public long getLines() {
+			return lines;
+		}
+
+		public long getRejected() {
+			return rejected;
+		}
+
+		public long getElapsedNanos() {
+			return elapsedNanos;
+		}
+
+		@Override
+		public String toString() {
+			return "FileSummary{" +
+					"input=" + input +
+					", lines=" + lines +
+					", rejected=" + rejected +
+					", elapsedMillis=" + elapsedNanos / 1_000_000 +
+					'}';
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.mobiquity.model;
+
+import com.mobiquity.constant.SolverEngineEnum;
+
+/**
+ * Answer for one line along with the engine which produced it.
+ * <br/>
+ * The optimality gap is the guaranteed bound on the relative cost loss,
+ * the chosen items cost at least <code>(1 - gap)</code> times the optimum.
+ * It is 0 for the exact engines.
+ */
+public class PackResult {
+
+	private final String indices;
+	private final SolverEngineEnum engine;
+	private final double optimalityGap;
+
+	public PackResult(String indices, SolverEngineEnum engine, double optimalityGap) {
+		this.indices = indices;
+		this.engine = engine;
+		this.optimalityGap = optimalityGap;
+	}
+
+	public String getIndices() {
+		return indices;
+	}
+
+	public SolverEngineEnum getEngine() {
+		return engine;
+	}
+
+	public double getOptimalityGap() {
+		return optimalityGap;
+	}
+
+	public boolean isExact() {
+		return optimalityGap == 0d;
+	}
+
+	@Override
+	public String toString() {
+		return "PackResult{" +
+				"indices=" + indices +
+				", engine=" + engine +
+				", optimalityGap=" + optimalityGap +
+				'}';
+	}
+}
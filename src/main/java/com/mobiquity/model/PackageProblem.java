@@ -0,0 +1,258 @@
+package com.mobiquity.model;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One line to pack, held as a capacity and parallel primitive arrays of
+ * item index, weight and cost. Weights, costs and the capacity are
+ * fixed-point numbers, in hundredths by default, 53.38 is stored as 5338.
+ * The <code>packer.scale</code> system property, a power of ten up to
+ * {@link #MAX_SCALE}, sets how many units make one, digits beyond it are
+ * rounded half up when a line is read.
+ * <br/>
+ * A line may list several capacities, one per bag to fill from the same
+ * items, see {@link #addBag(long)}. {@link #getCapacity()} is the first one.
+ * <br/>
+ * The arrays only grow, so a problem can be cleared and refilled
+ * line after line without allocating. Not thread safe.
+ */
+public class PackageProblem {
+
+	public static final int DEFAULT_SCALE = 100;
+	public static final int MAX_SCALE = 1_000_000;
+	public static final int SCALE = scaleOf(System.getProperty("packer.scale", String.valueOf(DEFAULT_SCALE)));
+	public static final int SCALE_DIGITS = Integer.toString(SCALE).length() - 1;
+
+	private long[] capacities = new long[1];
+	private int bags = 1;
+	private int size;
+	private int[] index;
+	private long[] weight;
+	private long[] cost;
+
+	public PackageProblem() {
+		this(16);
+	}
+
+	public PackageProblem(int initialItems) {
+		this.index = new int[initialItems];
+		this.weight = new long[initialItems];
+		this.cost = new long[initialItems];
+	}
+
+	/**
+	 * Forgets the capacity and the items, keeping the arrays
+	 */
+	public void clear() {
+		this.capacities[0] = 0;
+		this.bags = 1;
+		this.size = 0;
+	}
+
+	/**
+	 * @param capacity the limit of one more bag, in units of the scale
+	 */
+	public void addBag(long capacity) {
+		if (bags == capacities.length) {
+			capacities = Arrays.copyOf(capacities, 2 * bags);
+		}
+		capacities[bags++] = capacity;
+	}
+
+	/**
+	 * @param itemIndex the index of the item in the line
+	 * @param itemWeight the weight in units of the scale
+	 * @param itemCost the cost in units of the scale
+	 */
+	public void add(int itemIndex, long itemWeight, long itemCost) {
+		if (size == index.length) {
+			grow(Math.max(16, size * 2));
+		}
+		index[size] = itemIndex;
+		weight[size] = itemWeight;
+		cost[size] = itemCost;
+		size++;
+	}
+
+	/**
+	 * @param other the problem to copy, its arrays are not shared
+	 */
+	public void copyFrom(PackageProblem other) {
+		if (index.length < other.size) {
+			grow(other.size);
+		}
+		System.arraycopy(other.index, 0, index, 0, other.size);
+		System.arraycopy(other.weight, 0, weight, 0, other.size);
+		System.arraycopy(other.cost, 0, cost, 0, other.size);
+		this.size = other.size;
+		if (capacities.length < other.bags) {
+			capacities = new long[other.bags];
+		}
+		System.arraycopy(other.capacities, 0, capacities, 0, other.bags);
+		this.bags = other.bags;
+	}
+
+	/**
+	 * @return the line in the Map form built by the PackageBuilder
+	 */
+	public Map<Double, List<PackageMetaData>> toPackages() {
+		List<PackageMetaData> packageList = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			PackageMetaData pkg = new PackageMetaData();
+			pkg.setIndex(index[i]);
+			pkg.setWeight(toDouble(weight[i]));
+			pkg.setCost(toDouble(cost[i]));
+			packageList.add(pkg);
+		}
+		Map<Double, List<PackageMetaData>> allPackages = new HashMap<>();
+		allPackages.put(toDouble(capacities[0]), packageList);
+		return allPackages;
+	}
+
+	/**
+	 * @param value a number as written in a line, e.g. 53.38
+	 * @return the number in units of the scale, the decimal digits the double
+	 * stands for rounded half up, so 1.005 is 101 hundredths even though
+	 * <code>1.005 * 100</code> is 100.49999999999999
+	 */
+	public static long toFixedPoint(double value) {
+		double scaled = value * SCALE;
+		long rounded = Math.round(scaled);
+		if (!Double.isFinite(scaled) || Math.abs(scaled - Math.floor(scaled) - 0.5) > 1e-6) {
+			return rounded;
+		}
+		return BigDecimal.valueOf(value).setScale(SCALE_DIGITS, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+	}
+
+	/**
+	 * @param value a decimal number, e.g. "53.38"
+	 * @return the number in units of the scale, extra digits rounded half up
+	 * @throws NumberFormatException if the value is not a number
+	 */
+	public static long toFixedPoint(String value) {
+		return new BigDecimal(value.trim()).setScale(SCALE_DIGITS, RoundingMode.HALF_UP)
+				.unscaledValue().longValueExact();
+	}
+
+	public static double toDouble(long fixedPoint) {
+		return (double) fixedPoint / SCALE;
+	}
+
+	/**
+	 * @param fixedPoint a number in units of the scale
+	 * @return the exact decimal, with at least one fractional digit, 7230 prints as 72.3 and 8100 as 81.0
+	 */
+	public static String format(long fixedPoint) {
+		BigDecimal value = BigDecimal.valueOf(fixedPoint, SCALE_DIGITS).stripTrailingZeros();
+		return value.scale() > 0 ? value.toPlainString() : value.setScale(1).toPlainString();
+	}
+
+	/**
+	 * @param scale the value of the <code>packer.scale</code> system property
+	 * @return the scale, a power of ten from 1 to {@link #MAX_SCALE}
+	 * @throws IllegalArgumentException if the scale is not such a power of ten
+	 */
+	static int scaleOf(String scale) {
+		int value;
+		try {
+			value = Integer.parseInt(scale.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("packer.scale must be a power of ten, got " + scale);
+		}
+		int power = 1;
+		while (power < value && power < MAX_SCALE) {
+			power *= 10;
+		}
+		if (power != value) {
+			throw new IllegalArgumentException("packer.scale must be a power of ten up to " + MAX_SCALE + ", got " + scale);
+		}
+		return value;
+	}
+
+	private void grow(int items) {
+		int[] newIndex = new int[items];
+		long[] newWeight = new long[items];
+		long[] newCost = new long[items];
+		System.arraycopy(index, 0, newIndex, 0, size);
+		System.arraycopy(weight, 0, newWeight, 0, size);
+		System.arraycopy(cost, 0, newCost, 0, size);
+		index = newIndex;
+		weight = newWeight;
+		cost = newCost;
+	}
+
+	public long getCapacity() {
+		return capacities[0];
+	}
+
+	/**
+	 * @param capacity the limit of the only bag, in units of the scale
+	 */
+	public void setCapacity(long capacity) {
+		this.capacities[0] = capacity;
+		this.bags = 1;
+	}
+
+	/**
+	 * @return the number of bags, 1 for a usual line
+	 */
+	public int getBags() {
+		return bags;
+	}
+
+	/**
+	 * @param bag the position of the bag in the line
+	 * @return its limit in units of the scale
+	 */
+	public long getCapacity(int bag) {
+		return capacities[bag];
+	}
+
+	/**
+	 * @return the sum of the limits of the bags, in units of the scale
+	 */
+	public long getTotalCapacity() {
+		long total = 0;
+		for (int i = 0; i < bags; i++) {
+			total += capacities[i];
+		}
+		return total;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int getIndex(int item) {
+		return index[item];
+	}
+
+	public long getWeight(int item) {
+		return weight[item];
+	}
+
+	public long getCost(int item) {
+		return cost[item];
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder items = new StringBuilder();
+		for (int i = 0; i < size; i++) {
+			items.append(" (").append(index[i])
+					.append(',').append(format(weight[i]))
+					.append(',').append(format(cost[i])).append(')');
+		}
+		StringBuilder limits = new StringBuilder();
+		for (int i = 0; i < bags; i++) {
+			limits.append(format(capacities[i])).append(' ');
+		}
+		return "PackageProblem{" + limits + ":" + items + '}';
+	}
+}
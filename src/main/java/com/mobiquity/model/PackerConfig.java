@@ -0,0 +1,348 @@
+package com.mobiquity.model;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.mobiquity.constant.SolutionModeEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+
+/**
+ * Settings of a packing run, built through {@link #builder()}.
+ * <br/>
+ * Unset values fall back to the system properties <code>packer.epsilon</code>,
+ * <code>packer.threads</code>, <code>packer.parsers</code>, <code>packer.queueCapacity</code>,
+ * <code>packer.cacheSize</code>, <code>packer.cacheFile</code>, <code>packer.rejectionReport</code>,
+ * <code>packer.chunkBytes</code>, <code>packer.mode</code>, <code>packer.topK</code>, <code>packer.engine</code>,
+ * <code>packer.checkpointLines</code> and <code>packer.resume</code>,
+ * and to {@link PackerLimits#fromSystemProperties()} for the limits.
+ */
+public class PackerConfig {
+
+	private final PackerLimits limits;
+	private final double epsilon;
+	private final int workers;
+	private final int parsers;
+	private final int queueCapacity;
+	private final int cacheSize;
+	private final Path cacheFile;
+	private final Path rejectionReport;
+	private final long chunkBytes;
+	private final SolutionModeEnum mode;
+	private final int topK;
+	private final SolverEngineEnum engine;
+	private final long checkpointLines;
+	private final boolean resume;
+
+	private PackerConfig(Builder builder) {
+		this.limits = builder.limits;
+		this.epsilon = builder.epsilon;
+		this.workers = builder.workers;
+		this.parsers = builder.parsers;
+		this.queueCapacity = builder.queueCapacity;
+		this.cacheSize = builder.cacheSize;
+		this.cacheFile = builder.cacheFile;
+		this.rejectionReport = builder.rejectionReport;
+		this.chunkBytes = builder.chunkBytes;
+		this.mode = builder.mode;
+		this.topK = builder.topK;
+		this.engine = builder.engine;
+		this.checkpointLines = builder.checkpointLines;
+		this.resume = builder.resume;
+	}
+
+	/**
+	 * @return a builder preset from the system properties
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @return the configuration from the system properties
+	 */
+	public static PackerConfig fromSystemProperties() {
+		return builder().build();
+	}
+
+	public PackerLimits getLimits() {
+		return limits;
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	public int getWorkers() {
+		return workers;
+	}
+
+	public int getParsers() {
+		return parsers;
+	}
+
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @return the number of answers cached, 0 when caching is off
+	 */
+	public int getCacheSize() {
+		return cacheSize;
+	}
+
+	/**
+	 * @return the file the cache is loaded from and saved to, or null
+	 */
+	public Path getCacheFile() {
+		return cacheFile;
+	}
+
+	/**
+	 * @return the file the rejected lines are reported to, or null to log them
+	 */
+	public Path getRejectionReport() {
+		return rejectionReport;
+	}
+
+	/**
+	 * @return the size of the chunks a file is split into in bulk mode
+	 */
+	public long getChunkBytes() {
+		return chunkBytes;
+	}
+
+	/**
+	 * @return whether each line is answered with its best selection or with alternatives
+	 */
+	public SolutionModeEnum getMode() {
+		return mode;
+	}
+
+	/**
+	 * @return the number of selections answered in top-k mode
+	 */
+	public int getTopK() {
+		return topK;
+	}
+
+	/**
+	 * @return the engine forced on every line it can answer, or null to pick one per line
+	 *
+	 * @see com.mobiquity.solver.SolverSelector#select(PackageProblem)
+	 */
+	public SolverEngineEnum getEngine() {
+		return engine;
+	}
+
+	/**
+	 * @return the number of lines between two checkpoints of a file packed
+	 * into another, 0 when the run is not checkpointed
+	 *
+	 * @see com.mobiquity.io.Checkpoint
+	 */
+	public long getCheckpointLines() {
+		return checkpointLines;
+	}
+
+	/**
+	 * @return true to go on from the checkpoint of the output, if there is one
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	@Override
+	public String toString() {
+		return "PackerConfig{" +
+				"limits=" + limits +
+				", epsilon=" + epsilon +
+				", workers=" + workers +
+				", parsers=" + parsers +
+				", queueCapacity=" + queueCapacity +
+				", cacheSize=" + cacheSize +
+				", cacheFile=" + cacheFile +
+				", rejectionReport=" + rejectionReport +
+				", chunkBytes=" + chunkBytes +
+				", mode=" + mode +
+				", topK=" + topK +
+				", engine=" + engine +
+				", checkpointLines=" + checkpointLines +
+				", resume=" + resume +
+				'}';
+	}
+
+	public static class Builder {
+
+		private PackerLimits limits = PackerLimits.fromSystemProperties();
+		private double epsilon = Double.parseDouble(System.getProperty("packer.epsilon", "0"));
+		private int workers = Integer.getInteger("packer.threads", Runtime.getRuntime().availableProcessors());
+		private int parsers = Integer.getInteger("packer.parsers", 1);
+		private int queueCapacity = Integer.getInteger("packer.queueCapacity", 1024);
+		private int cacheSize = Integer.getInteger("packer.cacheSize", 0);
+		private Path cacheFile = pathProperty("packer.cacheFile");
+		private Path rejectionReport = pathProperty("packer.rejectionReport");
+		private long chunkBytes = Long.getLong("packer.chunkBytes", 4L << 20);
+		private SolutionModeEnum mode = SolutionModeEnum.fromCode(System.getProperty("packer.mode", "best"));
+		private int topK = Integer.getInteger("packer.topK", 5);
+		private SolverEngineEnum engine = engineProperty("packer.engine");
+		private long checkpointLines = Long.getLong("packer.checkpointLines", 0L);
+		private boolean resume = Boolean.getBoolean("packer.resume");
+
+		private Builder() {
+		}
+
+		public Builder limits(PackerLimits limits) {
+			this.limits = limits;
+			return this;
+		}
+
+		/**
+		 * @param epsilon the relative cost loss accepted on lines too large to solve exactly
+		 */
+		public Builder epsilon(double epsilon) {
+			this.epsilon = epsilon;
+			return this;
+		}
+
+		/**
+		 * @param workers the number of solver threads
+		 */
+		public Builder workers(int workers) {
+			this.workers = workers;
+			return this;
+		}
+
+		/**
+		 * @param parsers the number of parse / validate threads
+		 */
+		public Builder parsers(int parsers) {
+			this.parsers = parsers;
+			return this;
+		}
+
+		/**
+		 * @param queueCapacity the number of lines each stage queue holds
+		 * before the stage feeding it blocks
+		 */
+		public Builder queueCapacity(int queueCapacity) {
+			this.queueCapacity = queueCapacity;
+			return this;
+		}
+
+		/**
+		 * @param cacheSize the number of answers kept for repeated lines, 0 to solve every line
+		 */
+		public Builder cacheSize(int cacheSize) {
+			this.cacheSize = cacheSize;
+			return this;
+		}
+
+		/**
+		 * @param cacheFile the file the cache is loaded from before the run
+		 * and saved to after it, or null to keep the cache in memory only
+		 */
+		public Builder cacheFile(Path cacheFile) {
+			this.cacheFile = cacheFile;
+			return this;
+		}
+
+		/**
+		 * @param rejectionReport the file the rejected lines are written to, one
+		 * per line with their line number, byte offset and reason, replaced if it
+		 * exists. Null to log every rejected line instead
+		 */
+		public Builder rejectionReport(Path rejectionReport) {
+			this.rejectionReport = rejectionReport;
+			return this;
+		}
+
+		/**
+		 * @param chunkBytes the size of the chunks a file is split into in bulk
+		 * mode, so the chunks of a large file are solved in parallel
+		 */
+		public Builder chunkBytes(long chunkBytes) {
+			this.chunkBytes = chunkBytes;
+			return this;
+		}
+
+		/**
+		 * @param mode {@link SolutionModeEnum#BEST} for the usual answer, otherwise
+		 * the alternatives of each line separated by "|"
+		 */
+		public Builder mode(SolutionModeEnum mode) {
+			this.mode = mode;
+			return this;
+		}
+
+		/**
+		 * @param topK the number of selections answered in top-k mode
+		 */
+		public Builder topK(int topK) {
+			this.topK = topK;
+			return this;
+		}
+
+		/**
+		 * @param engine the engine forced on every line it can answer, e.g.
+		 * {@link SolverEngineEnum#BRANCH_AND_BOUND}, or null to pick one per line
+		 */
+		public Builder engine(SolverEngineEnum engine) {
+			this.engine = engine;
+			return this;
+		}
+
+		/**
+		 * @param checkpointLines the number of lines between two checkpoints of
+		 * a file packed into another, 0 not to checkpoint the run
+		 */
+		public Builder checkpointLines(long checkpointLines) {
+			this.checkpointLines = checkpointLines;
+			return this;
+		}
+
+		/**
+		 * @param resume true to go on from the checkpoint of the output left
+		 * by an earlier run, the run starts over if there is none
+		 */
+		public Builder resume(boolean resume) {
+			this.resume = resume;
+			return this;
+		}
+
+		public PackerConfig build() {
+			if (workers < 1 || parsers < 1 || queueCapacity < 1) {
+				throw new IllegalArgumentException("workers, parsers and queueCapacity must be positive");
+			}
+			if (cacheSize < 0) {
+				throw new IllegalArgumentException("cacheSize must not be negative");
+			}
+			if (chunkBytes < 1) {
+				throw new IllegalArgumentException("chunkBytes must be positive");
+			}
+			if (checkpointLines < 0) {
+				throw new IllegalArgumentException("checkpointLines must not be negative");
+			}
+			if (mode == null || topK < 1) {
+				throw new IllegalArgumentException("mode must be set and topK must be positive");
+			}
+			if (epsilon < 0d || epsilon >= 1d) {
+				throw new IllegalArgumentException("epsilon must be at least 0 and below 1, was " + epsilon);
+			}
+			if (engine == SolverEngineEnum.FPTAS && epsilon <= 0d) {
+				throw new IllegalArgumentException("the fptas engine needs a positive epsilon");
+			}
+			return new PackerConfig(this);
+		}
+
+		private static SolverEngineEnum engineProperty(String name) {
+			String value = System.getProperty(name);
+			return value == null || value.isBlank() ? null : SolverEngineEnum.fromCode(value);
+		}
+
+		private static Path pathProperty(String name) {
+			String value = System.getProperty(name);
+			return value == null || value.isBlank() ? null : Paths.get(value);
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.mobiquity.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Boundaries a line has to respect to be packed.
+ * <br/>
+ * The defaults follow the original specification and can be overridden
+ * per run through the system properties
+ * <code>packer.maxWeight</code>, <code>packer.maxItems</code> and <code>packer.maxCost</code>.
+ */
+public class PackerLimits {
+
+	public static final double DEFAULT_MAX_WEIGHT = 100d;
+	public static final int DEFAULT_MAX_ITEMS = 15;
+	public static final double DEFAULT_MAX_COST = 100d;
+
+	private final Double maxWeight;
+	private final int maxItems;
+	private final Double maxCost;
+
+	public PackerLimits(Double maxWeight, int maxItems, Double maxCost) {
+		this.maxWeight = maxWeight;
+		this.maxItems = maxItems;
+		this.maxCost = maxCost;
+	}
+
+	/**
+	 * @return the limits of the original specification
+	 */
+	public static PackerLimits defaults() {
+		return new PackerLimits(DEFAULT_MAX_WEIGHT, DEFAULT_MAX_ITEMS, DEFAULT_MAX_COST);
+	}
+
+	/**
+	 * @return the limits configured through system properties,
+	 * falling back to the defaults for the ones not set
+	 */
+	public static PackerLimits fromSystemProperties() {
+		return new PackerLimits(
+				Double.valueOf(System.getProperty("packer.maxWeight", String.valueOf(DEFAULT_MAX_WEIGHT))),
+				Integer.getInteger("packer.maxItems", DEFAULT_MAX_ITEMS),
+				Double.valueOf(System.getProperty("packer.maxCost", String.valueOf(DEFAULT_MAX_COST))));
+	}
+
+	public Double getMaxWeight() {
+		return maxWeight;
+	}
+
+	public int getMaxItems() {
+		return maxItems;
+	}
+
+	public Double getMaxCost() {
+		return maxCost;
+	}
+
+	/**
+	 * @param value a limit
+	 * @return the limit without trailing zeros, 100.0 prints as 100
+	 */
+	public static String format(Double value) {
+		return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+	}
+
+	@Override
+	public String toString() {
+		return "PackerLimits{" +
+				"maxWeight=" + maxWeight +
+				", maxItems=" + maxItems +
+				", maxCost=" + maxCost +
+				'}';
+	}
+}
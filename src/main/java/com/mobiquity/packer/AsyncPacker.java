@@ -0,0 +1,163 @@
+package com.mobiquity.packer;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.cache.ResultCache;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.service.AsyncPackerService;
+
+/**
+ * Packs lines on an {@link Executor}, returning a {@link CompletableFuture}
+ * per line or per batch.
+ * <br/>
+ * Without an executor, each call runs on a virtual thread when the JVM
+ * offers them (JDK 21+), and on a pool of {@link PackerConfig#getWorkers()}
+ * daemon threads otherwise. Solving needs no platform thread per pending
+ * call either way.
+ * <br/>
+ * The {@link PackerHandler}s and their buffers are pooled, a task borrows
+ * one for its whole line or batch and hands it back, so they are reused
+ * whatever thread runs the task. The pool keeps {@link PackerConfig#getWorkers()}
+ * handlers at most, those created beyond it by a burst of calls are
+ * dropped once used. Thread safe.
+ */
+public class AsyncPacker implements AsyncPackerService, AutoCloseable {
+
+	private static Logger logger = Logger.getLogger(AsyncPacker.class);
+
+	private final PackerConfig config;
+	private final Executor executor;
+	private final ExecutorService ownedExecutor;
+	private final ResultCache resultCache;
+	private final BlockingQueue<PackerHandler> handlers;
+
+	/**
+	 * @param config the limits, error bound, workers and cache size of the packer
+	 */
+	public AsyncPacker(PackerConfig config) {
+		this(config, null);
+	}
+
+	/**
+	 * @param config the limits, error bound and cache size of the packer
+	 * @param executor runs the calls, it is not shut down by {@link #close()},
+	 * null for the default one
+	 */
+	public AsyncPacker(PackerConfig config, Executor executor) {
+		this.config = config;
+		this.handlers = new ArrayBlockingQueue<>(config.getWorkers());
+		this.ownedExecutor = executor == null ? defaultExecutor(config.getWorkers()) : null;
+		this.executor = executor == null ? ownedExecutor : executor;
+		this.resultCache = config.getCacheSize() > 0 ? new ResultCache(config.getCacheSize(), ResultCache.settingsOf(config)) : null;
+	}
+
+	@Override
+	public CompletableFuture<String> processPackAsync(String content) {
+		return processPackAsync(content, null);
+	}
+
+	@Override
+	public CompletableFuture<String> processPackAsync(String content, Duration timeout) {
+		return submit(timeout, (packerHandler, future) -> packerHandler.processPack(content));
+	}
+
+	@Override
+	public CompletableFuture<List<String>> processPacksAsync(List<String> contents) {
+		return processPacksAsync(contents, null);
+	}
+
+	/**
+	 * @see PackerHandler#processPacks(List)
+	 */
+	@Override
+	public CompletableFuture<List<String>> processPacksAsync(List<String> contents, Duration timeout) {
+		return submit(timeout, (packerHandler, future) -> packerHandler.processPacks(contents, future::isDone));
+	}
+
+	/**
+	 * Shuts the default executor down, calls still pending are dropped.
+	 * A caller-supplied executor is left running.
+	 */
+	@Override
+	public void close() {
+		if (ownedExecutor != null) {
+			ownedExecutor.shutdownNow();
+		}
+	}
+
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * @return the handlers waiting in the pool
+	 */
+	int getPooledHandlers() {
+		return handlers.size();
+	}
+
+	private <T> CompletableFuture<T> submit(Duration timeout, Task<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		if (timeout != null) {
+			future.orTimeout(timeout.toNanos(), TimeUnit.NANOSECONDS);
+		}
+		try {
+			executor.execute(() -> run(task, future));
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(e);
+		}
+		return future;
+	}
+
+	private <T> void run(Task<T> task, CompletableFuture<T> future) {
+		if (future.isDone()) {
+			return;
+		}
+		PackerHandler packerHandler = handlers.poll();
+		if (packerHandler == null) {
+			packerHandler = new PackerHandler(config, resultCache);
+		}
+		try {
+			future.complete(task.run(packerHandler, future));
+		} catch (Throwable e) {
+			future.completeExceptionally(e);
+		} finally {
+			// a full pool drops the handler, so bursts do not pin their buffers
+			handlers.offer(packerHandler);
+		}
+	}
+
+	/**
+	 * @return a virtual thread per task executor when available,
+	 * a fixed pool of daemon threads otherwise
+	 */
+	private static ExecutorService defaultExecutor(int workers) {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (ReflectiveOperationException e) {
+			logger.debug("Virtual threads are not available, using " + workers + " platform threads");
+			AtomicInteger count = new AtomicInteger();
+			return Executors.newFixedThreadPool(workers, runnable -> {
+				Thread thread = new Thread(runnable, "packer-async-" + count.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+
+	private interface Task<T> {
+		T run(PackerHandler packerHandler, CompletableFuture<T> future) throws Exception;
+	}
+}
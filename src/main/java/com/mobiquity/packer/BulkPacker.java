@@ -0,0 +1,292 @@
+package com.mobiquity.packer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.cache.ResultCache;
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.io.MappedInput;
+import com.mobiquity.io.RejectionReport;
+import com.mobiquity.metrics.PackerMetrics;
+import com.mobiquity.model.BulkSummary;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.pattern.PackageParser;
+
+/**
+ * Packs many files on one {@link ForkJoinPool} of {@link PackerConfig#getWorkers()} threads.
+ * <br/>
+ * Every file is split into newline-aligned chunks of about
+ * {@link PackerConfig#getChunkBytes()}, each chunk being a task of its own.
+ * The workers steal chunks from the other files as theirs run out, so a
+ * single large file does not leave the other cores idle at the end of
+ * the run. A file task joins its chunks in order and writes their answers
+ * to <code>{name}.out</code> as they complete, rejected lines go to
+ * <code>{name}.rejected.tsv</code>, a line the solver fails on as
+ * {@link PackerErrorEnum#UNSOLVABLE}. A <code>summary.tsv</code> lists the
+ * lines, rejects and elapsed time per file.
+ */
+public class BulkPacker {
+
+	private static Logger logger = Logger.getLogger(BulkPacker.class);
+
+	public static final String OUTPUT_SUFFIX = ".out";
+	public static final String REJECTED_SUFFIX = ".rejected.tsv";
+	public static final String SUMMARY = "summary.tsv";
+
+	private final PackerConfig config;
+	private final ResultCache resultCache;
+	private final ThreadLocal<Worker> workers;
+
+	public BulkPacker(PackerConfig config) {
+		this.config = config;
+		this.resultCache = ResultCache.open(config);
+		this.workers = ThreadLocal.withInitial(() -> new Worker(config, handler(resultCache)));
+	}
+
+	/**
+	 * @param resultCache shared by the pool threads, or null
+	 * @return the handler owned by one pool thread
+	 */
+	PackerHandler handler(ResultCache resultCache) {
+		return new PackerHandler(config, resultCache);
+	}
+
+	/**
+	 * @param pattern a directory, whose files are all packed, or a glob on
+	 * the file names of a directory, e.g. <code>/data/in/*.txt</code>
+	 * @return the matching regular files, sorted by name
+	 * @throws IOException if the directory can not be listed
+	 */
+	public static List<Path> resolve(String pattern) throws IOException {
+		Path path = Paths.get(pattern);
+		Path directory;
+		String glob;
+		if (Files.isDirectory(path)) {
+			directory = path;
+			glob = "*";
+		} else {
+			directory = path.toAbsolutePath().getParent();
+			glob = path.getFileName().toString();
+		}
+		List<Path> files = new ArrayList<>();
+		try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, glob)) {
+			for (Path entry : entries) {
+				if (Files.isRegularFile(entry)) {
+					files.add(entry);
+				}
+			}
+		}
+		files.sort(null);
+		return files;
+	}
+
+	/**
+	 * @param inputs the files to pack, file names must be unique
+	 * @param outputDirectory receives an output file per input and the summary, created if missing
+	 * @return the lines, rejects and elapsed time per file
+	 * @throws IOException if a file can not be read or written
+	 */
+	public BulkSummary pack(List<Path> inputs, Path outputDirectory) throws IOException {
+		long start = System.nanoTime();
+		Files.createDirectories(outputDirectory);
+		ForkJoinPool pool = new ForkJoinPool(config.getWorkers());
+		List<FileTask> tasks = new ArrayList<>();
+		try {
+			for (Path input : inputs) {
+				tasks.add(new FileTask(input, outputDirectory));
+			}
+			for (FileTask task : tasks) {
+				pool.execute(task);
+			}
+			List<BulkSummary.FileSummary> files = new ArrayList<>();
+			for (FileTask task : tasks) {
+				files.add(task.join());
+			}
+			BulkSummary summary = new BulkSummary(files, System.nanoTime() - start);
+			writeSummary(summary, outputDirectory.resolve(SUMMARY));
+			if (resultCache != null) {
+				resultCache.persist(config.getCacheFile());
+			}
+			logger.info("Bulk packing done : " + summary);
+			return summary;
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private static void writeSummary(BulkSummary summary, Path file) throws IOException {
+		try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			writer.append("file\tlines\trejected\telapsedMillis\n");
+			for (BulkSummary.FileSummary fileSummary : summary.getFiles()) {
+				writer.append(fileSummary.getInput().toString()).append('\t')
+						.append(Long.toString(fileSummary.getLines())).append('\t')
+						.append(Long.toString(fileSummary.getRejected())).append('\t')
+						.append(Long.toString(fileSummary.getElapsedNanos() / 1_000_000)).append('\n');
+			}
+			writer.append("total\t").append(Long.toString(summary.getLines())).append('\t')
+					.append(Long.toString(summary.getRejected())).append('\t')
+					.append(Long.toString(summary.getElapsedNanos() / 1_000_000)).append('\n');
+		}
+	}
+
+	/**
+	 * Parser, problem and handler of a pool thread
+	 */
+	private static class Worker {
+
+		private final PackageParser parser;
+		private final PackageProblem problem = new PackageProblem();
+		private final PackerHandler handler;
+
+		private Worker(PackerConfig config, PackerHandler handler) {
+			this.parser = new PackageParser(config.getLimits());
+			this.handler = handler;
+		}
+	}
+
+	/**
+	 * Forks the chunks of a file and writes their answers in order
+	 */
+	private class FileTask extends RecursiveTask<BulkSummary.FileSummary> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path input;
+		private final Path outputDirectory;
+
+		private FileTask(Path input, Path outputDirectory) {
+			this.input = input;
+			this.outputDirectory = outputDirectory;
+		}
+
+		@Override
+		protected BulkSummary.FileSummary compute() {
+			long start = System.nanoTime();
+			String name = input.getFileName().toString();
+			Path output = outputDirectory.resolve(name + OUTPUT_SUFFIX);
+			try (MappedInput mappedInput = MappedInput.open(input);
+				 Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+				int parts = (int) Math.max(1, Math.min(Integer.MAX_VALUE,
+						(mappedInput.size() + config.getChunkBytes() - 1) / config.getChunkBytes()));
+				List<ChunkTask> chunks = new ArrayList<>();
+				for (MappedInput.Chunk chunk : mappedInput.split(parts)) {
+					chunks.add(new ChunkTask(input, mappedInput, chunk));
+				}
+				for (int i = chunks.size() - 1; i > 0; i--) {
+					chunks.get(i).fork();
+				}
+				long lines = 0;
+				RejectionReport rejectionReport = null;
+				try {
+					for (int i = 0; i < chunks.size(); i++) {
+						ChunkTask chunk = chunks.get(i);
+						if (i == 0) {
+							chunk.invoke();
+						} else {
+							chunk.join();
+						}
+						writer.append(chunk.answers);
+						for (int j = 0; j < chunk.rejected.size(); j++) {
+							if (rejectionReport == null) {
+								rejectionReport = RejectionReport.create(
+										outputDirectory.resolve(name + REJECTED_SUFFIX), config.getLimits());
+							}
+							Rejection rejection = chunk.rejected.get(j);
+							rejectionReport.append(lines + rejection.lineNumber, rejection.offset, rejection.error);
+						}
+						lines += chunk.lines;
+					}
+				} finally {
+					if (rejectionReport != null) {
+						rejectionReport.close();
+					}
+				}
+				long rejected = rejectionReport == null ? 0 : rejectionReport.getRejected();
+				return new BulkSummary.FileSummary(input, output, lines, rejected, System.nanoTime() - start);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Unable to pack " + input, e);
+			}
+		}
+	}
+
+	/**
+	 * Packs the lines of one chunk into a buffer of answers
+	 */
+	private class ChunkTask extends RecursiveTask<Void> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final Path input;
+		private final MappedInput mappedInput;
+		private final MappedInput.Chunk chunk;
+		private final StringBuilder answers = new StringBuilder();
+		private final List<Rejection> rejected = new ArrayList<>();
+		private long lines;
+
+		private ChunkTask(Path input, MappedInput mappedInput, MappedInput.Chunk chunk) {
+			this.input = input;
+			this.mappedInput = mappedInput;
+			this.chunk = chunk;
+		}
+
+		@Override
+		protected Void compute() {
+			Worker worker = workers.get();
+			PackerMetrics metrics = PackerMetrics.getInstance();
+			MappedInput.LineCursor cursor = mappedInput.lines(chunk);
+			try {
+				while (cursor.next()) {
+					long start = System.nanoTime();
+					PackerErrorEnum error = worker.parser.parse(cursor.buffer(), cursor.start(), cursor.end(), worker.problem);
+					metrics.recordStage(PackerStageEnum.PARSE, System.nanoTime() - start);
+					if (error == null) {
+						try {
+							answers.append(worker.handler.processPack(worker.problem)).append('\n');
+						} catch (RuntimeException e) {
+							error = PackerErrorEnum.UNSOLVABLE;
+							logger.error("Can not solve the line at offset " + cursor.offset() + " of " + input, e);
+						}
+					}
+					if (error != null) {
+						metrics.recordRejected(error);
+						rejected.add(new Rejection(cursor.lineNumber(), cursor.offset(), error));
+					}
+				}
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			lines = cursor.lineNumber();
+			return null;
+		}
+	}
+
+	private static class Rejection {
+
+		private final long lineNumber;
+		private final long offset;
+		private final PackerErrorEnum error;
+
+		private Rejection(long lineNumber, long offset, PackerErrorEnum error) {
+			this.lineNumber = lineNumber;
+			this.offset = offset;
+			this.error = error;
+		}
+	}
+}
@@ -0,0 +1,299 @@
+package com.mobiquity.packer;
+
+import java.util.Arrays;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.StingDelimitersEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
+import com.mobiquity.solver.DynamicProgrammingSolver;
+import com.mobiquity.solver.FixedPointSolver;
+import com.mobiquity.solver.SolverSelector;
+
+/**
+ * A package edited one item at a time, for callers which would otherwise
+ * send the whole line again to {@link PackerHandler#processPack(String)}
+ * after every change.
+ * <br/>
+ * The session keeps one dynamic-programming layer per item, layer
+ * <code>i</code> holding the best cost of the items <code>0..i</code> for
+ * every capacity, counted in steps of the largest power of ten dividing
+ * every weight as the solvers do, see {@link FixedPointSolver#weightStep}.
+ * Adding an item computes a single layer,
+ * removing an item recomputes the layers of the items added after it
+ * and changing the capacity recomputes nothing unless it grows past the
+ * capacities computed so far. An item changing the weight step recomputes
+ * every layer. The layers are brought up to date when
+ * the package is asked for, so a burst of changes is paid once.
+ * <br/>
+ * The answers are those of the exact engines: the ascending indices of
+ * the most valuable selection, the lighter one on ties. A session keeps
+ * <code>items * (capacity / step + 1)</code> longs, a change needing more
+ * than {@link SolverSelector#MAX_TABLE_CELLS} of them is rejected.
+ * A session is not thread safe.
+ */
+public class KnapsackSession {
+
+	private final PackerLimits limits;
+	private final long maxWeight;
+	private final long maxCost;
+
+	private long capacity;
+	private int size;
+	private int[] indices = new int[16];
+	private long[] weights = new long[16];
+	private long[] costs = new long[16];
+	private long[][] layers = new long[16][];
+	private long step = PackageProblem.SCALE;
+	private int width;
+	private int validLayers;
+	private String pack;
+
+	/**
+	 * @param capacity the weight limit of the package
+	 * @throws APIException if the capacity exceeds the limits configured through system properties
+	 */
+	public KnapsackSession(double capacity) throws APIException {
+		this(PackerLimits.fromSystemProperties(), capacity);
+	}
+
+	/**
+	 * @param limits the boundaries the package has to respect
+	 * @param capacity the weight limit of the package
+	 * @throws APIException if the capacity exceeds the limits
+	 */
+	public KnapsackSession(PackerLimits limits, double capacity) throws APIException {
+		this.limits = limits;
+		this.maxWeight = PackageProblem.toFixedPoint(limits.getMaxWeight());
+		this.maxCost = PackageProblem.toFixedPoint(limits.getMaxCost());
+		setCapacity(capacity);
+	}
+
+	/**
+	 * @param capacity the new weight limit of the package
+	 * @throws APIException if the capacity is negative, exceeds the limits or
+	 * needs a table larger than {@link SolverSelector#MAX_TABLE_CELLS}
+	 */
+	public void setCapacity(double capacity) throws APIException {
+		long fixedCapacity = PackageProblem.toFixedPoint(capacity);
+		if (fixedCapacity > maxWeight) {
+			throw rejected(PackerErrorEnum.MAX_WEIGHT_EXCEEDED);
+		} else if (fixedCapacity < 0) {
+			throw rejected(PackerErrorEnum.INVALID_FORMAT);
+		}
+		checkTable(size, fixedCapacity, step);
+		this.capacity = fixedCapacity;
+		this.pack = null;
+		resize();
+	}
+
+	/**
+	 * @param index the index of the item, unique within the package
+	 * @param weight the weight of the item
+	 * @param cost the cost of the item
+	 * @throws APIException if the index is already used, the item breaks the limits
+	 * or it needs a table larger than {@link SolverSelector#MAX_TABLE_CELLS}
+	 */
+	public void addItem(int index, double weight, double cost) throws APIException {
+		long fixedWeight = PackageProblem.toFixedPoint(weight);
+		long fixedCost = PackageProblem.toFixedPoint(cost);
+		if (size == limits.getMaxItems()) {
+			throw rejected(PackerErrorEnum.MAX_ITEMS_EXCEEDED);
+		} else if (fixedCost > maxCost) {
+			throw rejected(PackerErrorEnum.MAX_COST_EXCEEDED);
+		} else if (fixedWeight < 0 || fixedCost < 0) {
+			throw rejected(PackerErrorEnum.INVALID_FORMAT);
+		} else if (position(index) >= 0) {
+			throw new APIException("Item " + index + " is already in the package");
+		}
+		long itemStep = Math.min(step, FixedPointSolver.weightStep(1, item -> fixedWeight));
+		checkTable(size + 1, capacity, itemStep);
+		if (size == indices.length) {
+			int items = 2 * size;
+			indices = Arrays.copyOf(indices, items);
+			weights = Arrays.copyOf(weights, items);
+			costs = Arrays.copyOf(costs, items);
+			layers = Arrays.copyOf(layers, items);
+		}
+		indices[size] = index;
+		weights[size] = fixedWeight;
+		costs[size] = fixedCost;
+		size++;
+		pack = null;
+		setStep(itemStep);
+	}
+
+	/**
+	 * @param index the index of the item to take out
+	 * @return false if no item of the package has that index
+	 */
+	public boolean removeItem(int index) {
+		int removed = position(index);
+		if (removed < 0) {
+			return false;
+		}
+		long[] layer = layers[removed];
+		int moved = size - removed - 1;
+		System.arraycopy(indices, removed + 1, indices, removed, moved);
+		System.arraycopy(weights, removed + 1, weights, removed, moved);
+		System.arraycopy(costs, removed + 1, costs, removed, moved);
+		System.arraycopy(layers, removed + 1, layers, removed, moved);
+		size--;
+		layers[size] = layer;
+		validLayers = Math.min(validLayers, removed);
+		pack = null;
+		setStep(FixedPointSolver.weightStep(size, item -> weights[item]));
+		return true;
+	}
+
+	/**
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	public String getPack() {
+		if (pack == null) {
+			pack = solve();
+		}
+		return pack;
+	}
+
+	/**
+	 * @return the cost of the chosen items
+	 */
+	public double getCost() {
+		update();
+		return PackageProblem.toDouble(size == 0 ? 0 : layers[size - 1][(int) (capacity / step)]);
+	}
+
+	public double getCapacity() {
+		return PackageProblem.toDouble(capacity);
+	}
+
+	/**
+	 * @return the number of items in the package
+	 */
+	public int size() {
+		return size;
+	}
+
+	public PackerLimits getLimits() {
+		return limits;
+	}
+
+	private String solve() {
+		update();
+		if (size == 0) {
+			return StingDelimitersEnum.DASH.getDelimeter();
+		}
+		long[] last = layers[size - 1];
+		int columns = (int) (capacity / step);
+		int remaining = columns;
+		while (remaining > 0 && last[remaining - 1] == last[columns]) {
+			remaining--;
+		}
+		int[] selected = new int[size];
+		int count = 0;
+		for (int i = size - 1; i >= 0; i--) {
+			long previous = i == 0 ? 0 : layers[i - 1][remaining];
+			if (layers[i][remaining] != previous) {
+				selected[count++] = indices[i];
+				remaining -= (int) (weights[i] / step);
+			}
+		}
+		if (count == 0) {
+			return StingDelimitersEnum.DASH.getDelimeter();
+		}
+		Arrays.sort(selected, 0, count);
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				result.append(StingDelimitersEnum.COMMA.getDelimeter());
+			}
+			result.append(selected[i]);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Computes the layers of the items added or shifted since the last query
+	 */
+	private void update() {
+		for (int i = validLayers; i < size; i++) {
+			long[] layer = layers[i];
+			if (layer == null || layer.length < width) {
+				layer = layers[i] = new long[width];
+			}
+			if (i == 0) {
+				Arrays.fill(layer, 0, width, 0L);
+			} else {
+				System.arraycopy(layers[i - 1], 0, layer, 0, width);
+			}
+			long[] previous = i == 0 ? null : layers[i - 1];
+			long units = weights[i] / step;
+			int weight = units >= width ? width : (int) units;
+			long cost = costs[i];
+			for (int w = width - 1; w >= weight; w--) {
+				long candidate = (previous == null ? 0 : previous[w - weight]) + cost;
+				if (candidate > layer[w]) {
+					layer[w] = candidate;
+				}
+			}
+		}
+		validLayers = size;
+	}
+
+	/**
+	 * @throws APIException if that many items up to the capacity need more than
+	 * {@link SolverSelector#MAX_TABLE_CELLS} cells in steps of the given weight
+	 */
+	private void checkTable(int items, long fixedCapacity, long weightStep) throws APIException {
+		if (DynamicProgrammingSolver.tableCells(Math.max(items, 1), fixedCapacity, weightStep)
+				> SolverSelector.MAX_TABLE_CELLS) {
+			throw new APIException("A package of " + items + " items up to " + PackageProblem.format(fixedCapacity)
+					+ " with weights in steps of " + PackageProblem.format(weightStep)
+					+ " needs more than " + SolverSelector.MAX_TABLE_CELLS + " table cells");
+		}
+	}
+
+	/**
+	 * Recomputes every layer when the weight step changes
+	 */
+	private void setStep(long weightStep) {
+		if (weightStep != step) {
+			step = weightStep;
+			width = 0;
+		}
+		resize();
+	}
+
+	/**
+	 * Widens the layers past the capacity, doubling them up to the package limit
+	 * while they stay within {@link SolverSelector#MAX_TABLE_CELLS}
+	 */
+	private void resize() {
+		long columns = capacity / step;
+		long items = Math.max(size, 1);
+		if (columns < width && items * width <= SolverSelector.MAX_TABLE_CELLS) {
+			return;
+		}
+		long grown = Math.min(maxWeight / step + 1, Math.max(columns + 1, 2L * width));
+		if (items * grown > SolverSelector.MAX_TABLE_CELLS) {
+			grown = columns + 1;
+		}
+		width = (int) grown;
+		validLayers = 0;
+	}
+
+	private int position(int index) {
+		for (int i = 0; i < size; i++) {
+			if (indices[i] == index) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private APIException rejected(PackerErrorEnum error) {
+		return new APIException(error, error.getMessage(limits));
+	}
+}
@@ -1,14 +1,39 @@
 package com.mobiquity.packer;
 
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import org.apache.log4j.Logger;
 
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
 import com.mobiquity.exception.APIException;
-import com.mobiquity.validator.PackerValidator;
+import com.mobiquity.io.BinaryProblemWriter;
+import com.mobiquity.io.MappedInput;
+import com.mobiquity.io.RejectionReport;
+import com.mobiquity.metrics.PackerMetrics;
+import com.mobiquity.model.BulkSummary;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.model.PackerLimits;
+import com.mobiquity.pattern.PackageParser;
 
 
 /**
@@ -28,7 +53,7 @@ import com.mobiquity.validator.PackerValidator;
  *
  * Output:
  * 2,7
- * 6,9
+ * 8,9
  *
  * @see #pack(String) details of the implemntation
  * 
@@ -38,6 +63,21 @@ public class Packer {
 	
     private static Logger logger = Logger.getLogger(Packer.class);
 
+	/**
+	 * @param args the options then a file, a directory, a glob or <code>-</code> for the standard input
+	 *
+	 * Writes the answers to the standard output and exits with 0 on
+	 * success, 1 if the input could not be packed, 2 on a wrong command line
+	 *
+	 * @see PackerCommand#USAGE for the options
+	 */
+	public static void main(String[] args) {
+		int status = PackerCommand.run(args, System.in, System.out, System.err);
+		if (status != PackerCommand.OK) {
+			System.exit(status);
+		}
+	}
+
 	/**
 	 * @param filePath
 	 * @return The output
@@ -47,30 +87,292 @@ public class Packer {
 	 * validates the input content
 	 * Gets the result from the algorithm implemented
 	 * Outputs the result
+	 *
+	 * @see PackerConfig#fromSystemProperties() for the settings applied
 	 */
 	public static String pack(String filePath) throws APIException {
-		logger.info("filling package initiated");
-		PackerHandler packerHandler = new PackerHandler();
-		PackerValidator packerValidator = new PackerValidator();
-		StringBuilder result = new StringBuilder();
-
-		try (Stream<String> stream = Files.lines(Paths.get(filePath))) {
-		   stream.forEach(line -> {
-			   try {
-				   if(packerValidator.isValidInput(line)) {
-				   	   String indices = packerHandler.processPack(line);
-					   result.append(indices).append("\n");
-				   }
-			   } catch (APIException e) {
-				   logger.error("Invalid Data : " + e.getMessage());
-			   }
-		   });
-		} catch(IOException io){
-			logger.error("Unable to locate the input file!!", io);
-		} catch(Exception e){
-			logger.error("Some error occurred while processing the input file: {}", e);
+		return pack(filePath, PackerConfig.fromSystemProperties());
+	}
+
+	/**
+	 * @param filePath
+	 * @param limits the boundaries each line has to respect
+	 * @return The output
+	 * @throws APIException if there is any exception raised
+	 *
+	 * @see #pack(String)
+	 */
+	public static String pack(String filePath, PackerLimits limits) throws APIException {
+		return pack(filePath, PackerConfig.builder().limits(limits).build());
+	}
+
+	/**
+	 * @param filePath
+	 * @param config the limits, error bound and thread counts of the run
+	 * @return The output
+	 * @throws APIException if there is any exception raised
+	 *
+	 * Buffers the whole output, prefer the streaming overloads for large files
+	 *
+	 * @see #pack(Path, Writer, PackerConfig)
+	 */
+	public static String pack(String filePath, PackerConfig config) throws APIException {
+		StringWriter result = new StringWriter();
+		try {
+			pack(Paths.get(filePath), result, config);
+		} catch(APIException e){
+			logger.error(e.getMessage(), e.getCause());
 		}
-		logger.info("filling package accomplished");
 		return result.toString();
 	}
+
+	/**
+	 * @param input the file to pack
+	 * @param output the file the answers are written to, replaced if it exists
+	 * unless the run resumes
+	 * @param config the limits, error bound and thread counts of the run
+	 * @throws APIException if the input can not be read or the output written
+	 *
+	 * With {@link PackerConfig#getCheckpointLines()} set, the progress is saved
+	 * next to the output every so many lines, durably. A run dying half way
+	 * through a large file can then be started again with
+	 * {@link PackerConfig#isResume()}: it seeks to the first line not written,
+	 * drops whatever was written after the checkpoint and appends the rest,
+	 * so the output ends up as if the file had been packed in one go.
+	 *
+	 * @see #pack(Path, Writer, PackerConfig)
+	 * @see com.mobiquity.io.Checkpoint
+	 */
+	public static void pack(Path input, Path output, PackerConfig config) throws APIException {
+		if (config.getCheckpointLines() > 0 || config.isResume()) {
+			try {
+				new PackerPipeline(config).run(input, output);
+			} catch(IOException io){
+				throw new APIException("Unable to pack " + input + " into " + output, io);
+			} catch(RuntimeException e){
+				throw new APIException("Some error occurred while processing the input file", e);
+			}
+			return;
+		}
+		try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+			pack(input, writer, config);
+		} catch(IOException io){
+			throw new APIException("Unable to write the output file " + output, io);
+		}
+	}
+
+	/**
+	 * @param input the file to pack
+	 * @param output receives the answers as UTF-8, it is flushed but not closed
+	 * @param config the limits, error bound and thread counts of the run
+	 * @throws APIException if the input can not be read or the output written
+	 *
+	 * @see #pack(Path, Writer, PackerConfig)
+	 */
+	public static void pack(Path input, OutputStream output, PackerConfig config) throws APIException {
+		pack(input, new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8)), config);
+	}
+
+	/**
+	 * @param input the file to pack
+	 * @param output receives the answers, it is flushed but not closed
+	 * @param config the limits, error bound and thread counts of the run
+	 * @throws APIException if the input can not be read or the output written
+	 *
+	 * The lines are read, parsed, solved and written by separate stages,
+	 * the lines are solved in parallel and the answers keep the input order.
+	 * Every answer is written as soon as the lines before it are done,
+	 * so the memory used does not grow with the file size. A binary file
+	 * made by {@link #convert(Path, Path, PackerConfig)} is read without parsing.
+	 *
+	 * @see PackerPipeline
+	 */
+	public static void pack(Path input, Writer output, PackerConfig config) throws APIException {
+		if (logger.isDebugEnabled()) {
+			logger.debug("filling package initiated for " + input);
+		}
+		try {
+			new PackerPipeline(config).run(input, output);
+		} catch(NoSuchFileException io){
+			throw new APIException("Unable to locate the input file!!", io);
+		} catch(IOException io){
+			throw new APIException("Unable to process the input file " + input, io);
+		} catch(RuntimeException e){
+			throw new APIException("Some error occurred while processing the input file", e);
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("filling package accomplished for " + input);
+		}
+	}
+
+	/**
+	 * @param input the text lines to pack, read until its end but not closed
+	 * @param output receives the answers, it is flushed but not closed
+	 * @param config the limits, error bound and thread counts of the run
+	 * @throws APIException if the input can not be read or the output written
+	 *
+	 * Same stages as {@link #pack(Path, Writer, PackerConfig)}, the reader
+	 * cutting the stream into lines as it arrives, so a pipe is packed
+	 * without writing it to a file first
+	 */
+	public static void pack(InputStream input, Writer output, PackerConfig config) throws APIException {
+		try {
+			new PackerPipeline(config).run(input, output);
+		} catch(IOException io){
+			throw new APIException("Unable to process the input stream", io);
+		} catch(RuntimeException e){
+			throw new APIException("Some error occurred while processing the input stream", e);
+		}
+	}
+
+	/**
+	 * @param input the text file to convert
+	 * @param output the binary file, replaced if it exists
+	 * @param config the limits each line is validated against
+	 * @return the number of valid lines written
+	 * @throws APIException if the input can not be read or the output written
+	 *
+	 * Validates the lines once and stores them as fixed-point records, the
+	 * binary file can then be given to {@link #pack(Path, Writer, PackerConfig)}
+	 * as many times as needed without parsing it again.
+	 *
+	 * @see BinaryProblemWriter
+	 */
+	public static long convert(Path input, Path output, PackerConfig config) throws APIException {
+		try {
+			return BinaryProblemWriter.convert(input, output, config);
+		} catch(NoSuchFileException io){
+			throw new APIException("Unable to locate the input file!!", io);
+		} catch(IOException io){
+			throw new APIException("Unable to convert the input file " + input, io);
+		}
+	}
+
+	/**
+	 * @param directoryOrGlob a directory, or a glob on the file names of a directory
+	 * such as <code>/data/in/*.txt</code>
+	 * @param outputDirectory receives a <code>{name}.out</code> per input file and a <code>summary.tsv</code>
+	 * @param config the limits, error bound and worker count of the run
+	 * @return the lines, rejects and elapsed time per file
+	 * @throws APIException if no file matches or a file can not be read or written
+	 *
+	 * All the files are packed on one work stealing pool, each file split into
+	 * chunks of {@link PackerConfig#getChunkBytes()}, so that small files and
+	 * the chunks of large files keep every worker busy.
+	 *
+	 * @see BulkPacker
+	 */
+	public static BulkSummary packAll(String directoryOrGlob, Path outputDirectory, PackerConfig config)
+			throws APIException {
+		List<Path> inputs;
+		try {
+			inputs = BulkPacker.resolve(directoryOrGlob);
+		} catch(IOException io){
+			throw new APIException("Unable to list the input files of " + directoryOrGlob, io);
+		}
+		if (inputs.isEmpty()) {
+			throw new APIException("No input file matches " + directoryOrGlob);
+		}
+		try {
+			return new BulkPacker(config).pack(inputs, outputDirectory);
+		} catch(IOException io){
+			throw new APIException("Unable to process the input files of " + directoryOrGlob, io);
+		} catch(RuntimeException e){
+			throw new APIException("Some error occurred while processing the input files", e);
+		}
+	}
+
+	/**
+	 * @param input the file to pack
+	 * @param config the limits and the error bound of the run
+	 * @return the answers, one per valid line, computed on the calling thread
+	 * as the stream is consumed. The stream must be closed to release the file.
+	 * Rejected lines go to {@link PackerConfig#getRejectionReport()} when set
+	 * and are logged otherwise, a line the solver fails on is rejected as
+	 * {@link PackerErrorEnum#UNSOLVABLE}.
+	 * @throws APIException if the input can not be opened or the report can not be created
+	 */
+	public static Stream<String> packLines(Path input, PackerConfig config) throws APIException {
+		MappedInput mappedInput;
+		try {
+			mappedInput = MappedInput.open(input);
+		} catch(IOException io){
+			throw new APIException("Unable to locate the input file!!", io);
+		}
+		RejectionReport rejectionReport = null;
+		try {
+			if (config.getRejectionReport() != null) {
+				rejectionReport = RejectionReport.create(config.getRejectionReport(), config.getLimits());
+			}
+		} catch(IOException io){
+			close(mappedInput, null);
+			throw new APIException("Unable to write the rejection report " + config.getRejectionReport(), io);
+		}
+		LineAnswers answers = new LineAnswers(mappedInput, rejectionReport, config);
+		return StreamSupport.stream(answers, false).onClose(() -> close(mappedInput, answers.rejectionReport));
+	}
+
+	private static void close(MappedInput mappedInput, RejectionReport rejectionReport) {
+		try (mappedInput; rejectionReport) {
+			// closes both, the report first
+		} catch(IOException io){
+			throw new UncheckedIOException(io);
+		}
+	}
+
+	/**
+	 * Answers the lines of a file one at a time, each line parsed once
+	 */
+	private static class LineAnswers extends Spliterators.AbstractSpliterator<String> {
+
+		private final MappedInput.LineCursor cursor;
+		private final RejectionReport rejectionReport;
+		private final PackerLimits limits;
+		private final PackageParser packageParser;
+		private final PackageProblem problem = new PackageProblem();
+		private final PackerHandler packerHandler;
+		private final PackerMetrics metrics = PackerMetrics.getInstance();
+
+		private LineAnswers(MappedInput mappedInput, RejectionReport rejectionReport, PackerConfig config) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			this.cursor = mappedInput.lines(mappedInput.all());
+			this.rejectionReport = rejectionReport;
+			this.limits = config.getLimits();
+			this.packageParser = new PackageParser(limits);
+			this.packerHandler = new PackerHandler(config, null);
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super String> action) {
+			try {
+				while (cursor.next()) {
+					long start = System.nanoTime();
+					PackerErrorEnum error = packageParser.parse(cursor.buffer(), cursor.start(), cursor.end(), problem);
+					metrics.recordStage(PackerStageEnum.PARSE, System.nanoTime() - start);
+					String answer = null;
+					if (error == null) {
+						try {
+							answer = packerHandler.processPack(problem);
+						} catch (RuntimeException e) {
+							error = PackerErrorEnum.UNSOLVABLE;
+							logger.error("Can not solve line " + cursor.lineNumber() + " of the input", e);
+						}
+					}
+					if (answer != null) {
+						action.accept(answer);
+						return true;
+					}
+					metrics.recordRejected(error);
+					if (rejectionReport != null) {
+						rejectionReport.append(cursor.lineNumber(), cursor.offset(), error);
+					} else {
+						logger.error("Invalid Data : " + error.getMessage(limits));
+					}
+				}
+				return false;
+			} catch (IOException io) {
+				throw new UncheckedIOException(io);
+			}
+		}
+	}
 }
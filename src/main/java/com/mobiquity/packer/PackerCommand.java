@@ -0,0 +1,214 @@
+package com.mobiquity.packer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import com.mobiquity.constant.SolutionModeEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.model.PackerLimits;
+
+/**
+ * The command line of the packer, run through {@link Packer#main(String[])}:
+ * <p>
+ * <code>java -jar packer.jar [options] {file | directory | glob | -}</code>
+ * </p>
+ * The answers are written to the standard output in input order, each as
+ * soon as the lines before it are solved, so the packer can sit in the
+ * middle of a pipe, or to the file given with <code>--output</code>.
+ * <code>-</code> reads the lines from the standard input, a directory or a
+ * glob packs its files one after the other by name. A single input file
+ * packed into an output file can be checkpointed and resumed, see
+ * {@link Packer#pack(Path, Path, PackerConfig)}.
+ * Rejected lines and errors go to the standard error.
+ * <br/>
+ * Options override the system properties read by {@link PackerConfig#builder()},
+ * see {@link #USAGE}. The exit status is 0 on success, 1 if the input could
+ * not be packed and 2 on a wrong command line.
+ */
+class PackerCommand {
+
+	static final int OK = 0;
+	static final int FAILED = 1;
+	static final int USAGE_ERROR = 2;
+	static final String STDIN = "-";
+
+	static final String USAGE = "Usage: java -jar packer.jar [options] {file | directory | glob | -}\n"
+			+ "  -t, --threads N       solver threads, the number of processors by default\n"
+			+ "  -p, --parsers N       parse threads, 1 by default\n"
+			+ "  -e, --engine CODE     dp, mitm, bnb, greedy, fptas or mkp, picked per line by default\n"
+			+ "      --epsilon E       relative cost loss accepted on lines too large to solve exactly\n"
+			+ "      --max-weight W    package limit allowed in a line\n"
+			+ "      --max-items N     items allowed in a line\n"
+			+ "      --max-cost C      item cost allowed in a line\n"
+			+ "      --mode MODE       best, top-k or frontier\n"
+			+ "      --top-k K         selections answered in top-k mode\n"
+			+ "      --rejected FILE   lists the rejected lines in FILE instead of logging them\n"
+			+ "  -o, --output FILE     writes the answers to FILE instead of the standard output\n"
+			+ "      --checkpoint N    saves the progress every N lines next to the output file\n"
+			+ "      --resume          goes on from the progress saved by an earlier run\n"
+			+ "  -h, --help            prints this help\n";
+
+	private PackerCommand() {
+	}
+
+	/**
+	 * @param args the options then the input
+	 * @param in read when the input is <code>-</code>
+	 * @param out receives the answers, flushed but not closed
+	 * @param err receives the usage and the errors
+	 * @return the exit status
+	 */
+	static int run(String[] args, InputStream in, OutputStream out, PrintStream err) {
+		PackerConfig.Builder builder = PackerConfig.builder();
+		PackerLimits defaults = PackerLimits.fromSystemProperties();
+		double maxWeight = defaults.getMaxWeight();
+		int maxItems = defaults.getMaxItems();
+		double maxCost = defaults.getMaxCost();
+		String input = null;
+		Path outputFile = null;
+		PackerConfig config;
+		try {
+			for (int i = 0; i < args.length; i++) {
+				String option = args[i];
+				if (option.equals("-h") || option.equals("--help")) {
+					err.print(USAGE);
+					return OK;
+				} else if (option.equals("--resume")) {
+					builder.resume(true);
+					continue;
+				} else if (option.equals(STDIN) || !option.startsWith("-")) {
+					if (input != null) {
+						throw new IllegalArgumentException("Only one input can be given, got " + input + " and " + option);
+					}
+					input = option;
+					continue;
+				}
+				String value = i + 1 < args.length ? args[++i] : null;
+				if (value == null) {
+					throw new IllegalArgumentException("Missing value of " + option);
+				}
+				switch (option) {
+					case "-t":
+					case "--threads":
+						builder.workers(Integer.parseInt(value));
+						break;
+					case "-p":
+					case "--parsers":
+						builder.parsers(Integer.parseInt(value));
+						break;
+					case "-e":
+					case "--engine":
+						builder.engine(SolverEngineEnum.fromCode(value));
+						break;
+					case "--epsilon":
+						builder.epsilon(Double.parseDouble(value));
+						break;
+					case "--max-weight":
+						maxWeight = Double.parseDouble(value);
+						break;
+					case "--max-items":
+						maxItems = Integer.parseInt(value);
+						break;
+					case "--max-cost":
+						maxCost = Double.parseDouble(value);
+						break;
+					case "--mode":
+						builder.mode(SolutionModeEnum.fromCode(value));
+						break;
+					case "--top-k":
+						builder.topK(Integer.parseInt(value));
+						break;
+					case "--rejected":
+						builder.rejectionReport(Paths.get(value));
+						break;
+					case "-o":
+					case "--output":
+						outputFile = Paths.get(value);
+						break;
+					case "--checkpoint":
+						builder.checkpointLines(Long.parseLong(value));
+						break;
+					default:
+						throw new IllegalArgumentException("Unknown option " + option);
+				}
+			}
+			if (input == null) {
+				throw new IllegalArgumentException("Missing input");
+			}
+			config = builder.limits(new PackerLimits(maxWeight, maxItems, maxCost)).build();
+			if ((config.getCheckpointLines() > 0 || config.isResume())
+					&& (outputFile == null || !Files.isRegularFile(Paths.get(input)))) {
+				throw new IllegalArgumentException("--checkpoint and --resume need an input file and --output");
+			}
+		} catch (IllegalArgumentException e) {
+			err.println(e.getMessage());
+			err.print(USAGE);
+			return USAGE_ERROR;
+		}
+
+		try {
+			if (outputFile != null && !STDIN.equals(input) && Files.isRegularFile(Paths.get(input))) {
+				Packer.pack(Paths.get(input), outputFile, config);
+				return OK;
+			}
+			Writer output = outputFile == null
+					? new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8))
+					: Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8);
+			try {
+				for (Path file : inputs(input)) {
+					Packer.pack(file, output, config);
+				}
+				if (STDIN.equals(input)) {
+					Packer.pack(in, output, config);
+				}
+				output.flush();
+			} finally {
+				if (outputFile != null) {
+					output.close();
+				}
+			}
+			return OK;
+		} catch (APIException e) {
+			err.println(e.getCause() == null ? e.getMessage() : e.getMessage() + ": " + e.getCause());
+			return FAILED;
+		} catch (IOException e) {
+			err.println("Unable to write the answers: " + e.getMessage());
+			return FAILED;
+		}
+	}
+
+	/**
+	 * @return the files to pack in order, none for the standard input
+	 */
+	private static List<Path> inputs(String input) throws APIException {
+		if (STDIN.equals(input)) {
+			return List.of();
+		}
+		Path path = Paths.get(input);
+		if (Files.isRegularFile(path)) {
+			return List.of(path);
+		}
+		List<Path> files;
+		try {
+			files = BulkPacker.resolve(input);
+		} catch (IOException io) {
+			throw new APIException("Unable to list the input files of " + input, io);
+		}
+		if (files.isEmpty()) {
+			throw new APIException("No input file matches " + input);
+		}
+		return files;
+	}
+}
@@ -1,24 +1,41 @@
 package com.mobiquity.packer;
 
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.BooleanSupplier;
 
+import com.mobiquity.cache.ProblemKey;
+import com.mobiquity.cache.ResultCache;
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.constant.SolutionModeEnum;
+import com.mobiquity.constant.SolverEngineEnum;
 import com.mobiquity.constant.StingDelimitersEnum;
 import com.mobiquity.exception.APIException;
-import com.mobiquity.validator.PackerValidator;
+import com.mobiquity.metrics.PackerMetrics;
 import org.apache.log4j.Logger;
 
+import com.mobiquity.model.PackResult;
 import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.model.PackerLimits;
 import com.mobiquity.pattern.PackageBuilder;
+import com.mobiquity.pattern.PackageParser;
 import com.mobiquity.service.PackerService;
+import com.mobiquity.trace.DecisionTrace;
+import com.mobiquity.solver.AlternativesSolver;
+import com.mobiquity.solver.SolverSelector;
 
 /**
- * Process the package list, builds a Map which stores the key as the maximum weight
- * a bag can hold and the list of package with itemIndex, itemWeight and itemCost
+ * Process the package list, builds a {@link PackageProblem} which holds the maximum weight
+ * a bag can hold and the itemIndex, itemWeight and itemCost of every package
  * {@link APIException} will be thrown.
  * <br/>
+ * A handler reuses its parse, problem and solver buffers from line to line
+ * and across the lines of a batch, so it is not thread safe, use one per thread.
+ * <br/>
  * The format of each line should be:
  * <p>
  * <code>{maxPackageWeight}: ({itemIndex},{itemWeight},{itemCost}), ...</code>
@@ -28,31 +45,178 @@ public class PackerHandler implements PackerService {
 	
     private static Logger logger = Logger.getLogger(PackerHandler.class);
 
+	private final SolverSelector solverSelector;
+	private final ResultCache resultCache;
+	private final AlternativesSolver alternativesSolver;
+	private final PackerMetrics metrics = PackerMetrics.getInstance();
+	private final PackageParser packageParser;
+	private final PackageBuilder packageBuilder = new PackageBuilder();
+	private final PackageProblem problem = new PackageProblem();
+
+	/**
+	 * Uses the limits and the error bound configured through system properties,
+	 * <code>packer.epsilon</code> defaults to 0 (exact answers only)
+	 */
+	public PackerHandler() {
+		this(PackerLimits.fromSystemProperties());
+	}
+
+	public PackerHandler(PackerLimits limits) {
+		this(limits, Double.parseDouble(System.getProperty("packer.epsilon", "0")));
+	}
+
+	/**
+	 * @param limits the boundaries each line has to respect
+	 * @param epsilon the relative cost loss accepted on lines too large to solve exactly
+	 */
+	public PackerHandler(PackerLimits limits, double epsilon) {
+		this(limits, epsilon, null);
+	}
+
+	/**
+	 * @param limits the boundaries each line has to respect
+	 * @param epsilon the relative cost loss accepted on lines too large to solve exactly
+	 * @param resultCache answers of the lines already solved, shared between handlers
+	 * using the same epsilon, or null to solve every line
+	 */
+	public PackerHandler(PackerLimits limits, double epsilon, ResultCache resultCache) {
+		this(limits, epsilon, resultCache, null, null);
+	}
+
+	/**
+	 * @param config the limits, error bound and solution mode of the run
+	 * @param resultCache answers of the lines already solved, shared between handlers
+	 * using the same epsilon, or null to solve every line. Not used outside of
+	 * {@link SolutionModeEnum#BEST} mode
+	 */
+	public PackerHandler(PackerConfig config, ResultCache resultCache) {
+		this(config.getLimits(), config.getEpsilon(), resultCache,
+				config.getMode() == SolutionModeEnum.BEST ? null
+						: new AlternativesSolver(config.getMode(), config.getTopK()),
+				config.getEngine());
+	}
+
+	private PackerHandler(PackerLimits limits, double epsilon, ResultCache resultCache,
+						  AlternativesSolver alternativesSolver, SolverEngineEnum engine) {
+		this.packageParser = new PackageParser(limits);
+		this.solverSelector = new SolverSelector(epsilon, engine);
+		this.resultCache = alternativesSolver == null ? resultCache : null;
+		this.alternativesSolver = alternativesSolver;
+	}
+
 	/**
 	 * @param content represents the input line
 	 * @return
-	 * @throws APIException if te input does not fall in the range as below
+	 * @throws APIException if te input is malformed or does not fall in the range
 	 *
 	 * Validates the input and processes the package
 	 *
 	 * For input validation
-	 * @see PackerValidator#hasValidRange
+	 * @see PackageParser#parse(CharSequence, PackageProblem)
 	 *
 	 * For processing of the input
-	 * @see #processPack(Map<Double, List<PackageMetaData>>)
+	 * @see #processPack(PackageProblem)
 	 *
 	 */
 	@Override
 	public String processPack(String content) throws APIException {
-		PackerValidator packageValidator = new PackerValidator();
-		Map<Double, List<PackageMetaData>> allPackages = buildPackage(content);
-		if(packageValidator.hasValidRange(allPackages)){
-			return processPack(allPackages);
+		return evaluatePack(content).getIndices();
+	}
+
+	/**
+	 * @param content represents the input line
+	 * @return the chosen items along with the engine which answered
+	 * @throws APIException if te input is malformed or does not fall in the range,
+	 * with the same reason a batch or a file rejects the line for
+	 *
+	 * @see #processPack(String)
+	 */
+	@Override
+	public PackResult evaluatePack(String content) throws APIException {
+		long start = System.nanoTime();
+		PackerErrorEnum error = packageParser.parse(content, problem);
+		metrics.recordStage(PackerStageEnum.PARSE, System.nanoTime() - start);
+		if (error != null) {
+			metrics.recordRejected(error);
+			throw new APIException(error, error.getMessage(packageParser.getLimits()));
 		}
-		return StingDelimitersEnum.EMPTY.getDelimeter();
+		return evaluatePack(problem);
 	}
 
 
+	/**
+	 * @param contents the lines to pack
+	 * @return one answer per line in the same order, null for a rejected line
+	 *
+	 * Every line is parsed and validated straight into the handler's reusable
+	 * problem, so a batch only allocates its answers. Rejected lines are logged
+	 * instead of failing the whole batch
+	 *
+	 * @see PackageParser#parse(CharSequence, PackageProblem)
+	 */
+	@Override
+	public List<String> processPacks(List<String> contents) {
+		return processPacks(contents, () -> false);
+	}
+
+	/**
+	 * @param contents the lines to pack
+	 * @param stopped checked before every line
+	 * @return one answer per line in the same order, or null once stopped
+	 */
+	List<String> processPacks(List<String> contents, BooleanSupplier stopped) {
+		List<String> results = new ArrayList<>(contents.size());
+		for (String content : contents) {
+			if (stopped.getAsBoolean()) {
+				return null;
+			}
+			results.add(processLine(content));
+		}
+		return results;
+	}
+
+	/**
+	 * @param contents the lines to pack
+	 * @return one answer per line in the same order, null for a rejected line
+	 *
+	 * @see #processPacks(List)
+	 */
+	@Override
+	public String[] processPacks(String[] contents) {
+		String[] results = new String[contents.length];
+		for (int i = 0; i < contents.length; i++) {
+			results[i] = processLine(contents[i]);
+		}
+		return results;
+	}
+
+	/**
+	 * @param problems lines already parsed and checked against the limits
+	 * @return one answer per line in the same order
+	 *
+	 * @see #evaluatePack(PackageProblem)
+	 */
+	@Override
+	public List<PackResult> evaluatePacks(List<PackageProblem> problems) {
+		List<PackResult> results = new ArrayList<>(problems.size());
+		for (PackageProblem problem : problems) {
+			results.add(evaluatePack(problem));
+		}
+		return results;
+	}
+
+	private String processLine(String content) {
+		long start = System.nanoTime();
+		PackerErrorEnum error = packageParser.parse(content, problem);
+		metrics.recordStage(PackerStageEnum.PARSE, System.nanoTime() - start);
+		if (error != null) {
+			metrics.recordRejected(error);
+			logger.error("Invalid Data : " + error.getMessage(packageParser.getLimits()));
+			return null;
+		}
+		return processPack(problem);
+	}
+
 	/**
 	 * @param content
 	 * @return
@@ -71,7 +235,6 @@ public class PackerHandler implements PackerService {
 	 *
 	 */
 	public Map<Double, List<PackageMetaData>> buildPackage(String content) {
-		PackageBuilder packageBuilder = new PackageBuilder();
 		packageBuilder.reset();
 		packageBuilder.setContent(content);
 		Map<Double, List<PackageMetaData>> allPackages = packageBuilder
@@ -83,29 +246,121 @@ public class PackerHandler implements PackerService {
 		return allPackages;
 	}
 
+	/**
+	 * @param content
+	 * @return the line in the primitive form, reused by the next call
+	 *
+	 * Same builder chain as {@link #buildPackage(String)}, ending in the
+	 * handler's reusable problem instead of a Map of PackageMetaData
+	 *
+	 * @see PackageBuilder#buildProblem(PackageProblem)
+	 */
+	public PackageProblem buildProblem(String content) {
+		packageBuilder.setContent(content);
+		return packageBuilder
+			.splitByColon()
+			.splitBySpace()
+			.formatPackageData()
+			.buildProblem(problem);
+	}
+
+	/**
+	 * @param problem the line with weights, costs and capacity in fixed point
+	 * @return the indices of the list items
+	 *
+	 * @see #evaluatePack(PackageProblem)
+	 */
+	public String processPack(PackageProblem problem){
+		return evaluatePack(problem).getIndices();
+	}
+
+	/**
+	 * @param problem the line with weights, costs and capacity in fixed point
+	 * @return the chosen items along with the engine which answered
+	 *
+	 * Looks the line up in the result cache, if any, and otherwise
+	 * hands it over to the solver selector, which
+	 * returns the most expensive and, on equal cost, the lightest selection
+	 * unless an error bound was accepted for the line size.
+	 * In top-k or frontier mode the alternatives solver answers instead,
+	 * the decision trace then records the first alternative.
+	 * Lines with several bags are answered with the best assignment in
+	 * every mode and are not cached
+	 *
+	 * @see SolverSelector#select(PackageProblem)
+	 * @see ResultCache
+	 * @see PackerMetrics
+	 * @see DecisionTrace
+	 */
+	public PackResult evaluatePack(PackageProblem problem){
+		long start = System.nanoTime();
+		PackResult result;
+		boolean cached = false;
+		if (alternativesSolver != null && problem.getBags() == 1) {
+			result = new PackResult(alternativesSolver.solve(problem), alternativesEngine(), 0d);
+		} else if (resultCache == null || problem.getBags() > 1) {
+			result = solverSelector.solve(problem);
+		} else {
+			ProblemKey key = ProblemKey.of(problem);
+			result = resultCache.get(key);
+			cached = result != null;
+			if (!cached) {
+				result = solverSelector.solve(problem);
+				resultCache.put(key, result);
+			}
+		}
+		metrics.recordStage(PackerStageEnum.SOLVE, System.nanoTime() - start);
+		metrics.recordSolved(result.getEngine(), problem.size(), cached);
+		DecisionTrace trace = DecisionTrace.current();
+		if (trace != null) {
+			trace.record(problem, alternativesSolver == null ? result : firstAlternative(result));
+		}
+		return result;
+	}
+
+	private SolverEngineEnum alternativesEngine() {
+		return alternativesSolver.getMode() == SolutionModeEnum.TOP_K
+				? SolverEngineEnum.BRANCH_AND_BOUND : SolverEngineEnum.DYNAMIC_PROGRAMMING;
+	}
+
+	private static PackResult firstAlternative(PackResult result) {
+		int end = result.getIndices().indexOf(StingDelimitersEnum.PIPE.getDelimeter());
+		return end < 0 ? result
+				: new PackResult(result.getIndices().substring(0, end), result.getEngine(), result.getOptimalityGap());
+	}
+
+	public ResultCache getResultCache() {
+		return resultCache;
+	}
+
 	/**
 	 * @param packages The bag with max weight along with itemIndex, itemWeight and itemCost
 	 * @return the indices of the list items
 	 *
-	 * Applies the descending order sort on itemCost
-	 * and processes the list of items
+	 * Hands the package list over to the solver selector, which
+	 * returns the most expensive and, on equal cost, the lightest selection
+	 * unless an error bound was accepted for the line size
 	 *
-	 * Look for the greedy algorithm
-	 * @see #evaluateMaxCostPackage(Double, List<PackageMetaData>)
+	 * @see SolverSelector#select(Double, List)
 	 */
 	public String processPack(Map<Double, List<PackageMetaData>> packages){
-		Comparator<PackageMetaData> compareByCost =
-				Comparator.comparing(PackageMetaData::getCost).reversed();
+		return evaluatePack(packages).getIndices();
+	}
+
+	/**
+	 * @param packages The bag with max weight along with itemIndex, itemWeight and itemCost
+	 * @return the chosen items along with the engine which answered
+	 *
+	 * @see #processPack(Map)
+	 */
+	public PackResult evaluatePack(Map<Double, List<PackageMetaData>> packages){
 		var ref = new Object(){
-			String indices = null;
+			PackResult result = null;
 		};
 		packages.forEach((maxWeight, packageList) -> {
-			List<PackageMetaData> packList = packageList.stream()
-					.sorted(compareByCost)
-					.collect(Collectors.toList());
-			ref.indices = evaluateMaxCostPackage(maxWeight, packList);
+			ref.result = solverSelector.solve(maxWeight, packageList);
 		});
-		return ref.indices;
+		return ref.result;
 	}
 
 	/**
@@ -113,28 +368,42 @@ public class PackerHandler implements PackerService {
 	 * @param packages
 	 * @return the indices of the list items
 	 *
+	 * Greedy heuristic, expects the packages sorted by descending cost.
+	 * It is fast but not guaranteed to find the optimum,
+	 * {@link #processPack(Map)} uses the exact solver instead.
+	 *
 	 * Keep on filling the bag with the weight
 	 * until the bag's maximum weight is exhausted
 	 * or iterating through all the packages are
-	 * finished
+	 * finished. The weights are subtracted in fixed point,
+	 * so a bag filled exactly, e.g. 0.1 and 0.2 out of 0.3,
+	 * does not reject the last item on a rounding error.
+	 * The chosen items are recorded in the
+	 * decision trace when it is on
 	 */
 	public String evaluateMaxCostPackage(Double maxWeight, List<PackageMetaData> packages){
+		long capacity = PackageProblem.toFixedPoint(maxWeight);
 		var ref = new Object(){
-			Double remaining = maxWeight;
-			Double result = 0d;
+			long remaining = capacity;
+			long result = 0;
 			StringBuilder finalResult = new StringBuilder();
 		};
 
 		packages.stream().takeWhile( t -> ref.remaining >= 0).forEach( pkg -> {
-			if(pkg.getWeight() <= ref.remaining){
-				ref.remaining -= pkg.getWeight();
-				ref.result += pkg.getCost();
+			long weight = PackageProblem.toFixedPoint(pkg.getWeight());
+			if(weight <= ref.remaining){
+				ref.remaining -= weight;
+				ref.result += PackageProblem.toFixedPoint(pkg.getCost());
 				ref.finalResult.append(pkg.getIndex()).append(StingDelimitersEnum.COMMA.getDelimeter());
-				logger.info("Pack " + pkg.getIndex() + " - Weight " + pkg.getWeight() + " - Cost " + pkg.getCost());
 			}
 		});
 
-		return ref.finalResult.toString().isEmpty() ? StingDelimitersEnum.DASH.getDelimeter() :
+		String indices = ref.finalResult.toString().isEmpty() ? StingDelimitersEnum.DASH.getDelimeter() :
 				ref.finalResult.toString().substring(0, ref.finalResult.toString().length() - 1);
+		DecisionTrace trace = DecisionTrace.current();
+		if (trace != null) {
+			trace.record(SolverEngineEnum.GREEDY, capacity, capacity - ref.remaining, ref.result, indices);
+		}
+		return indices;
 	}
 }
\ No newline at end of file
@@ -0,0 +1,538 @@
+package com.mobiquity.packer;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.cache.ResultCache;
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.io.BinaryProblemReader;
+import com.mobiquity.io.Checkpoint;
+import com.mobiquity.io.MappedInput;
+import com.mobiquity.io.RejectionReport;
+import com.mobiquity.metrics.PackerMetrics;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.pattern.PackageParser;
+
+/**
+ * Packs a file through four stages joined by bounded queues:
+ * <ol>
+ * <li>a reader which maps the file and numbers the lines</li>
+ * <li>parse / validate threads working on the raw bytes, see {@link PackerConfig#getParsers()}</li>
+ * <li>solver threads, see {@link PackerConfig#getWorkers()}</li>
+ * <li>a writer, running on the calling thread, which restores the input order</li>
+ * </ol>
+ * Every thread owns its {@link PackageParser} or {@link PackerHandler},
+ * so the parse and solver scratch buffers are never shared. Lines travel
+ * in a fixed pool of slots, each holding a reusable {@link PackageProblem},
+ * which the writer hands back to the reader. A slow line therefore holds
+ * back the reader instead of growing the reorder buffer, and packing
+ * does not allocate per line apart from the answer.
+ * <br/>
+ * When {@link PackerConfig#getCacheSize()} is set, the solver threads share
+ * one {@link ResultCache}, loaded from and saved back to
+ * {@link PackerConfig#getCacheFile()} around the run.
+ * <br/>
+ * A file in the binary format of {@link com.mobiquity.io.BinaryProblemWriter}
+ * is read record by record into the problems, which skip the parsers.
+ * A stream, such as the standard input, is read in chunks of
+ * {@link #STREAM_CHUNK} bytes and its lines copied into buffers owned
+ * by the slots, so a pipe of any length is packed without staging it.
+ * <br/>
+ * A file packed into another can be checkpointed every
+ * {@link PackerConfig#getCheckpointLines()} lines by the writer, see
+ * {@link Checkpoint}, and a later run resumed from the last checkpoint:
+ * the reader maps the input from the checkpoint offset on and the output
+ * is cut back to the answers written before it, then appended to.
+ * <br/>
+ * Rejected lines travel to the writer like the others. With a
+ * {@link PackerConfig#getRejectionReport()} the writer lists them there,
+ * in input order, otherwise the parsers log each of them. A line whose
+ * solver fails is rejected as {@link PackerErrorEnum#UNSOLVABLE} and the
+ * run goes on with the next one.
+ */
+class PackerPipeline {
+
+	private static Logger logger = Logger.getLogger(PackerPipeline.class);
+
+	private static final LineTask END = new LineTask();
+	static final int STREAM_CHUNK = 64 * 1024;
+
+	private final PackerConfig config;
+
+	PackerPipeline(PackerConfig config) {
+		this.config = config;
+	}
+
+	/**
+	 * @param input the file to pack
+	 * @param output receives one answer per valid line, in input order,
+	 * it is flushed whenever the writer waits for the next line
+	 * @throws IOException if the file can not be read or the output written
+	 */
+	void run(Path input, Appendable output) throws IOException {
+		run(input.toString(), (parseQueue, window) -> read(input, null, parseQueue, window), output, null);
+	}
+
+	/**
+	 * @param input the file to pack
+	 * @param output receives one answer per valid line, in input order. With
+	 * {@link PackerConfig#isResume()} and a checkpoint next to it, the answers
+	 * written after the checkpoint are dropped and the run goes on from the
+	 * line after it, otherwise the file is replaced
+	 * @throws IOException if the files can not be read or written, or the
+	 * checkpoint does not match them, e.g. the input was replaced or appended to
+	 */
+	void run(Path input, Path output) throws IOException {
+		Path checkpointFile = Checkpoint.fileFor(output);
+		Checkpoint start = null;
+		if (config.isResume() && Files.exists(checkpointFile)) {
+			start = Checkpoint.read(checkpointFile);
+			start.checkInput(input);
+			Checkpoint.truncate(output, start.getOutputBytes());
+			logger.info("Resuming " + input + " after line " + start.getLineNumber()
+					+ ", at offset " + start.getInputOffset());
+		}
+		Checkpoint from = start;
+		Checkpoints checkpoints = new Checkpoints(input, output, checkpointFile, start);
+		try (Writer writer = start == null ? Files.newBufferedWriter(output, StandardCharsets.UTF_8)
+				: Files.newBufferedWriter(output, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+			run(input.toString(), (parseQueue, window) -> read(input, from, parseQueue, window), writer, checkpoints);
+		}
+	}
+
+	/**
+	 * @param input the text lines to pack, read until its end but not closed
+	 * @param output receives one answer per valid line, in input order,
+	 * it is flushed whenever the writer waits for the next line
+	 * @throws IOException if the stream can not be read or the output written
+	 */
+	void run(InputStream input, Appendable output) throws IOException {
+		run("the input stream", (parseQueue, window) -> readStream(input, parseQueue, window), output, null);
+	}
+
+	private void run(String source, Source reader, Appendable output, Checkpoints checkpoints) throws IOException {
+		int capacity = config.getQueueCapacity();
+		BlockingQueue<LineTask> parseQueue = new ArrayBlockingQueue<>(capacity);
+		BlockingQueue<LineTask> solveQueue = new ArrayBlockingQueue<>(capacity);
+		BlockingQueue<LineTask> writeQueue = new ArrayBlockingQueue<>(capacity);
+		int slots = 3 * capacity + config.getParsers() + config.getWorkers();
+		BlockingQueue<LineTask> window = new ArrayBlockingQueue<>(slots);
+		for (int i = 0; i < slots; i++) {
+			window.add(new LineTask());
+		}
+		AtomicInteger runningParsers = new AtomicInteger(config.getParsers());
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		ResultCache resultCache = ResultCache.open(config);
+		RejectionReport rejectionReport = null;
+		if (config.getRejectionReport() != null && checkpoints != null && checkpoints.start != null
+				&& checkpoints.start.getRejectedBytes() > 0) {
+			rejectionReport = RejectionReport.resume(config.getRejectionReport(),
+					checkpoints.start.getRejectedBytes(), config.getLimits());
+		} else if (config.getRejectionReport() != null) {
+			rejectionReport = RejectionReport.create(config.getRejectionReport(), config.getLimits());
+		}
+
+		ExecutorService stages = Executors.newFixedThreadPool(
+				1 + config.getParsers() + config.getWorkers(), new StageThreadFactory());
+		try {
+			stages.execute(guard(failure, () -> reader.read(parseQueue, window)));
+			for (int i = 0; i < config.getParsers(); i++) {
+				stages.execute(guard(failure, () -> parse(parseQueue, solveQueue, runningParsers)));
+			}
+			for (int i = 0; i < config.getWorkers(); i++) {
+				stages.execute(guard(failure, () -> solve(solveQueue, writeQueue, resultCache)));
+			}
+			write(writeQueue, window, slots, failure, output, rejectionReport, checkpoints);
+			if (resultCache != null) {
+				resultCache.persist(config.getCacheFile());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException("Packing of " + source + " was interrupted");
+		} finally {
+			stages.shutdownNow();
+			if (rejectionReport != null) {
+				rejectionReport.close();
+				if (rejectionReport.getRejected() > 0) {
+					logger.warn(rejectionReport.getRejected() + " invalid lines, see " + config.getRejectionReport());
+				}
+			}
+		}
+	}
+
+	/**
+	 * @param start the checkpoint to go on from, or null to read the whole file
+	 */
+	private void read(Path input, Checkpoint start, BlockingQueue<LineTask> parseQueue,
+					  BlockingQueue<LineTask> window) throws Exception {
+		if (BinaryProblemReader.isBinary(input)) {
+			readBinary(input, start, parseQueue, window);
+			return;
+		}
+		try (MappedInput mappedInput = MappedInput.open(input)) {
+			long from = start == null ? 0 : start.getInputOffset();
+			long lines = start == null ? 0 : start.getLineNumber();
+			if (from > mappedInput.size()) {
+				throw new IOException(input + " is shorter than its checkpoint offset " + from);
+			}
+			MappedInput.LineCursor cursor = mappedInput.lines(new MappedInput.Chunk(from, mappedInput.size()));
+			long sequence = 0;
+			while (cursor.next()) {
+				LineTask task = window.take();
+				task.sequence = sequence++;
+				task.lineNumber = lines + cursor.lineNumber();
+				task.offset = cursor.offset();
+				task.nextOffset = cursor.nextOffset();
+				task.content = cursor.buffer();
+				task.start = cursor.start();
+				task.end = cursor.end();
+				task.decoded = false;
+				parseQueue.put(task);
+			}
+		}
+		for (int i = 0; i < config.getParsers(); i++) {
+			parseQueue.put(END);
+		}
+	}
+
+	/**
+	 * Copies the records of a binary file straight into the problems,
+	 * the parsers let them through untouched
+	 */
+	private void readBinary(Path input, Checkpoint start, BlockingQueue<LineTask> parseQueue,
+							BlockingQueue<LineTask> window) throws Exception {
+		try (BinaryProblemReader reader = BinaryProblemReader.open(input)) {
+			long records = 0;
+			if (start != null && start.getInputOffset() > 0) {
+				reader.seek(start.getInputOffset());
+				records = start.getLineNumber();
+			}
+			long sequence = 0;
+			LineTask task = window.take();
+			while (reader.next(task.problem)) {
+				task.sequence = sequence++;
+				task.lineNumber = records + sequence;
+				task.offset = reader.offset();
+				task.nextOffset = reader.nextOffset();
+				task.decoded = true;
+				task.error = null;
+				parseQueue.put(task);
+				task = window.take();
+			}
+			window.add(task);
+		}
+		for (int i = 0; i < config.getParsers(); i++) {
+			parseQueue.put(END);
+		}
+	}
+
+	/**
+	 * Cuts the stream into lines, each copied into the buffer of its slot
+	 * since the chunk is overwritten by the next read
+	 */
+	private void readStream(InputStream input, BlockingQueue<LineTask> parseQueue, BlockingQueue<LineTask> window)
+			throws Exception {
+		byte[] chunk = new byte[STREAM_CHUNK];
+		long sequence = 0;
+		long offset = 0;
+		LineTask task = null;
+		int read;
+		while ((read = input.read(chunk)) >= 0) {
+			int from = 0;
+			for (int i = 0; i < read; i++) {
+				if (chunk[i] == '\n') {
+					if (task == null) {
+						task = window.take();
+						task.end = 0;
+					}
+					task.copy(chunk, from, i);
+					offset = submit(task, sequence++, offset, parseQueue) + 1;
+					task = null;
+					from = i + 1;
+				}
+			}
+			if (from < read) {
+				if (task == null) {
+					task = window.take();
+					task.end = 0;
+				}
+				task.copy(chunk, from, read);
+			}
+		}
+		if (task != null) {
+			submit(task, sequence, offset, parseQueue);
+		}
+		for (int i = 0; i < config.getParsers(); i++) {
+			parseQueue.put(END);
+		}
+	}
+
+	/**
+	 * @return the offset after the line
+	 */
+	private static long submit(LineTask task, long sequence, long offset, BlockingQueue<LineTask> parseQueue)
+			throws InterruptedException {
+		task.sequence = sequence;
+		task.lineNumber = sequence + 1;
+		task.offset = offset;
+		task.nextOffset = offset + task.end + 1;
+		task.content = task.lineBuffer;
+		task.start = 0;
+		task.decoded = false;
+		parseQueue.put(task);
+		return offset + task.end;
+	}
+
+	private void parse(BlockingQueue<LineTask> parseQueue, BlockingQueue<LineTask> solveQueue,
+					   AtomicInteger runningParsers) throws InterruptedException {
+		PackageParser packageParser = new PackageParser(config.getLimits());
+		PackerMetrics metrics = PackerMetrics.getInstance();
+		LineTask task;
+		while ((task = parseQueue.take()) != END) {
+			if (task.decoded) {
+				solveQueue.put(task);
+				continue;
+			}
+			long start = System.nanoTime();
+			PackerErrorEnum error = packageParser.parse(task.content, task.start, task.end, task.problem);
+			metrics.recordStage(PackerStageEnum.PARSE, System.nanoTime() - start);
+			task.error = error;
+			if (error != null) {
+				metrics.recordRejected(error);
+				if (config.getRejectionReport() == null) {
+					logger.error("Invalid Data : " + error.getMessage(config.getLimits()));
+				}
+			}
+			task.content = null;
+			solveQueue.put(task);
+		}
+		if (runningParsers.decrementAndGet() == 0) {
+			for (int i = 0; i < config.getWorkers(); i++) {
+				solveQueue.put(END);
+			}
+		}
+	}
+
+	private void solve(BlockingQueue<LineTask> solveQueue, BlockingQueue<LineTask> writeQueue,
+					   ResultCache resultCache) throws InterruptedException {
+		PackerHandler packerHandler = handler(resultCache);
+		PackerMetrics metrics = PackerMetrics.getInstance();
+		LineTask task;
+		while ((task = solveQueue.take()) != END) {
+			task.result = null;
+			if (task.error == null) {
+				try {
+					task.result = packerHandler.processPack(task.problem);
+				} catch (RuntimeException e) {
+					task.error = PackerErrorEnum.UNSOLVABLE;
+					metrics.recordRejected(task.error);
+					logger.error("Can not solve line " + task.lineNumber + " of the input", e);
+				}
+			}
+			writeQueue.put(task);
+		}
+		writeQueue.put(END);
+	}
+
+	/**
+	 * @param resultCache shared by the solver threads, or null
+	 * @return the handler owned by one solver thread
+	 */
+	PackerHandler handler(ResultCache resultCache) {
+		return new PackerHandler(config, resultCache);
+	}
+
+	private void write(BlockingQueue<LineTask> writeQueue, BlockingQueue<LineTask> window, int slots,
+					   AtomicReference<Throwable> failure, Appendable output, RejectionReport rejectionReport,
+					   Checkpoints checkpoints) throws IOException, InterruptedException {
+		LineTask[] pending = new LineTask[slots];
+		long next = 0;
+		int finishedWorkers = 0;
+		while (finishedWorkers < config.getWorkers()) {
+			LineTask task = writeQueue.poll();
+			if (task == null) {
+				if (output instanceof Flushable) {
+					((Flushable) output).flush();
+				}
+				task = writeQueue.poll(100, TimeUnit.MILLISECONDS);
+			}
+			if (task == null) {
+				rethrow(failure.get());
+			} else if (task == END) {
+				finishedWorkers++;
+			} else {
+				pending[(int) (task.sequence % pending.length)] = task;
+				int slot;
+				while ((task = pending[slot = (int) (next % pending.length)]) != null) {
+					pending[slot] = null;
+					if (task.result != null) {
+						output.append(task.result).append("\n");
+					} else if (task.error != null && rejectionReport != null) {
+						rejectionReport.append(task.lineNumber, task.offset, task.error);
+					}
+					if (checkpoints != null) {
+						checkpoints.written(task, output, rejectionReport);
+					}
+					next++;
+					task.result = null;
+					window.add(task);
+				}
+			}
+		}
+		rethrow(failure.get());
+		if (output instanceof Flushable) {
+			((Flushable) output).flush();
+		}
+		if (checkpoints != null) {
+			checkpoints.save(output, rejectionReport);
+		}
+	}
+
+	private static void rethrow(Throwable failure) throws IOException {
+		if (failure instanceof IOException) {
+			throw (IOException) failure;
+		} else if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure != null) {
+			throw new IllegalStateException("Packing pipeline failed", failure);
+		}
+	}
+
+	private static Runnable guard(AtomicReference<Throwable> failure, Stage stage) {
+		return () -> {
+			try {
+				stage.run();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			} catch (Throwable e) {
+				failure.compareAndSet(null, e);
+			}
+		};
+	}
+
+	private interface Stage {
+		void run() throws Exception;
+	}
+
+	/**
+	 * Tracks the last line written and saves a checkpoint every
+	 * {@link PackerConfig#getCheckpointLines()} lines and at the end of the run
+	 */
+	private class Checkpoints {
+
+		private final Path output;
+		private final Path file;
+		private final Checkpoint start;
+		private final long inputSize;
+		private final long inputModified;
+		private long lineNumber;
+		private long nextOffset;
+		private long pending;
+
+		private Checkpoints(Path input, Path output, Path file, Checkpoint start) throws IOException {
+			this.inputSize = Files.size(input);
+			this.inputModified = Files.getLastModifiedTime(input).toMillis();
+			this.output = output;
+			this.file = file;
+			this.start = start;
+			if (start != null) {
+				this.lineNumber = start.getLineNumber();
+				this.nextOffset = start.getInputOffset();
+			}
+		}
+
+		private void written(LineTask task, Appendable answers, RejectionReport rejectionReport) throws IOException {
+			lineNumber = task.lineNumber;
+			nextOffset = task.nextOffset;
+			if (++pending == config.getCheckpointLines()) {
+				save(answers, rejectionReport);
+			}
+		}
+
+		/**
+		 * Forces the answers and the report to disk before recording how far they go
+		 */
+		private void save(Appendable answers, RejectionReport rejectionReport) throws IOException {
+			if (answers instanceof Flushable) {
+				((Flushable) answers).flush();
+			}
+			long rejectedBytes = 0;
+			if (rejectionReport != null) {
+				rejectionReport.flush();
+				rejectedBytes = Checkpoint.force(config.getRejectionReport());
+			}
+			long outputBytes = Checkpoint.force(output);
+			new Checkpoint(nextOffset, lineNumber, outputBytes, rejectedBytes, inputSize, inputModified).save(file);
+			pending = 0;
+		}
+	}
+
+	private interface Source {
+		void read(BlockingQueue<LineTask> parseQueue, BlockingQueue<LineTask> window) throws Exception;
+	}
+
+	private static class LineTask {
+
+		private final PackageProblem problem = new PackageProblem();
+		private long sequence;
+		private long lineNumber;
+		private long offset;
+		private long nextOffset;
+		private ByteBuffer content;
+		private int start;
+		private int end;
+		private PackerErrorEnum error;
+		private boolean decoded;
+		private String result;
+		private byte[] line;
+		private ByteBuffer lineBuffer;
+
+		/**
+		 * Appends bytes of a streamed line to the buffer of the slot, {@link #end} being its length so far
+		 */
+		private void copy(byte[] chunk, int from, int to) {
+			int length = end + to - from;
+			if (line == null || line.length < length) {
+				line = new byte[Math.max(length, line == null ? 256 : 2 * line.length)];
+				if (lineBuffer != null) {
+					System.arraycopy(lineBuffer.array(), 0, line, 0, end);
+				}
+				lineBuffer = ByteBuffer.wrap(line);
+			}
+			System.arraycopy(chunk, from, line, end, to - from);
+			end = length;
+		}
+	}
+
+	private static class StageThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "packer-stage-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
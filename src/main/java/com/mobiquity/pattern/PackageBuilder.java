@@ -7,6 +7,7 @@ import java.util.Map;
 
 import com.mobiquity.constant.StingDelimitersEnum;
 import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
 
 /**
  * Builds the Map with key as maxWeight of an item list
@@ -142,6 +143,34 @@ public class PackageBuilder {
 		return allPackages;
 	}
 
+	/**
+	 * @param problem cleared and filled with the line
+	 * @return the problem, weights, costs and capacity in fixed point
+	 *
+	 * Alternative to {@link #splitByCommaAndConvertToList()} and {@link #buildMap()}
+	 * which fills the primitive arrays of a reusable problem
+	 * instead of creating a PackageMetaData per item. Several limits
+	 * before the colon, separated by blanks, are read as several bags
+	 *
+	 * @see #formatPackageData() to derive bagList
+	 */
+	public PackageProblem buildProblem(PackageProblem problem){
+		problem.clear();
+		String[] limits = this.splitStrByColon[0].trim().split("\\s+");
+		problem.setCapacity(PackageProblem.toFixedPoint(limits[0]));
+		for(int i = 1; i < limits.length; i++) {
+			problem.addBag(PackageProblem.toFixedPoint(limits[i]));
+		}
+		for(String bag : this.bagList) {
+			String[] bagItems = bag.split(StingDelimitersEnum.COMMA.getDelimeter());
+			problem.add(Integer.parseInt(bagItems[0]),
+					PackageProblem.toFixedPoint(bagItems[1]),
+					PackageProblem.toFixedPoint(bagItems[2]));
+		}
+		reset();
+		return problem;
+	}
+
 	/**
 	 * Reset all the fields
 	 */
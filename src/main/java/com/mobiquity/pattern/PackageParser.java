@@ -0,0 +1,244 @@
+package com.mobiquity.pattern;
+
+import java.nio.ByteBuffer;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
+
+/**
+ * Parses and validates a line straight from its UTF-8 bytes into a
+ * {@link PackageProblem}, in a single pass and without creating Strings.
+ * <br/>
+ * Accepts the same format as {@link com.mobiquity.validator.PackerValidator}:
+ * <p>
+ * <code>{maxWeight} : ({itemIndex},{itemWeight},€{itemCost}) ...</code>
+ * </p>
+ * where several limits separated by blanks, <code>{maxWeight} {maxWeight} : ...</code>,
+ * describe as many bags to fill from the same items.
+ * Numbers are read in units of {@link PackageProblem#SCALE}, hundredths by
+ * default, digits beyond those of the scale are rounded half up. A weight,
+ * cost or limit with more than <code>18 - {@link PackageProblem#SCALE_DIGITS}</code>
+ * integer digits would not fit a long once scaled and is rejected. The buffer is only read through absolute
+ * gets, so several parsers can share it. A parser itself is not thread safe.
+ */
+public class PackageParser {
+
+	private static final byte EURO_FIRST = (byte) 0xE2;
+	private static final byte EURO_SECOND = (byte) 0x82;
+	private static final byte EURO_THIRD = (byte) 0xAC;
+	private static final int MAX_INTEGER_DIGITS = 15;
+	/**
+	 * Integer digits of a number read in units of the scale, so that it fits a long
+	 */
+	private static final int MAX_SCALED_DIGITS = 18 - PackageProblem.SCALE_DIGITS;
+
+	private final PackerLimits limits;
+	private final long maxWeight;
+	private final long maxCost;
+
+	private byte[] scratch = new byte[256];
+	private ByteBuffer scratchBuffer = ByteBuffer.wrap(scratch);
+	private ByteBuffer buffer;
+	private int position;
+	private int end;
+	private long number;
+
+	public PackageParser(PackerLimits limits) {
+		this.limits = limits;
+		this.maxWeight = PackageProblem.toFixedPoint(limits.getMaxWeight());
+		this.maxCost = PackageProblem.toFixedPoint(limits.getMaxCost());
+	}
+
+	/**
+	 * @param content the bytes of the line
+	 * @param start the offset of the first byte of the line
+	 * @param end the offset after the last byte of the line, excluding the line break
+	 * @param problem cleared and filled with the line
+	 * @return null if the line is valid, the reason it was rejected otherwise
+	 */
+	public PackerErrorEnum parse(ByteBuffer content, int start, int end, PackageProblem problem) {
+		this.buffer = content;
+		this.end = end > start && content.get(end - 1) == '\r' ? end - 1 : end;
+		problem.clear();
+
+		int colon = start;
+		while (colon < this.end && content.get(colon) != ':') {
+			colon++;
+		}
+		if (colon == this.end) {
+			return PackerErrorEnum.MISSING_WEIGHT;
+		}
+
+		position = start;
+		skipWhitespace(colon);
+		if (!readDecimal(colon)) {
+			return PackerErrorEnum.INVALID_FORMAT;
+		}
+		problem.setCapacity(number);
+		skipWhitespace(colon);
+		while (position != colon) {
+			if (!readDecimal(colon)) {
+				return PackerErrorEnum.INVALID_FORMAT;
+			}
+			problem.addBag(number);
+			skipWhitespace(colon);
+		}
+
+		position = colon + 1;
+		while (position < this.end) {
+			byte current = content.get(position);
+			if (current == ' ' || current == '\t') {
+				position++;
+			} else if (current == '(' && isSeparator(position - 1, colon)) {
+				if (!readItem(problem)) {
+					return PackerErrorEnum.INVALID_FORMAT;
+				}
+			} else {
+				return PackerErrorEnum.INVALID_FORMAT;
+			}
+		}
+		return checkRange(problem);
+	}
+
+	/**
+	 * @param line the line, without its line break
+	 * @param problem cleared and filled with the line
+	 * @return null if the line is valid, the reason it was rejected otherwise
+	 *
+	 * Encodes the line as UTF-8 into a buffer reused from call to call,
+	 * characters outside of the Basic Multilingual Plane are not valid in
+	 * a line anyway and are encoded as two rejected 3 byte sequences
+	 */
+	public PackerErrorEnum parse(CharSequence line, PackageProblem problem) {
+		int length = line.length();
+		if (scratch.length < 3 * length) {
+			scratch = new byte[Math.max(3 * length, 2 * scratch.length)];
+			scratchBuffer = ByteBuffer.wrap(scratch);
+		}
+		int size = 0;
+		for (int i = 0; i < length; i++) {
+			char current = line.charAt(i);
+			if (current < 0x80) {
+				scratch[size++] = (byte) current;
+			} else if (current < 0x800) {
+				scratch[size++] = (byte) (0xC0 | current >> 6);
+				scratch[size++] = (byte) (0x80 | current & 0x3F);
+			} else {
+				scratch[size++] = (byte) (0xE0 | current >> 12);
+				scratch[size++] = (byte) (0x80 | current >> 6 & 0x3F);
+				scratch[size++] = (byte) (0x80 | current & 0x3F);
+			}
+		}
+		return parse(scratchBuffer, 0, size, problem);
+	}
+
+	/**
+	 * @param problem a parsed line
+	 * @return null if the line respects the limits, the first limit exceeded otherwise
+	 */
+	public PackerErrorEnum checkRange(PackageProblem problem) {
+		for (int i = 0; i < problem.getBags(); i++) {
+			if (problem.getCapacity(i) > maxWeight) {
+				return PackerErrorEnum.MAX_WEIGHT_EXCEEDED;
+			}
+		}
+		if (problem.size() > limits.getMaxItems()) {
+			return PackerErrorEnum.MAX_ITEMS_EXCEEDED;
+		}
+		for (int i = 0; i < problem.size(); i++) {
+			if (problem.getCost(i) > maxCost) {
+				return PackerErrorEnum.MAX_COST_EXCEEDED;
+			}
+		}
+		return null;
+	}
+
+	public PackerLimits getLimits() {
+		return limits;
+	}
+
+	private boolean readItem(PackageProblem problem) {
+		position++;
+		if (!readInteger(MAX_INTEGER_DIGITS) || number > Integer.MAX_VALUE || !expect(',')) {
+			return false;
+		}
+		int index = (int) number;
+		if (!readDecimal(end) || !expect(',')) {
+			return false;
+		}
+		long weight = number;
+		if (position + 2 < end && buffer.get(position) == EURO_FIRST
+				&& buffer.get(position + 1) == EURO_SECOND && buffer.get(position + 2) == EURO_THIRD) {
+			position += 3;
+		}
+		if (!readInteger(MAX_SCALED_DIGITS) || !expect(')')) {
+			return false;
+		}
+		problem.add(index, weight, number * PackageProblem.SCALE);
+		return position == end || buffer.get(position) == ' ';
+	}
+
+	private boolean readInteger(int maxDigits) {
+		int start = position;
+		long value = 0;
+		while (position < end && isDigit(buffer.get(position))) {
+			value = value * 10 + (buffer.get(position++) - '0');
+		}
+		number = value;
+		return position > start && position - start <= maxDigits;
+	}
+
+	/**
+	 * Reads <code>digits[.digits]</code> in units of the scale into {@link #number}
+	 */
+	private boolean readDecimal(int limit) {
+		int start = position;
+		long value = 0;
+		while (position < limit && isDigit(buffer.get(position))) {
+			value = value * 10 + (buffer.get(position++) - '0');
+		}
+		if (position == start || position - start > MAX_SCALED_DIGITS) {
+			return false;
+		}
+		value *= PackageProblem.SCALE;
+		if (position < limit && buffer.get(position) == '.') {
+			position++;
+			int fraction = 0;
+			long unit = PackageProblem.SCALE / 10;
+			while (position < limit && isDigit(buffer.get(position))) {
+				int digit = buffer.get(position++) - '0';
+				if (unit > 0) {
+					value += digit * unit;
+					unit /= 10;
+				} else if (fraction++ == 0 && digit >= 5) {
+					value++;
+				}
+			}
+		}
+		number = value;
+		return true;
+	}
+
+	private boolean expect(char expected) {
+		if (position < end && buffer.get(position) == expected) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	private void skipWhitespace(int limit) {
+		while (position < limit && (buffer.get(position) & 0xFF) <= ' ') {
+			position++;
+		}
+	}
+
+	private boolean isSeparator(int previous, int colon) {
+		return previous == colon || buffer.get(previous) == ' ';
+	}
+
+	private static boolean isDigit(byte value) {
+		return value >= '0' && value <= '9';
+	}
+}
@@ -0,0 +1,135 @@
+package com.mobiquity.server;
+
+/**
+ * The little JSON the server speaks: string values, read from a bare string
+ * or from the <code>"line"</code> member of a flat object, and written escaped.
+ */
+final class Json {
+
+	private Json() {
+	}
+
+	/**
+	 * @param json a JSON string, e.g. <code>"8 : (1,15.3,€34)"</code>,
+	 * or an object holding it, e.g. <code>{"line": "8 : (1,15.3,€34)"}</code>
+	 * @return the input line
+	 * @throws IllegalArgumentException if the value is neither
+	 */
+	static String readLine(String json) {
+		String trimmed = json.trim();
+		if (trimmed.startsWith("\"")) {
+			int[] position = {0};
+			return readString(trimmed, position);
+		} else if (trimmed.startsWith("{")) {
+			int[] position = {1};
+			while (position[0] < trimmed.length()) {
+				skipWhitespace(trimmed, position);
+				String key = readString(trimmed, position);
+				skipWhitespace(trimmed, position);
+				expect(trimmed, position, ':');
+				skipWhitespace(trimmed, position);
+				String value = readString(trimmed, position);
+				if ("line".equals(key)) {
+					return value;
+				}
+				skipWhitespace(trimmed, position);
+				if (position[0] < trimmed.length() && trimmed.charAt(position[0]) == ',') {
+					position[0]++;
+				} else {
+					break;
+				}
+			}
+		}
+		throw new IllegalArgumentException("Expected a JSON string or an object with a \"line\" string");
+	}
+
+	/**
+	 * @param output receives the value quoted and escaped
+	 * @param value the string to write
+	 */
+	static StringBuilder appendString(StringBuilder output, String value) {
+		output.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char current = value.charAt(i);
+			switch (current) {
+				case '"':
+					output.append("\\\"");
+					break;
+				case '\\':
+					output.append("\\\\");
+					break;
+				case '\n':
+					output.append("\\n");
+					break;
+				case '\r':
+					output.append("\\r");
+					break;
+				case '\t':
+					output.append("\\t");
+					break;
+				default:
+					if (current < 0x20) {
+						output.append(String.format("\\u%04x", (int) current));
+					} else {
+						output.append(current);
+					}
+			}
+		}
+		return output.append('"');
+	}
+
+	private static String readString(String json, int[] position) {
+		expect(json, position, '"');
+		StringBuilder value = new StringBuilder();
+		while (position[0] < json.length()) {
+			char current = json.charAt(position[0]++);
+			if (current == '"') {
+				return value.toString();
+			} else if (current != '\\') {
+				value.append(current);
+			} else if (position[0] < json.length()) {
+				char escaped = json.charAt(position[0]++);
+				switch (escaped) {
+					case 'n':
+						value.append('\n');
+						break;
+					case 'r':
+						value.append('\r');
+						break;
+					case 't':
+						value.append('\t');
+						break;
+					case 'b':
+						value.append('\b');
+						break;
+					case 'f':
+						value.append('\f');
+						break;
+					case 'u':
+						if (position[0] + 4 > json.length()) {
+							throw new IllegalArgumentException("Truncated unicode escape");
+						}
+						value.append((char) Integer.parseInt(json.substring(position[0], position[0] + 4), 16));
+						position[0] += 4;
+						break;
+					default:
+						value.append(escaped);
+				}
+			}
+		}
+		throw new IllegalArgumentException("Unterminated JSON string");
+	}
+
+	private static void expect(String json, int[] position, char expected) {
+		if (position[0] >= json.length() || json.charAt(position[0]) != expected) {
+			throw new IllegalArgumentException("Expected '" + expected + "' at " + position[0]);
+		}
+		position[0]++;
+	}
+
+	private static void skipWhitespace(String json, int[] position) {
+		while (position[0] < json.length() && Character.isWhitespace(json.charAt(position[0]))) {
+			position[0]++;
+		}
+	}
+}
@@ -0,0 +1,215 @@
+package com.mobiquity.server;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.metrics.Histogram;
+import com.mobiquity.metrics.PackerMetrics;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.packer.PackerHandler;
+import com.mobiquity.pattern.PackageParser;
+import com.mobiquity.service.PackerService;
+
+/**
+ * Coalesces the lines of concurrent requests into batches for the solver.
+ * <br/>
+ * Each of the {@link PackerConfig#getWorkers()} worker threads takes the
+ * oldest pending request, then keeps collecting requests until the batch
+ * holds <code>maxBatchLines</code> lines or <code>maxDelayNanos</code>
+ * elapsed, and answers the whole batch through its own {@link PackerService}.
+ * The requests wait in a queue of {@link PackerConfig#getQueueCapacity()},
+ * a request arriving when it is full is refused, as is a request of more
+ * than <code>maxRequestLines</code> lines, since a worker keeps a problem
+ * per line of its largest batch.
+ */
+class MicroBatcher implements Closeable {
+
+	private static Logger logger = Logger.getLogger(MicroBatcher.class);
+
+	private final PackerConfig config;
+	private final int maxBatchLines;
+	private final long maxDelayNanos;
+	private final int maxRequestLines;
+	private final BlockingQueue<Request> queue;
+	private final List<Thread> workers = new ArrayList<>();
+	private final LongAdder requests = new LongAdder();
+	private final LongAdder refused = new LongAdder();
+	private final Histogram batchLines = new Histogram();
+	private volatile boolean running = true;
+
+	MicroBatcher(PackerConfig config, int maxBatchLines, long maxDelayNanos, int maxRequestLines) {
+		this.config = config;
+		this.maxBatchLines = maxBatchLines;
+		this.maxDelayNanos = maxDelayNanos;
+		this.maxRequestLines = maxRequestLines;
+		this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+		for (int i = 0; i < config.getWorkers(); i++) {
+			Thread worker = new Thread(this::work, "packer-batch-" + (i + 1));
+			worker.setDaemon(true);
+			worker.start();
+			workers.add(worker);
+		}
+	}
+
+	/**
+	 * @param lines the lines of one request
+	 * @return completed once every line is answered, or exceptionally with an
+	 * {@link IllegalArgumentException} if the request has too many lines
+	 * or an {@link IllegalStateException} if the queue is full
+	 */
+	CompletableFuture<Request> submit(List<String> lines) {
+		Request request = new Request(lines);
+		requests.increment();
+		if (lines.size() > maxRequestLines) {
+			refused.increment();
+			request.future.completeExceptionally(new IllegalArgumentException(
+					"A request can hold " + maxRequestLines + " lines at most, got " + lines.size()));
+		} else if (!running || !queue.offer(request)) {
+			refused.increment();
+			request.future.completeExceptionally(new IllegalStateException("Too many pending requests"));
+		}
+		return request.future;
+	}
+
+	long getRequests() {
+		return requests.sum();
+	}
+
+	long getRefused() {
+		return refused.sum();
+	}
+
+	Histogram.Snapshot getBatchLines() {
+		return batchLines.snapshot();
+	}
+
+	@Override
+	public void close() {
+		running = false;
+		for (Thread worker : workers) {
+			worker.interrupt();
+		}
+		Request request;
+		while ((request = queue.poll()) != null) {
+			request.future.completeExceptionally(new IllegalStateException("Server stopped"));
+		}
+	}
+
+	private void work() {
+		PackerService packerService = new PackerHandler(config, null);
+		PackageParser packageParser = new PackageParser(config.getLimits());
+		List<PackageProblem> problems = new ArrayList<>();
+		List<PackageProblem> valid = new ArrayList<>();
+		List<Request> batch = new ArrayList<>();
+		try {
+			while (running) {
+				batch.add(queue.take());
+				int lines = batch.get(0).lines.size();
+				long deadline = System.nanoTime() + maxDelayNanos;
+				while (lines < maxBatchLines) {
+					Request next = queue.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+					if (next == null) {
+						break;
+					}
+					batch.add(next);
+					lines += next.lines.size();
+				}
+				batchLines.record(lines);
+				answer(batch, packerService, packageParser, problems, valid);
+				batch.clear();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			for (Request request : batch) {
+				request.future.completeExceptionally(new IllegalStateException("Server stopped"));
+			}
+		}
+	}
+
+	private static void answer(List<Request> batch, PackerService packerService, PackageParser packageParser,
+							   List<PackageProblem> problems, List<PackageProblem> valid) {
+		PackerMetrics metrics = PackerMetrics.getInstance();
+		int line = 0;
+		valid.clear();
+		for (Request request : batch) {
+			for (int i = 0; i < request.lines.size(); i++, line++) {
+				if (problems.size() == line) {
+					problems.add(new PackageProblem());
+				}
+				long start = System.nanoTime();
+				request.errors[i] = packageParser.parse(request.lines.get(i), problems.get(line));
+				metrics.recordStage(PackerStageEnum.PARSE, System.nanoTime() - start);
+				if (request.errors[i] == null) {
+					valid.add(problems.get(line));
+				} else {
+					metrics.recordRejected(request.errors[i]);
+				}
+			}
+		}
+		try {
+			List<PackResult> results = packerService.evaluatePacks(valid);
+			int next = 0;
+			for (Request request : batch) {
+				for (int i = 0; i < request.lines.size(); i++) {
+					if (request.errors[i] == null) {
+						request.results[i] = results.get(next++).getIndices();
+					}
+				}
+				request.future.complete(request);
+			}
+		} catch (RuntimeException e) {
+			logger.error("Unable to answer a batch of " + valid.size() + " lines", e);
+			for (Request request : batch) {
+				request.future.completeExceptionally(e);
+			}
+		}
+	}
+
+	/**
+	 * Lines of one call, answered in place
+	 */
+	static class Request {
+
+		private final List<String> lines;
+		private final String[] results;
+		private final PackerErrorEnum[] errors;
+		private final CompletableFuture<Request> future = new CompletableFuture<>();
+
+		private Request(List<String> lines) {
+			this.lines = lines;
+			this.results = new String[lines.size()];
+			this.errors = new PackerErrorEnum[lines.size()];
+		}
+
+		int size() {
+			return lines.size();
+		}
+
+		/**
+		 * @return the answer of the line, null if it was rejected
+		 */
+		String getResult(int line) {
+			return results[line];
+		}
+
+		/**
+		 * @return the reason the line was rejected, null if it was answered
+		 */
+		PackerErrorEnum getError(int line) {
+			return errors[line];
+		}
+	}
+}
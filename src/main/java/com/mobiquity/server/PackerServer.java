@@ -0,0 +1,280 @@
+package com.mobiquity.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.metrics.Histogram;
+import com.mobiquity.metrics.MetricsSnapshot;
+import com.mobiquity.metrics.PackerMetrics;
+import com.mobiquity.model.PackerConfig;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Long running packer answering over HTTP, on the JDK's built-in server,
+ * so the JIT compiled code and the solver buffers serve every caller.
+ * <ul>
+ * <li><code>POST /pack</code> takes one line per body line. As
+ * <code>text/plain</code> it answers one line per input line, the chosen
+ * indices or <code>error: {message}</code>. As
+ * <code>application/x-ndjson</code> every input line is a JSON string, or
+ * an object with a <code>"line"</code> string, and every answer is
+ * <code>{"result":"2,7"}</code> or <code>{"error":"{code}","message":"{message}"}</code></li>
+ * <li><code>GET /health</code> answers <code>OK</code></li>
+ * <li><code>GET /metrics</code> answers the {@link PackerMetrics} and the
+ * batching counters, one <code>name value</code> pair per line</li>
+ * </ul>
+ * The lines of concurrent requests are solved together, see {@link MicroBatcher}.
+ * The batch size and delay default to the system properties
+ * <code>packer.server.batchLines</code> (256) and
+ * <code>packer.server.batchDelayMicros</code> (500). A request body is
+ * refused beyond <code>packer.server.maxBodyBytes</code> (16 MiB) or
+ * <code>packer.server.maxRequestLines</code> (65536) lines. The answers
+ * are written by the HTTP threads, never by the solver threads.
+ */
+public class PackerServer implements AutoCloseable {
+
+	private static Logger logger = Logger.getLogger(PackerServer.class);
+
+	public static final String NDJSON = "application/x-ndjson";
+
+	private final HttpServer httpServer;
+	private final ExecutorService httpExecutor;
+	private final MicroBatcher microBatcher;
+	private final PackerConfig config;
+	private final int maxBodyBytes;
+
+	/**
+	 * @param config the limits, error bound, workers and queue capacity of the packer
+	 * @param address the address to listen on, port 0 picks a free port
+	 * @throws IOException if the address can not be bound
+	 */
+	public PackerServer(PackerConfig config, InetSocketAddress address) throws IOException {
+		this(config, address, Integer.getInteger("packer.server.batchLines", 256),
+				Long.getLong("packer.server.batchDelayMicros", 500L));
+	}
+
+	/**
+	 * @param config the limits, error bound, workers and queue capacity of the packer
+	 * @param address the address to listen on, port 0 picks a free port
+	 * @param maxBatchLines the lines a batch is closed at
+	 * @param maxDelayMicros the time a batch waits for more requests
+	 * @throws IOException if the address can not be bound
+	 */
+	public PackerServer(PackerConfig config, InetSocketAddress address, int maxBatchLines, long maxDelayMicros)
+			throws IOException {
+		this(config, address, maxBatchLines, maxDelayMicros, Integer.getInteger("packer.server.maxRequestLines", 65536),
+				Integer.getInteger("packer.server.maxBodyBytes", 16 * 1024 * 1024));
+	}
+
+	/**
+	 * @param config the limits, error bound, workers and queue capacity of the packer
+	 * @param address the address to listen on, port 0 picks a free port
+	 * @param maxBatchLines the lines a batch is closed at
+	 * @param maxDelayMicros the time a batch waits for more requests
+	 * @param maxRequestLines the most lines of a request, more are answered with 413
+	 * @param maxBodyBytes the largest request body, a larger one is answered with 413
+	 * @throws IOException if the address can not be bound
+	 */
+	public PackerServer(PackerConfig config, InetSocketAddress address, int maxBatchLines, long maxDelayMicros,
+						int maxRequestLines, int maxBodyBytes) throws IOException {
+		if (maxBatchLines < 1 || maxDelayMicros < 0) {
+			throw new IllegalArgumentException("maxBatchLines must be positive and maxDelayMicros not negative");
+		}
+		if (maxRequestLines < 1 || maxBodyBytes < 1 || maxBodyBytes == Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("maxRequestLines and maxBodyBytes must be positive and below "
+					+ Integer.MAX_VALUE);
+		}
+		this.config = config;
+		this.maxBodyBytes = maxBodyBytes;
+		this.microBatcher = new MicroBatcher(config, maxBatchLines, TimeUnit.MICROSECONDS.toNanos(maxDelayMicros),
+				maxRequestLines);
+		this.httpServer = HttpServer.create(address, 0);
+		AtomicInteger count = new AtomicInteger();
+		this.httpExecutor = Executors.newFixedThreadPool(Math.max(2, config.getWorkers()), runnable -> {
+			Thread thread = new Thread(runnable, "packer-http-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		httpServer.setExecutor(httpExecutor);
+		httpServer.createContext("/pack", this::pack);
+		httpServer.createContext("/health", exchange -> {
+			if (allow(exchange, "GET")) {
+				respond(exchange, 200, "text/plain", "OK\n");
+			}
+		});
+		httpServer.createContext("/metrics", exchange -> {
+			if (allow(exchange, "GET")) {
+				respond(exchange, 200, "text/plain", metrics());
+			}
+		});
+	}
+
+	public void start() {
+		httpServer.start();
+		logger.info("Packer server listening on port " + getPort() + " with " + config);
+	}
+
+	public int getPort() {
+		return httpServer.getAddress().getPort();
+	}
+
+	/**
+	 * Stops accepting requests, pending ones are answered with an error
+	 */
+	@Override
+	public void close() {
+		httpServer.stop(0);
+		microBatcher.close();
+		httpExecutor.shutdownNow();
+	}
+
+	/**
+	 * @param args the port to listen on, 8080 by default
+	 * @throws IOException if the port can not be bound
+	 */
+	public static void main(String[] args) throws IOException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : Integer.getInteger("packer.server.port", 8080);
+		PackerServer server = new PackerServer(PackerConfig.fromSystemProperties(), new InetSocketAddress(port));
+		Runtime.getRuntime().addShutdownHook(new Thread(server::close, "packer-server-stop"));
+		server.start();
+	}
+
+	private void pack(HttpExchange exchange) throws IOException {
+		if (!allow(exchange, "POST")) {
+			return;
+		}
+		String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+		boolean ndjson = contentType != null && contentType.contains("json");
+		List<String> lines;
+		try (InputStream body = exchange.getRequestBody()) {
+			byte[] bytes = body.readNBytes(maxBodyBytes + 1);
+			if (bytes.length > maxBodyBytes) {
+				respond(exchange, 413, "text/plain", "A request body can hold " + maxBodyBytes + " bytes at most\n");
+				return;
+			}
+			lines = lines(new String(bytes, StandardCharsets.UTF_8), ndjson);
+		} catch (IllegalArgumentException e) {
+			respond(exchange, 400, "text/plain", e.getMessage() + "\n");
+			return;
+		}
+		// answered on the HTTP threads, a slow client must not hold a solver thread
+		microBatcher.submit(lines).whenCompleteAsync((request, failure) -> {
+			try {
+				if (failure instanceof IllegalArgumentException) {
+					respond(exchange, 413, "text/plain", failure.getMessage() + "\n");
+				} else if (failure != null) {
+					respond(exchange, 503, "text/plain", failure.getMessage() + "\n");
+				} else {
+					respond(exchange, 200, ndjson ? NDJSON : "text/plain", answers(request, ndjson));
+				}
+			} catch (IOException e) {
+				logger.debug("Unable to answer " + exchange.getRemoteAddress(), e);
+			}
+		}, httpExecutor);
+	}
+
+	private static List<String> lines(String body, boolean ndjson) {
+		List<String> lines = new ArrayList<>();
+		for (String line : body.split("\n")) {
+			if (ndjson) {
+				if (!line.isBlank()) {
+					lines.add(Json.readLine(line));
+				}
+			} else {
+				lines.add(line.endsWith("\r") ? line.substring(0, line.length() - 1) : line);
+			}
+		}
+		return lines;
+	}
+
+	private String answers(MicroBatcher.Request request, boolean ndjson) {
+		StringBuilder answers = new StringBuilder(request.size() * 8);
+		for (int i = 0; i < request.size(); i++) {
+			PackerErrorEnum error = request.getError(i);
+			if (ndjson && error == null) {
+				Json.appendString(answers.append("{\"result\":"), request.getResult(i)).append("}\n");
+			} else if (ndjson) {
+				Json.appendString(answers.append("{\"error\":\"").append(error.name()).append("\",\"message\":"),
+						error.getMessage(config.getLimits())).append("}\n");
+			} else if (error == null) {
+				answers.append(request.getResult(i)).append('\n');
+			} else {
+				answers.append("error: ").append(error.getMessage(config.getLimits())).append('\n');
+			}
+		}
+		return answers.toString();
+	}
+
+	private String metrics() {
+		MetricsSnapshot snapshot = PackerMetrics.getInstance().snapshot();
+		StringBuilder metrics = new StringBuilder();
+		metrics.append("packer_lines_processed ").append(snapshot.getLinesProcessed()).append('\n');
+		metrics.append("packer_lines_cached ").append(snapshot.getLinesCached()).append('\n');
+		for (Map.Entry<PackerErrorEnum, Long> rejection : snapshot.getRejections().entrySet()) {
+			metrics.append("packer_lines_rejected{error=\"").append(rejection.getKey().name()).append("\"} ")
+					.append(rejection.getValue()).append('\n');
+		}
+		for (Map.Entry<SolverEngineEnum, Long> engine : snapshot.getEngines().entrySet()) {
+			metrics.append("packer_engine_lines{engine=\"").append(engine.getKey().getCode()).append("\"} ")
+					.append(engine.getValue()).append('\n');
+		}
+		for (Map.Entry<PackerStageEnum, Histogram.Snapshot> stage : snapshot.getStages().entrySet()) {
+			appendHistogram(metrics, "packer_stage_nanos{stage=\"" + stage.getKey().name().toLowerCase() + "\"",
+					stage.getValue());
+		}
+		appendHistogram(metrics, "packer_items_per_line{", snapshot.getItemsPerLine());
+		metrics.append("packer_server_requests ").append(microBatcher.getRequests()).append('\n');
+		metrics.append("packer_server_refused ").append(microBatcher.getRefused()).append('\n');
+		appendHistogram(metrics, "packer_server_batch_lines{", microBatcher.getBatchLines());
+		return metrics.toString();
+	}
+
+	/**
+	 * @param name the metric name with its opened label set, completed per value
+	 */
+	private static void appendHistogram(StringBuilder metrics, String name, Histogram.Snapshot histogram) {
+		String separator = name.endsWith("{") ? "" : ",";
+		metrics.append(name).append(separator).append("stat=\"count\"} ").append(histogram.getCount()).append('\n');
+		metrics.append(name).append(separator).append("stat=\"mean\"} ")
+				.append(String.format(Locale.ROOT, "%.1f", histogram.getMean())).append('\n');
+		metrics.append(name).append(separator).append("stat=\"p50\"} ").append(histogram.getP50()).append('\n');
+		metrics.append(name).append(separator).append("stat=\"p99\"} ").append(histogram.getP99()).append('\n');
+		metrics.append(name).append(separator).append("stat=\"max\"} ").append(histogram.getMax()).append('\n');
+	}
+
+	private static boolean allow(HttpExchange exchange, String method) throws IOException {
+		if (method.equalsIgnoreCase(exchange.getRequestMethod())) {
+			return true;
+		}
+		exchange.getResponseHeaders().set("Allow", method);
+		respond(exchange, 405, "text/plain", "Use " + method + "\n");
+		return false;
+	}
+
+	private static void respond(HttpExchange exchange, int status, String contentType, String body)
+			throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", contentType + "; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length);
+		try (OutputStream output = exchange.getResponseBody()) {
+			output.write(bytes);
+		}
+	}
+}
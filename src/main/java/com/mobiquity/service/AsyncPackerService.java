@@ -0,0 +1,44 @@
+package com.mobiquity.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Non blocking counterpart of {@link PackerService}.
+ * <br/>
+ * A future can be cancelled, or given a timeout, while it waits for a
+ * thread or between the lines of a batch. A line already being solved
+ * runs to its end, its answer is dropped.
+ */
+public interface AsyncPackerService {
+
+	/**
+	 * @param content the line to pack
+	 * @return the answer, or completed exceptionally with the
+	 * {@link com.mobiquity.exception.APIException} rejecting the line
+	 */
+	CompletableFuture<String> processPackAsync(String content);
+
+	/**
+	 * @param content the line to pack
+	 * @param timeout completes the future with a
+	 * {@link java.util.concurrent.TimeoutException} once elapsed
+	 * @return the answer, see {@link #processPackAsync(String)}
+	 */
+	CompletableFuture<String> processPackAsync(String content, Duration timeout);
+
+	/**
+	 * @param contents the lines to pack
+	 * @return one answer per line in the same order, null for a rejected line
+	 */
+	CompletableFuture<List<String>> processPacksAsync(List<String> contents);
+
+	/**
+	 * @param contents the lines to pack
+	 * @param timeout completes the future with a
+	 * {@link java.util.concurrent.TimeoutException} once elapsed
+	 * @return one answer per line in the same order, null for a rejected line
+	 */
+	CompletableFuture<List<String>> processPacksAsync(List<String> contents, Duration timeout);
+}
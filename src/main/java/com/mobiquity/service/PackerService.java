@@ -1,7 +1,30 @@
 package com.mobiquity.service;
 
+import java.util.List;
+
 import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageProblem;
 
 public interface PackerService {
 	String processPack(String content) throws APIException;
+	PackResult evaluatePack(String content) throws APIException;
+
+	/**
+	 * @param contents the lines to pack
+	 * @return one answer per line in the same order, null for a rejected line
+	 */
+	List<String> processPacks(List<String> contents);
+
+	/**
+	 * @param contents the lines to pack
+	 * @return one answer per line in the same order, null for a rejected line
+	 */
+	String[] processPacks(String[] contents);
+
+	/**
+	 * @param problems lines already parsed and checked against the limits
+	 * @return one answer per line in the same order
+	 */
+	List<PackResult> evaluatePacks(List<PackageProblem> problems);
 }
@@ -0,0 +1,11 @@
+package com.mobiquity.service;
+
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+
+import java.util.List;
+
+public interface SolverService {
+	String solve(PackageProblem problem);
+	String solve(Double maxWeight, List<PackageMetaData> packages);
+}
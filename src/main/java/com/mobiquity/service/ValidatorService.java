@@ -1,7 +1,9 @@
 package com.mobiquity.service;
 
+import com.mobiquity.constant.PackerErrorEnum;
 import com.mobiquity.exception.APIException;
 import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
 
 import java.util.List;
 import java.util.Map;
@@ -9,4 +11,12 @@ import java.util.Map;
 public interface ValidatorService {
     boolean isValidInput(String content) throws APIException;
     boolean hasValidRange(Map<Double, List<PackageMetaData>> allPackage) throws APIException;
+    boolean hasValidRange(PackageProblem problem) throws APIException;
+
+    /*
+     * Same checks without exceptions, null when the line is valid
+     */
+    PackerErrorEnum checkInput(String content);
+    PackerErrorEnum checkRange(Map<Double, List<PackageMetaData>> allPackage);
+    PackerErrorEnum checkRange(PackageProblem problem);
 }
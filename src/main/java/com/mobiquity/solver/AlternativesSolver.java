@@ -0,0 +1,224 @@
+package com.mobiquity.solver;
+
+import java.util.Arrays;
+
+import com.mobiquity.constant.SolutionModeEnum;
+import com.mobiquity.constant.StingDelimitersEnum;
+
+/**
+ * Exact solver answering a line with alternatives instead of a single
+ * selection, separated by "|", each in the usual "2,7" notation:
+ * <ul>
+ * <li>{@link SolutionModeEnum#TOP_K}: the k most valuable selections, by
+ * descending cost then ascending weight, found in one branch and bound
+ * pass which prunes a branch once it can no longer beat the k-th best.
+ * Only k selections are held at any time.</li>
+ * <li>{@link SolutionModeEnum#FRONTIER}: every selection that no other
+ * selection beats on both cost and weight, by descending cost. The
+ * frontier is built item by item by merging it with itself shifted by
+ * the item, so it never holds more than one selection per weight
+ * in fixed point up to the package limit.</li>
+ * </ul>
+ * The empty selection is only answered, as "-", when nothing fits.
+ */
+public class AlternativesSolver extends FixedPointSolver {
+
+	private final SolutionModeEnum mode;
+	private final int k;
+
+	private long capacity;
+	private boolean[] current = new boolean[0];
+	private boolean[][] kept;
+	private long[] keptCost;
+	private long[] keptWeight;
+	private int count;
+
+	/**
+	 * @param mode {@link SolutionModeEnum#TOP_K} or {@link SolutionModeEnum#FRONTIER}
+	 * @param k the number of selections answered in top-k mode
+	 */
+	public AlternativesSolver(SolutionModeEnum mode, int k) {
+		if (mode == SolutionModeEnum.BEST) {
+			throw new IllegalArgumentException("The alternatives solver does not answer the best selection only");
+		} else if (k < 1) {
+			throw new IllegalArgumentException("k must be positive, got " + k);
+		}
+		this.mode = mode;
+		this.k = k;
+		this.kept = new boolean[k][0];
+		this.keptCost = new long[k];
+		this.keptWeight = new long[k];
+	}
+
+	public SolutionModeEnum getMode() {
+		return mode;
+	}
+
+	/**
+	 * @param limit the package limit in fixed point
+	 * @return the alternatives separated by "|", or "-" if nothing fits
+	 */
+	@Override
+	protected String solve(long limit) {
+		capacity = limit;
+		return mode == SolutionModeEnum.TOP_K ? topK() : frontier();
+	}
+
+	private String topK() {
+		if (current.length < size) {
+			current = new boolean[size];
+			for (int i = 0; i < k; i++) {
+				kept[i] = new boolean[size];
+			}
+		}
+		Arrays.fill(current, 0, size, false);
+		count = 0;
+		orderByRatio();
+		branch(0, 0, 0);
+
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				result.append(StingDelimitersEnum.PIPE.getDelimeter());
+			}
+			result.append(formatSelection(kept[i]));
+		}
+		return count == 0 ? StingDelimitersEnum.DASH.getDelimeter() : result.toString();
+	}
+
+	/**
+	 * Every selection is reached once, right after its last item was taken
+	 */
+	private void branch(int depth, long weight, long cost) {
+		if (depth == size || count == k && cost + fractionalBound(depth, capacity - weight) < keptCost[k - 1]) {
+			return;
+		}
+		int item = order[depth];
+		if (weights[item] <= capacity - weight) {
+			current[item] = true;
+			keep(weight + weights[item], cost + costs[item]);
+			branch(depth + 1, weight + weights[item], cost + costs[item]);
+			current[item] = false;
+		}
+		branch(depth + 1, weight, cost);
+	}
+
+	/**
+	 * Inserts the current selection among the kept ones if it ranks in the k best
+	 */
+	private void keep(long weight, long cost) {
+		int at = count;
+		while (at > 0 && (cost > keptCost[at - 1] || cost == keptCost[at - 1] && weight < keptWeight[at - 1])) {
+			at--;
+		}
+		if (at == k) {
+			return;
+		}
+		boolean[] slot = count == k ? kept[k - 1] : kept[count];
+		int last = count == k ? k - 1 : count++;
+		for (int i = last; i > at; i--) {
+			kept[i] = kept[i - 1];
+			keptCost[i] = keptCost[i - 1];
+			keptWeight[i] = keptWeight[i - 1];
+		}
+		System.arraycopy(current, 0, slot, 0, size);
+		kept[at] = slot;
+		keptCost[at] = cost;
+		keptWeight[at] = weight;
+	}
+
+	private String frontier() {
+		int words = (size + 63) >>> 6;
+		Frontier states = new Frontier(words, 1);
+		states.add(0, 0, new long[words], 0);
+		for (int i = 0; i < size; i++) {
+			Frontier merged = new Frontier(words, 2 * states.size);
+			int word = i >>> 6;
+			long bit = 1L << (i & 63);
+			int skip = 0;
+			int take = 0;
+			while (skip < states.size || take < states.size) {
+				boolean taking;
+				if (take == states.size || states.weight[take] + weights[i] > capacity) {
+					if (skip == states.size) {
+						break;
+					}
+					taking = false;
+				} else if (skip == states.size) {
+					taking = true;
+				} else {
+					long skipWeight = states.weight[skip];
+					long takeWeight = states.weight[take] + weights[i];
+					taking = takeWeight < skipWeight
+							|| takeWeight == skipWeight && states.cost[take] + costs[i] > states.cost[skip];
+				}
+				if (taking) {
+					merged.addTaken(states, take++, weights[i], costs[i], word, bit);
+				} else {
+					merged.addFrom(states, skip++);
+				}
+			}
+			states = merged;
+		}
+
+		boolean[] chosen = new boolean[size];
+		StringBuilder result = new StringBuilder();
+		for (int s = states.size - 1; s >= 0; s--) {
+			if (states.cost[s] == 0 && states.weight[s] == 0 && states.size > 1) {
+				continue;
+			}
+			for (int i = 0; i < size; i++) {
+				chosen[i] = (states.bits[s * words + (i >>> 6)] & 1L << (i & 63)) != 0;
+			}
+			if (result.length() > 0) {
+				result.append(StingDelimitersEnum.PIPE.getDelimeter());
+			}
+			result.append(formatSelection(chosen));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Selections by ascending weight and strictly ascending cost,
+	 * the items of each held as a bit set of <code>words</code> longs
+	 */
+	private static class Frontier {
+
+		private final int words;
+		private long[] weight;
+		private long[] cost;
+		private long[] bits;
+		private int size;
+
+		private Frontier(int words, int capacity) {
+			this.words = words;
+			this.weight = new long[capacity];
+			this.cost = new long[capacity];
+			this.bits = new long[capacity * words];
+		}
+
+		private void addFrom(Frontier other, int state) {
+			add(other.weight[state], other.cost[state], other.bits, state * words);
+		}
+
+		private void addTaken(Frontier other, int state, long itemWeight, long itemCost, int word, long bit) {
+			if (add(other.weight[state] + itemWeight, other.cost[state] + itemCost, other.bits, state * words)) {
+				bits[(size - 1) * words + word] |= bit;
+			}
+		}
+
+		/**
+		 * @return true if the selection was kept, false if a lighter or as light one costs as much
+		 */
+		private boolean add(long selectionWeight, long selectionCost, long[] selectionBits, int from) {
+			if (size > 0 && selectionCost <= cost[size - 1]) {
+				return false;
+			}
+			weight[size] = selectionWeight;
+			cost[size] = selectionCost;
+			System.arraycopy(selectionBits, from, bits, size * words, words);
+			size++;
+			return true;
+		}
+	}
+}
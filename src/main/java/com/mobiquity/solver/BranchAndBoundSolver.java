@@ -0,0 +1,71 @@
+package com.mobiquity.solver;
+
+/**
+ * Exact 0/1 knapsack solver which explores the include / exclude
+ * decisions depth first, with the items ordered by descending
+ * cost per weight, and prunes a branch once its fractional-relaxation
+ * upper bound can no longer reach the best cost found so far.
+ * <br/>
+ * Its running time does not depend on the package limit or on the
+ * number of subsets of half of the items, so it is the fallback
+ * for lines too large for the other exact solvers.
+ * <p>
+ * If more than one selection reaches the maximum cost, the lighter
+ * one is returned.
+ * </p>
+ */
+public class BranchAndBoundSolver extends FixedPointSolver {
+
+	private boolean[] current = new boolean[0];
+	private boolean[] best = new boolean[0];
+	private long capacity;
+	private long bestCost;
+	private long bestWeight;
+
+	/**
+	 * @param limit the package limit in fixed point
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	@Override
+	protected String solve(long limit) {
+		capacity = limit;
+		ensureCapacity();
+
+		for (int i = 0; i < size; i++) {
+			current[i] = false;
+			best[i] = false;
+		}
+		orderByRatio();
+
+		bestCost = 0;
+		bestWeight = 0;
+		branch(0, 0, 0);
+		return formatSelection(best);
+	}
+
+	private void branch(int depth, long weight, long cost) {
+		if (cost > bestCost || (cost == bestCost && weight < bestWeight)) {
+			bestCost = cost;
+			bestWeight = weight;
+			System.arraycopy(current, 0, best, 0, size);
+		}
+		if (depth == size || cost + fractionalBound(depth, capacity - weight) < bestCost) {
+			return;
+		}
+
+		int item = order[depth];
+		if (weights[item] <= capacity - weight) {
+			current[item] = true;
+			branch(depth + 1, weight + weights[item], cost + costs[item]);
+			current[item] = false;
+		}
+		branch(depth + 1, weight, cost);
+	}
+
+	private void ensureCapacity() {
+		if (current.length < size) {
+			current = new boolean[size];
+			best = new boolean[size];
+		}
+	}
+}
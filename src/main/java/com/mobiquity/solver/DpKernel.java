@@ -0,0 +1,36 @@
+package com.mobiquity.solver;
+
+/**
+ * The per-item pass of {@link DynamicProgrammingSolver} over one row of
+ * its table, the hot loop of the exact solver on wide tables.
+ * <br/>
+ * Implementations are looked up with {@link java.util.ServiceLoader},
+ * see {@link DpKernels#get()}, so an add-on jar can bring a faster one.
+ * They must give the exact same table and flags as {@link ScalarDpKernel}.
+ */
+public interface DpKernel {
+
+	/**
+	 * @param table the best cost per capacity step with the previous items,
+	 * updated in place to include the item
+	 * @param taken flags of the row of the item, set where taking it raised the cost,
+	 * left untouched elsewhere
+	 * @param row the offset of the row of the item in the flags
+	 * @param capacity the last capacity step of the row
+	 * @param weight the weight of the item in capacity steps
+	 * @param cost the cost of the item
+	 */
+	void update(long[] table, boolean[] taken, int row, int capacity, int weight, long cost);
+
+	/**
+	 * @return false if the kernel can not run on this JVM or CPU, the next one is used then
+	 */
+	default boolean isSupported() {
+		return true;
+	}
+
+	/**
+	 * @return the name reported in the logs, e.g. "scalar"
+	 */
+	String getName();
+}
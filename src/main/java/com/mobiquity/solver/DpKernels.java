@@ -0,0 +1,45 @@
+package com.mobiquity.solver;
+
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Picks the {@link DpKernel} of the solvers once per JVM: the first
+ * supported kernel registered as a service, {@link ScalarDpKernel} when
+ * there is none, when none is supported or when the system property
+ * <code>packer.kernel</code> is <code>scalar</code>.
+ */
+public final class DpKernels {
+
+	private static Logger logger = Logger.getLogger(DpKernels.class);
+
+	private static final DpKernel KERNEL = load();
+
+	private DpKernels() {
+	}
+
+	/**
+	 * @return the kernel the solvers use
+	 */
+	public static DpKernel get() {
+		return KERNEL;
+	}
+
+	private static DpKernel load() {
+		if (!"scalar".equalsIgnoreCase(System.getProperty("packer.kernel"))) {
+			try {
+				for (DpKernel kernel : ServiceLoader.load(DpKernel.class)) {
+					if (kernel.isSupported()) {
+						logger.info("Using the " + kernel.getName() + " dynamic-programming kernel");
+						return kernel;
+					}
+				}
+			} catch (ServiceConfigurationError | LinkageError e) {
+				logger.warn("Falling back to the scalar dynamic-programming kernel : " + e.getMessage());
+			}
+		}
+		return new ScalarDpKernel();
+	}
+}
@@ -0,0 +1,99 @@
+package com.mobiquity.solver;
+
+import java.util.Arrays;
+
+/**
+ * Exact 0/1 knapsack solver based on a dynamic-programming table
+ * over fixed-point integer weights (hundredths by default). When every weight is
+ * a whole or a tenth, the table steps by that precision instead.
+ * <br/>
+ * The table and the per-item arrays are primitive and kept between
+ * calls, so solving consecutive lines does not allocate once the
+ * buffers have grown to the largest line seen. An instance is therefore
+ * not thread safe, use one per worker.
+ * <br/>
+ * The per-item pass over a row is delegated to a {@link DpKernel},
+ * {@link DpKernels#get()} by default.
+ * <p>
+ * If more than one selection reaches the maximum cost, the lighter
+ * one is returned.
+ * </p>
+ */
+public class DynamicProgrammingSolver extends FixedPointSolver {
+
+	private final DpKernel kernel;
+	private long[] table = new long[0];
+	private boolean[] taken = new boolean[0];
+	private boolean[] chosen = new boolean[0];
+
+	public DynamicProgrammingSolver() {
+		this(DpKernels.get());
+	}
+
+	/**
+	 * @param kernel runs the per-item pass over the rows of the table
+	 */
+	public DynamicProgrammingSolver(DpKernel kernel) {
+		this.kernel = kernel;
+	}
+
+	/**
+	 * @param fixedCapacity the package limit in fixed point
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 *
+	 * Fills the table row by row, stepping by the weight precision,
+	 * and walks it back from the lightest capacity which
+	 * still reaches the best cost
+	 */
+	@Override
+	protected String solve(long fixedCapacity) {
+		long step = weightStep(size, item -> weights[item]);
+		int capacity = (int) (fixedCapacity / step);
+		int width = capacity + 1;
+		ensureCapacity(width);
+
+		Arrays.fill(table, 0, width, 0L);
+		for (int i = 0; i < size; i++) {
+			long weight = weights[i] / step;
+			int row = i * width;
+			Arrays.fill(taken, row, row + width, false);
+			if (weight <= capacity) {
+				kernel.update(table, taken, row, capacity, (int) weight, costs[i]);
+			}
+		}
+
+		int remaining = capacity;
+		while (remaining > 0 && table[remaining - 1] == table[capacity]) {
+			remaining--;
+		}
+		for (int i = size - 1; i >= 0; i--) {
+			chosen[i] = taken[i * width + remaining];
+			if (chosen[i]) {
+				remaining -= (int) (weights[i] / step);
+			}
+		}
+		return formatSelection(chosen);
+	}
+
+	/**
+	 * @param size the number of items
+	 * @param capacity the package limit in fixed point
+	 * @param step the precision of the weights in fixed point
+	 * @return the number of table cells needed to solve such a line
+	 */
+	public static long tableCells(int size, long capacity, long step) {
+		return (long) size * (capacity / step + 1);
+	}
+
+	private void ensureCapacity(int width) {
+		if (table.length < width) {
+			table = new long[width];
+		}
+		if (taken.length < size * width) {
+			taken = new boolean[size * width];
+		}
+		if (chosen.length < size) {
+			chosen = new boolean[size];
+		}
+	}
+}
@@ -0,0 +1,190 @@
+package com.mobiquity.solver;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+import com.mobiquity.constant.StingDelimitersEnum;
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.service.SolverService;
+
+/**
+ * Base of the solvers, copies a line into fixed-point integer weights
+ * and costs (hundredths by default) held in reusable primitive arrays and formats
+ * the chosen items back to the output notation.
+ * <br/>
+ * Instances keep state between calls and are not thread safe.
+ */
+public abstract class FixedPointSolver implements SolverService {
+
+	static final int SCALE = PackageProblem.SCALE;
+
+	protected int size;
+	protected int[] indices = new int[0];
+	protected long[] weights = new long[0];
+	protected long[] costs = new long[0];
+	protected int[] order = new int[0];
+	private double[] ratio = new double[0];
+	private int[] selected = new int[0];
+
+	/**
+	 * @param problem the line to solve
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	@Override
+	public String solve(PackageProblem problem) {
+		ensureSize(problem.size());
+		for (int i = 0; i < size; i++) {
+			indices[i] = problem.getIndex(i);
+			weights[i] = problem.getWeight(i);
+			costs[i] = problem.getCost(i);
+		}
+		return solve(problem.getCapacity());
+	}
+
+	/**
+	 * @param maxWeight the weight limit of the package
+	 * @param packages the items to choose from
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	@Override
+	public String solve(Double maxWeight, List<PackageMetaData> packages) {
+		ensureSize(packages.size());
+		for (int i = 0; i < size; i++) {
+			PackageMetaData pkg = packages.get(i);
+			indices[i] = pkg.getIndex();
+			weights[i] = toFixedPoint(pkg.getWeight());
+			costs[i] = toFixedPoint(pkg.getCost());
+		}
+		return solve(toFixedPoint(maxWeight));
+	}
+
+	/**
+	 * @param capacity the package limit in fixed point
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 *
+	 * Solves the line loaded in {@link #indices}, {@link #weights} and {@link #costs}
+	 */
+	protected abstract String solve(long capacity);
+
+	private void ensureSize(int items) {
+		size = items;
+		if (indices.length < size) {
+			indices = new int[size];
+			weights = new long[size];
+			costs = new long[size];
+			order = new int[size];
+			ratio = new double[size];
+			selected = new int[size];
+		}
+	}
+
+	/**
+	 * @param chosen flags of the chosen items, by position in the loaded list
+	 * @return the ascending indices of the chosen items, or "-" if none
+	 */
+	protected String formatSelection(boolean[] chosen) {
+		int count = 0;
+		for (int i = 0; i < size; i++) {
+			if (chosen[i]) {
+				selected[count++] = indices[i];
+			}
+		}
+		if (count == 0) {
+			return StingDelimitersEnum.DASH.getDelimeter();
+		}
+
+		Arrays.sort(selected, 0, count);
+		StringBuilder result = new StringBuilder();
+		for (int i = 0; i < count; i++) {
+			if (i > 0) {
+				result.append(StingDelimitersEnum.COMMA.getDelimeter());
+			}
+			result.append(selected[i]);
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Fills {@link #order} with the item positions by descending cost per weight,
+	 * weightless items first
+	 */
+	protected void orderByRatio() {
+		for (int i = 0; i < size; i++) {
+			order[i] = i;
+			ratio[i] = weights[i] == 0 ? Double.POSITIVE_INFINITY : (double) costs[i] / weights[i];
+		}
+		sortByRatio(0, size - 1);
+	}
+
+	/**
+	 * @param from the first position in {@link #order} to consider
+	 * @param remaining the weight left in the package
+	 * @return the best cost the items from that position on could add
+	 * if they could be split, rounded down as the costs are integral
+	 *
+	 * @see #orderByRatio()
+	 */
+	protected long fractionalBound(int from, long remaining) {
+		long bound = 0;
+		for (int i = from; i < size; i++) {
+			int item = order[i];
+			if (weights[item] <= remaining) {
+				remaining -= weights[item];
+				bound += costs[item];
+			} else {
+				return bound + (long) Math.floor(costs[item] * ((double) remaining / weights[item]));
+			}
+		}
+		return bound;
+	}
+
+	/**
+	 * @param size the number of items
+	 * @param weight the weight of an item, in fixed point
+	 * @return the largest power of ten, in fixed point, dividing every weight,
+	 * e.g. 100 when all weights are whole numbers
+	 */
+	public static long weightStep(int size, IntToLongFunction weight) {
+		long step = SCALE;
+		for (int i = 0; i < size && step > 1; i++) {
+			while (weight.applyAsLong(i) % step != 0) {
+				step /= 10;
+			}
+		}
+		return step;
+	}
+
+	private void sortByRatio(int low, int high) {
+		while (low < high) {
+			double pivot = ratio[order[(low + high) >>> 1]];
+			int i = low;
+			int j = high;
+			while (i <= j) {
+				while (ratio[order[i]] > pivot) {
+					i++;
+				}
+				while (ratio[order[j]] < pivot) {
+					j--;
+				}
+				if (i <= j) {
+					int swap = order[i];
+					order[i++] = order[j];
+					order[j--] = swap;
+				}
+			}
+			if (j - low < high - i) {
+				sortByRatio(low, j);
+				low = i;
+			} else {
+				sortByRatio(i, high);
+				high = j;
+			}
+		}
+	}
+
+	public static long toFixedPoint(double value) {
+		return PackageProblem.toFixedPoint(value);
+	}
+}
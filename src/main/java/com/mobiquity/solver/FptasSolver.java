@@ -0,0 +1,151 @@
+package com.mobiquity.solver;
+
+import java.util.Arrays;
+
+/**
+ * Fully polynomial-time approximation scheme for the 0/1 knapsack.
+ * <br/>
+ * The costs are divided by a factor derived from the error bound, the
+ * item count and a greedy lower bound, then a dynamic-programming table
+ * over the scaled cost keeps the lightest weight reaching every cost.
+ * The chosen items cost at least <code>(1 - epsilon)</code> times the optimum,
+ * in O(n^2 / epsilon) time independent of the package limit and of the
+ * precision of the weights.
+ * <p>
+ * The table is capped at {@link #MAX_TABLE_BITS}; a line which would need
+ * more is scaled further and reports the weaker bound it actually achieved
+ * through {@link #getOptimalityGap()}.
+ * </p>
+ */
+public class FptasSolver extends FixedPointSolver {
+
+	static final long MAX_TABLE_BITS = 1L << 28;
+
+	private static final long UNREACHABLE = Long.MAX_VALUE;
+
+	private double epsilon;
+	private double optimalityGap;
+	private long[] scaledCosts = new long[0];
+	private long[] lightest = new long[0];
+	private long[] taken = new long[0];
+	private boolean[] chosen = new boolean[0];
+
+	public FptasSolver(double epsilon) {
+		setEpsilon(epsilon);
+	}
+
+	/**
+	 * @param capacity the package limit in fixed point
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	@Override
+	protected String solve(long capacity) {
+		if (chosen.length < size) {
+			chosen = new boolean[size];
+			scaledCosts = new long[size];
+		}
+		Arrays.fill(chosen, 0, size, false);
+		orderByRatio();
+
+		long lowerBound = lowerBound(capacity);
+		long upperBound = fractionalBound(0, capacity);
+		optimalityGap = 0d;
+		if (upperBound == 0) {
+			return formatSelection(chosen);
+		}
+
+		long factor = Math.max(1L, (long) Math.floor(epsilon * lowerBound / size));
+		long minFactor = (long) Math.ceil((double) size * (upperBound + 1) / MAX_TABLE_BITS);
+		factor = Math.max(factor, minFactor);
+		if (factor > 1) {
+			optimalityGap = Math.min(1d, (double) size * factor / lowerBound);
+		}
+
+		int width = (int) (upperBound / factor) + 1;
+		ensureTable(width);
+		Arrays.fill(lightest, 0, width, UNREACHABLE);
+		lightest[0] = 0;
+		for (int i = 0; i < size; i++) {
+			scaledCosts[i] = weights[i] <= capacity ? costs[i] / factor : 0;
+			long weight = weights[i];
+			int cost = (int) scaledCosts[i];
+			long row = (long) i * width;
+			for (int p = width - 1; p >= cost && cost > 0; p--) {
+				long previous = lightest[p - cost];
+				if (previous != UNREACHABLE && previous + weight < lightest[p]) {
+					lightest[p] = previous + weight;
+					long bit = row + p;
+					taken[(int) (bit >>> 6)] |= 1L << bit;
+				}
+			}
+		}
+
+		int best = width - 1;
+		while (best > 0 && lightest[best] > capacity) {
+			best--;
+		}
+		for (int i = size - 1; i >= 0 && best > 0; i--) {
+			long bit = (long) i * width + best;
+			if ((taken[(int) (bit >>> 6)] & (1L << bit)) != 0) {
+				chosen[i] = true;
+				best -= (int) scaledCosts[i];
+			}
+		}
+		return formatSelection(chosen);
+	}
+
+	/**
+	 * @return the cost of the greedy fill by cost per weight or
+	 * of the most expensive single item, whichever is larger
+	 */
+	private long lowerBound(long capacity) {
+		long remaining = capacity;
+		long filledCost = 0;
+		long single = 0;
+		for (int i = 0; i < size; i++) {
+			int item = order[i];
+			if (weights[item] <= remaining) {
+				remaining -= weights[item];
+				filledCost += costs[item];
+			}
+			if (weights[item] <= capacity) {
+				single = Math.max(single, costs[item]);
+			}
+		}
+		return Math.max(1L, Math.max(filledCost, single));
+	}
+
+	private void ensureTable(int width) {
+		if (lightest.length < width) {
+			lightest = new long[width];
+		}
+		int words = (int) (((long) size * width + 63) >>> 6);
+		if (taken.length < words) {
+			taken = new long[words];
+		} else {
+			Arrays.fill(taken, 0, words, 0L);
+		}
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * @param epsilon the relative cost loss allowed, between 0 and 1
+	 */
+	public void setEpsilon(double epsilon) {
+		if (epsilon <= 0d || epsilon >= 1d) {
+			throw new IllegalArgumentException("epsilon must be between 0 and 1, was " + epsilon);
+		}
+		this.epsilon = epsilon;
+	}
+
+	/**
+	 * @return the guaranteed relative cost loss of the last line solved,
+	 * 0 when its costs did not need scaling
+	 */
+	public double getOptimalityGap() {
+		return optimalityGap;
+	}
+}
@@ -0,0 +1,50 @@
+package com.mobiquity.solver;
+
+/**
+ * Approximate 0/1 knapsack solver which fills the package by descending
+ * cost per weight and falls back to the single most expensive item
+ * when that alone is worth more.
+ * <br/>
+ * Runs in O(n log n) and always reaches at least half of the optimum cost.
+ */
+public class GreedySolver extends FixedPointSolver {
+
+	public static final double OPTIMALITY_GAP = 0.5d;
+
+	private boolean[] chosen = new boolean[0];
+
+	/**
+	 * @param capacity the package limit in fixed point
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	@Override
+	protected String solve(long capacity) {
+		if (chosen.length < size) {
+			chosen = new boolean[size];
+		}
+		orderByRatio();
+
+		long remaining = capacity;
+		long filledCost = 0;
+		int single = -1;
+		for (int i = 0; i < size; i++) {
+			int item = order[i];
+			chosen[item] = weights[item] <= remaining;
+			if (chosen[item]) {
+				remaining -= weights[item];
+				filledCost += costs[item];
+			}
+			if (weights[item] <= capacity && (single < 0 || costs[item] > costs[single]
+					|| (costs[item] == costs[single] && weights[item] < weights[single]))) {
+				single = item;
+			}
+		}
+
+		if (single >= 0 && costs[single] > filledCost) {
+			for (int i = 0; i < size; i++) {
+				chosen[i] = i == single;
+			}
+		}
+		return formatSelection(chosen);
+	}
+}
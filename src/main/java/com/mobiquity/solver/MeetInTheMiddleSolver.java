@@ -0,0 +1,159 @@
+package com.mobiquity.solver;
+
+import java.util.Arrays;
+
+/**
+ * Exact 0/1 knapsack solver which splits the items into two halves,
+ * enumerates every subset of each half and joins them with a binary
+ * search over the right half sorted by weight.
+ * <br/>
+ * Runs in O(2^(n/2) * n) independent of the package limit, so it suits
+ * lines with up to {@link #MAX_ITEMS} items whose limit is too large for
+ * the dynamic-programming table.
+ * <p>
+ * If more than one selection reaches the maximum cost, the lighter
+ * one is returned.
+ * </p>
+ */
+public class MeetInTheMiddleSolver extends FixedPointSolver {
+
+	public static final int MAX_ITEMS = 40;
+
+	private long[] leftWeight = new long[0];
+	private long[] leftCost = new long[0];
+	private long[] rightWeight = new long[0];
+	private long[] rightCost = new long[0];
+	private long[] rightKeys = new long[0];
+	private long[] frontierWeight = new long[0];
+	private long[] frontierCost = new long[0];
+	private int[] frontierMask = new int[0];
+	private boolean[] chosen = new boolean[0];
+
+	/**
+	 * @param capacity the package limit in fixed point
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 *
+	 * Builds the cost frontier of the right half (lightest subset for
+	 * every strictly better cost) and looks up the best partner
+	 * of every fitting subset of the left half
+	 */
+	@Override
+	protected String solve(long capacity) {
+		if (size > MAX_ITEMS) {
+			throw new IllegalArgumentException("Meet in the middle supports up to " + MAX_ITEMS + " items");
+		}
+		if (capacity > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Meet in the middle supports package limits up to " + Integer.MAX_VALUE / SCALE);
+		}
+		int leftSize = size / 2;
+		int rightSize = size - leftSize;
+		ensureCapacity(1 << leftSize, 1 << rightSize);
+
+		enumerate(0, leftSize, leftWeight, leftCost);
+		enumerate(leftSize, rightSize, rightWeight, rightCost);
+		int frontierSize = buildFrontier(1 << rightSize, capacity);
+
+		long bestCost = -1;
+		long bestWeight = 0;
+		int bestLeft = 0;
+		int bestRight = 0;
+		for (int mask = 0; mask < 1 << leftSize; mask++) {
+			if (leftWeight[mask] > capacity) {
+				continue;
+			}
+			int partner = lastNotHeavier(frontierSize, capacity - leftWeight[mask]);
+			long cost = leftCost[mask] + frontierCost[partner];
+			long weight = leftWeight[mask] + frontierWeight[partner];
+			if (cost > bestCost || (cost == bestCost && weight < bestWeight)) {
+				bestCost = cost;
+				bestWeight = weight;
+				bestLeft = mask;
+				bestRight = frontierMask[partner];
+			}
+		}
+
+		for (int i = 0; i < size; i++) {
+			chosen[i] = i < leftSize
+					? (bestLeft & (1 << i)) != 0
+					: (bestRight & (1 << (i - leftSize))) != 0;
+		}
+		return formatSelection(chosen);
+	}
+
+	/**
+	 * Fills the weight and cost of every subset of the items
+	 * [offset, offset + count), each subset extends the one
+	 * without its lowest bit by a single item
+	 */
+	private void enumerate(int offset, int count, long[] subsetWeight, long[] subsetCost) {
+		subsetWeight[0] = 0;
+		subsetCost[0] = 0;
+		for (int mask = 1; mask < 1 << count; mask++) {
+			int item = Integer.numberOfTrailingZeros(mask);
+			int rest = mask & (mask - 1);
+			subsetWeight[mask] = subsetWeight[rest] + weights[offset + item];
+			subsetCost[mask] = subsetCost[rest] + costs[offset + item];
+		}
+	}
+
+	/**
+	 * Sorts the fitting right subsets by weight and keeps those which are
+	 * strictly more expensive than every lighter one, so the frontier
+	 * is ascending in both weight and cost
+	 */
+	private int buildFrontier(int subsets, long capacity) {
+		int fitting = 0;
+		for (int mask = 0; mask < subsets; mask++) {
+			if (rightWeight[mask] <= capacity) {
+				rightKeys[fitting++] = (rightWeight[mask] << 32) | mask;
+			}
+		}
+		Arrays.sort(rightKeys, 0, fitting);
+
+		int frontierSize = 0;
+		long lastCost = -1;
+		for (int i = 0; i < fitting; i++) {
+			int mask = (int) (rightKeys[i] & 0xFFFFFFFFL);
+			if (rightCost[mask] > lastCost) {
+				frontierWeight[frontierSize] = rightWeight[mask];
+				frontierCost[frontierSize] = rightCost[mask];
+				frontierMask[frontierSize] = mask;
+				frontierSize++;
+				lastCost = rightCost[mask];
+			}
+		}
+		return frontierSize;
+	}
+
+	private int lastNotHeavier(int frontierSize, long remaining) {
+		int low = 0;
+		int high = frontierSize - 1;
+		while (low < high) {
+			int mid = (low + high + 1) >>> 1;
+			if (frontierWeight[mid] <= remaining) {
+				low = mid;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low;
+	}
+
+	private void ensureCapacity(int leftSubsets, int rightSubsets) {
+		if (leftWeight.length < leftSubsets) {
+			leftWeight = new long[leftSubsets];
+			leftCost = new long[leftSubsets];
+		}
+		if (rightWeight.length < rightSubsets) {
+			rightWeight = new long[rightSubsets];
+			rightCost = new long[rightSubsets];
+			rightKeys = new long[rightSubsets];
+			frontierWeight = new long[rightSubsets];
+			frontierCost = new long[rightSubsets];
+			frontierMask = new int[rightSubsets];
+		}
+		if (chosen.length < size) {
+			chosen = new boolean[size];
+		}
+	}
+}
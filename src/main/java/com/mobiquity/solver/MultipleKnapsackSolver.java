@@ -0,0 +1,287 @@
+package com.mobiquity.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.mobiquity.constant.StingDelimitersEnum;
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+
+/**
+ * Exact solver for a line listing several bags: each item goes to at most
+ * one bag and the total cost of all the bags is maximised.
+ * <br/>
+ * The items are explored depth first by descending cost per weight, each
+ * one tried in every bag it fits in, then left out. A branch is pruned once
+ * its fractional-relaxation bound over the capacity left in all the bags can
+ * no longer reach the best total found so far. Bags with the same capacity
+ * left are interchangeable, only the first of them is tried.
+ * <br/>
+ * From {@link #PARALLEL_ITEMS} items on, the first levels of the search
+ * are split into tasks run on a {@link ForkJoinPool}, the common one by
+ * default, which share the best total found so far for their pruning.
+ * <p>
+ * On equal total cost the lighter assignment wins, then the one putting the
+ * earlier items of the line in the earlier bags, so the answer does not
+ * depend on how the search was split. The answer lists the ascending indices
+ * of every bag, in the order of the bags, separated by ";", e.g. "4;1,3;-".
+ * </p>
+ */
+public class MultipleKnapsackSolver extends FixedPointSolver {
+
+	public static final int PARALLEL_ITEMS = 12;
+	private static final int TASKS_PER_THREAD = 4;
+
+	private final ForkJoinPool pool;
+	private long[] capacities = new long[1];
+	private int bags = 1;
+
+	public MultipleKnapsackSolver() {
+		this(ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * @param pool runs the parts of the search of large lines, a single
+	 * threaded pool keeps every search on the calling thread
+	 */
+	public MultipleKnapsackSolver(ForkJoinPool pool) {
+		this.pool = pool;
+	}
+
+	/**
+	 * @param problem the line to solve, with one or more bags
+	 * @return the ascending indices of the chosen items of every bag, separated by ";"
+	 */
+	@Override
+	public String solve(PackageProblem problem) {
+		bags = problem.getBags();
+		if (capacities.length < bags) {
+			capacities = new long[bags];
+		}
+		for (int i = 0; i < bags; i++) {
+			capacities[i] = problem.getCapacity(i);
+		}
+		return super.solve(problem);
+	}
+
+	/**
+	 * @param maxWeight the weight limit of the only bag
+	 * @param packages the items to choose from
+	 * @return the ascending indices of the chosen items, or "-" if nothing fits
+	 */
+	@Override
+	public String solve(Double maxWeight, List<PackageMetaData> packages) {
+		bags = 1;
+		capacities[0] = toFixedPoint(maxWeight);
+		return super.solve(maxWeight, packages);
+	}
+
+	/**
+	 * @param capacity the limit of the first bag, the others are those loaded with the line
+	 * @return the ascending indices of the chosen items of every bag, separated by ";"
+	 */
+	@Override
+	protected String solve(long capacity) {
+		capacities[0] = capacity;
+		orderByRatio();
+		Search best = new Search();
+		if (size >= PARALLEL_ITEMS && bags > 1 && pool.getParallelism() > 1) {
+			AtomicLong shared = new AtomicLong(-1);
+			List<Search> tasks = new ArrayList<>();
+			split(best, 0, pool.getParallelism() * TASKS_PER_THREAD, shared, tasks);
+			for (Search task : tasks) {
+				pool.execute(task);
+			}
+			for (Search task : tasks) {
+				task.join();
+				best.merge(task);
+			}
+		} else {
+			best.branch(0);
+		}
+		return best.format();
+	}
+
+	/**
+	 * Lists in depth first order the searches starting after the first levels of choices
+	 */
+	private void split(Search prefix, int depth, int wanted, AtomicLong shared, List<Search> tasks) {
+		int item = order[depth];
+		int choices = 1;
+		for (int bag = 0; bag < bags; bag++) {
+			if (prefix.fits(item, bag)) {
+				choices++;
+			}
+		}
+		if (wanted <= 1 || depth + 1 >= size - 1) {
+			tasks.add(prefix.fork(depth, shared));
+			return;
+		}
+		int share = (wanted + choices - 1) / choices;
+		for (int bag = 0; bag < bags; bag++) {
+			if (prefix.fits(item, bag)) {
+				prefix.assign(item, bag);
+				split(prefix, depth + 1, share, shared, tasks);
+				prefix.unassign(item, bag);
+			}
+		}
+		split(prefix, depth + 1, share, shared, tasks);
+	}
+
+	/**
+	 * One depth first search, over the whole line or below a fixed prefix
+	 */
+	private class Search extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[] assignment;
+		private final long[] remaining;
+		private final int[] bestAssignment;
+		private final AtomicLong shared;
+		private final int start;
+		private long cost;
+		private long weight;
+		private long bestCost = -1;
+		private long bestWeight;
+
+		private Search() {
+			this(0, null);
+			Arrays.fill(assignment, -1);
+			System.arraycopy(capacities, 0, remaining, 0, bags);
+		}
+
+		private Search(int start, AtomicLong shared) {
+			this.assignment = new int[size];
+			this.remaining = new long[bags];
+			this.bestAssignment = new int[size];
+			this.start = start;
+			this.shared = shared;
+		}
+
+		/**
+		 * @return a search continuing from the current choices, at the given depth
+		 */
+		private Search fork(int depth, AtomicLong sharedBest) {
+			Search search = new Search(depth, sharedBest);
+			System.arraycopy(assignment, 0, search.assignment, 0, size);
+			System.arraycopy(remaining, 0, search.remaining, 0, bags);
+			search.cost = cost;
+			search.weight = weight;
+			return search;
+		}
+
+		@Override
+		protected void compute() {
+			branch(start);
+		}
+
+		private void branch(int depth) {
+			keep();
+			if (depth == size) {
+				return;
+			}
+			long free = 0;
+			for (int bag = 0; bag < bags; bag++) {
+				free += remaining[bag];
+			}
+			long best = shared == null ? bestCost : Math.max(bestCost, shared.get());
+			if (cost + fractionalBound(depth, free) < best) {
+				return;
+			}
+			int item = order[depth];
+			for (int bag = 0; bag < bags; bag++) {
+				if (fits(item, bag)) {
+					assign(item, bag);
+					branch(depth + 1);
+					unassign(item, bag);
+				}
+			}
+			branch(depth + 1);
+		}
+
+		/**
+		 * @return true if the item fits in the bag and no earlier bag has the same capacity left
+		 */
+		private boolean fits(int item, int bag) {
+			if (weights[item] > remaining[bag]) {
+				return false;
+			}
+			for (int other = 0; other < bag; other++) {
+				if (remaining[other] == remaining[bag]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void assign(int item, int bag) {
+			assignment[item] = bag;
+			remaining[bag] -= weights[item];
+			cost += costs[item];
+			weight += weights[item];
+		}
+
+		private void unassign(int item, int bag) {
+			assignment[item] = -1;
+			remaining[bag] += weights[item];
+			cost -= costs[item];
+			weight -= weights[item];
+		}
+
+		private void keep() {
+			if (cost > bestCost || cost == bestCost && (weight < bestWeight
+					|| weight == bestWeight && precedes(assignment, bestAssignment))) {
+				bestCost = cost;
+				bestWeight = weight;
+				System.arraycopy(assignment, 0, bestAssignment, 0, size);
+				if (shared != null) {
+					shared.accumulateAndGet(cost, Math::max);
+				}
+			}
+		}
+
+		private void merge(Search other) {
+			if (other.bestCost > bestCost || other.bestCost == bestCost && (other.bestWeight < bestWeight
+					|| other.bestWeight == bestWeight && precedes(other.bestAssignment, bestAssignment))) {
+				bestCost = other.bestCost;
+				bestWeight = other.bestWeight;
+				System.arraycopy(other.bestAssignment, 0, bestAssignment, 0, size);
+			}
+		}
+
+		/**
+		 * @return true if the first assignment puts the earlier items in earlier bags,
+		 * an item left out counting as put after the last bag
+		 */
+		private boolean precedes(int[] first, int[] second) {
+			for (int i = 0; i < size; i++) {
+				int left = first[i] < 0 ? bags : first[i];
+				int right = second[i] < 0 ? bags : second[i];
+				if (left != right) {
+					return left < right;
+				}
+			}
+			return false;
+		}
+
+		private String format() {
+			boolean[] chosen = new boolean[size];
+			StringBuilder result = new StringBuilder();
+			for (int bag = 0; bag < bags; bag++) {
+				for (int i = 0; i < size; i++) {
+					chosen[i] = bestAssignment[i] == bag;
+				}
+				if (bag > 0) {
+					result.append(StingDelimitersEnum.SEMICOLON.getDelimeter());
+				}
+				result.append(formatSelection(chosen));
+			}
+			return result.toString();
+		}
+	}
+}
@@ -0,0 +1,24 @@
+package com.mobiquity.solver;
+
+/**
+ * Plain loop over the row, from the largest capacity down so that the
+ * cells read still hold the costs of the previous items
+ */
+public class ScalarDpKernel implements DpKernel {
+
+	@Override
+	public void update(long[] table, boolean[] taken, int row, int capacity, int weight, long cost) {
+		for (int w = capacity; w >= weight; w--) {
+			long candidate = table[w - weight] + cost;
+			if (candidate > table[w]) {
+				table[w] = candidate;
+				taken[row + w] = true;
+			}
+		}
+	}
+
+	@Override
+	public String getName() {
+		return "scalar";
+	}
+}
@@ -0,0 +1,175 @@
+package com.mobiquity.solver;
+
+import java.util.List;
+
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+
+/**
+ * Picks the engine for a line from its item count, package limit
+ * and weight precision, within the error bound the caller accepts.
+ * <br/>
+ * With an error bound (epsilon) of 0 every line is answered exactly:
+ * <ol>
+ * <li>{@link DynamicProgrammingSolver} while its table stays below {@link #MAX_TABLE_CELLS}</li>
+ * <li>{@link MeetInTheMiddleSolver} up to {@link MeetInTheMiddleSolver#MAX_ITEMS} items</li>
+ * <li>{@link BranchAndBoundSolver} otherwise</li>
+ * </ol>
+ * A positive error bound trades optimality for a predictable latency on
+ * lines too large for the first two: {@link GreedySolver} from 0.5 on,
+ * branch and bound up to {@link #MAX_BRANCH_AND_BOUND_ITEMS} items and
+ * {@link FptasSolver} beyond.
+ * <br/>
+ * Lines listing several bags are always answered exactly by the
+ * {@link MultipleKnapsackSolver}.
+ * <br/>
+ * An engine can also be forced, it then answers every single bag line
+ * it supports: dynamic programming falls back to the choice above on
+ * lines whose table exceeds {@link #MAX_TABLE_CELLS}, meet in the middle
+ * on lines beyond its item count or package limit.
+ * <p>
+ * The solvers keep scratch buffers, so a selector is not thread safe.
+ * </p>
+ */
+public class SolverSelector {
+
+	/**
+	 * Largest dynamic-programming table (items x capacity steps)
+	 * worth filling before switching to the table-free solvers
+	 */
+	public static final long MAX_TABLE_CELLS = 4_000_000L;
+	public static final int MAX_BRANCH_AND_BOUND_ITEMS = 200;
+
+	private final double epsilon;
+	private final SolverEngineEnum engine;
+	private final DynamicProgrammingSolver dynamicProgrammingSolver = new DynamicProgrammingSolver();
+	private final MeetInTheMiddleSolver meetInTheMiddleSolver = new MeetInTheMiddleSolver();
+	private final BranchAndBoundSolver branchAndBoundSolver = new BranchAndBoundSolver();
+	private final GreedySolver greedySolver = new GreedySolver();
+	private final MultipleKnapsackSolver multipleKnapsackSolver = new MultipleKnapsackSolver();
+	private final FptasSolver fptasSolver;
+	private final PackageProblem scratch = new PackageProblem();
+
+	/**
+	 * Answers every line exactly
+	 */
+	public SolverSelector() {
+		this(0d);
+	}
+
+	/**
+	 * @param epsilon the relative cost loss accepted, 0 for exact answers only
+	 */
+	public SolverSelector(double epsilon) {
+		this(epsilon, null);
+	}
+
+	/**
+	 * @param epsilon the relative cost loss accepted, 0 for exact answers only
+	 * @param engine the engine answering every line it supports, or null to pick one per line
+	 */
+	public SolverSelector(double epsilon, SolverEngineEnum engine) {
+		if (epsilon < 0d || epsilon >= 1d) {
+			throw new IllegalArgumentException("epsilon must be at least 0 and below 1, was " + epsilon);
+		} else if (engine == SolverEngineEnum.FPTAS && epsilon == 0d) {
+			throw new IllegalArgumentException("The fptas engine needs a positive epsilon");
+		}
+		this.epsilon = epsilon;
+		this.engine = engine;
+		this.fptasSolver = epsilon > 0d ? new FptasSolver(epsilon) : null;
+	}
+
+	/**
+	 * @param problem the line to solve
+	 * @return the chosen items with the engine which answered and its optimality gap
+	 */
+	public PackResult solve(PackageProblem problem) {
+		SolverEngineEnum engine = select(problem);
+		switch (engine) {
+			case DYNAMIC_PROGRAMMING:
+				return new PackResult(dynamicProgrammingSolver.solve(problem), engine, 0d);
+			case MEET_IN_THE_MIDDLE:
+				return new PackResult(meetInTheMiddleSolver.solve(problem), engine, 0d);
+			case GREEDY:
+				return new PackResult(greedySolver.solve(problem), engine, GreedySolver.OPTIMALITY_GAP);
+			case FPTAS:
+				String indices = fptasSolver.solve(problem);
+				return new PackResult(indices, engine, fptasSolver.getOptimalityGap());
+			case MULTIPLE_KNAPSACK:
+				return new PackResult(multipleKnapsackSolver.solve(problem), engine, 0d);
+			default:
+				return new PackResult(branchAndBoundSolver.solve(problem), engine, 0d);
+		}
+	}
+
+	/**
+	 * @param maxWeight the weight limit of the package
+	 * @param packages the items to choose from
+	 * @return the chosen items with the engine which answered and its optimality gap
+	 *
+	 * @see #solve(PackageProblem)
+	 */
+	public PackResult solve(Double maxWeight, List<PackageMetaData> packages) {
+		return solve(load(maxWeight, packages));
+	}
+
+	/**
+	 * @param problem the line to solve
+	 * @return the engine expected to answer fastest within the error bound
+	 */
+	public SolverEngineEnum select(PackageProblem problem) {
+		int size = problem.size();
+		long capacity = problem.getCapacity();
+		if (problem.getBags() > 1) {
+			return SolverEngineEnum.MULTIPLE_KNAPSACK;
+		}
+		boolean tableFits = DynamicProgrammingSolver.tableCells(size, capacity,
+				FixedPointSolver.weightStep(size, problem::getWeight)) <= MAX_TABLE_CELLS;
+		boolean halvesFit = size <= MeetInTheMiddleSolver.MAX_ITEMS && capacity <= Integer.MAX_VALUE;
+		if (engine != null && (engine == SolverEngineEnum.DYNAMIC_PROGRAMMING ? tableFits
+				: engine != SolverEngineEnum.MEET_IN_THE_MIDDLE || halvesFit)) {
+			return engine;
+		} else if (tableFits) {
+			return SolverEngineEnum.DYNAMIC_PROGRAMMING;
+		} else if (halvesFit) {
+			return SolverEngineEnum.MEET_IN_THE_MIDDLE;
+		} else if (epsilon >= GreedySolver.OPTIMALITY_GAP) {
+			return SolverEngineEnum.GREEDY;
+		} else if (epsilon > 0d && size > MAX_BRANCH_AND_BOUND_ITEMS) {
+			return SolverEngineEnum.FPTAS;
+		}
+		return SolverEngineEnum.BRANCH_AND_BOUND;
+	}
+
+	/**
+	 * @param maxWeight the weight limit of the package
+	 * @param packages the items to choose from
+	 * @return the engine expected to answer fastest within the error bound
+	 */
+	public SolverEngineEnum select(Double maxWeight, List<PackageMetaData> packages) {
+		return select(load(maxWeight, packages));
+	}
+
+	public double getEpsilon() {
+		return epsilon;
+	}
+
+	/**
+	 * @return the forced engine, or null when one is picked per line
+	 */
+	public SolverEngineEnum getEngine() {
+		return engine;
+	}
+
+	private PackageProblem load(Double maxWeight, List<PackageMetaData> packages) {
+		scratch.clear();
+		scratch.setCapacity(PackageProblem.toFixedPoint(maxWeight));
+		for (PackageMetaData pkg : packages) {
+			scratch.add(pkg.getIndex(), PackageProblem.toFixedPoint(pkg.getWeight()),
+					PackageProblem.toFixedPoint(pkg.getCost()));
+		}
+		return scratch;
+	}
+}
@@ -0,0 +1,327 @@
+package com.mobiquity.trace;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.log4j.Logger;
+
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageProblem;
+
+/**
+ * Records the decision taken for every line packed: the chosen items,
+ * the capacity, the weight used and the total cost.
+ * <br/>
+ * The solver threads copy a few primitives into a preallocated ring of
+ * slots and go on, a daemon thread formats the slots and writes them to
+ * a file or to the <code>com.mobiquity.trace</code> logger. When the ring
+ * is full the decision is dropped and counted, solving never waits for
+ * the trace.
+ * <br/>
+ * The trace is off unless {@link #start} was called or the system property
+ * <code>packer.trace</code> is set, to <code>log</code> or to a file path,
+ * with <code>packer.traceCapacity</code> slots (8192 by default). While it
+ * is off {@link #current()} returns null and nothing is recorded.
+ */
+public final class DecisionTrace {
+
+	private static Logger logger = Logger.getLogger(DecisionTrace.class);
+	private static Logger traceLogger = Logger.getLogger("com.mobiquity.trace");
+
+	private static final long IDLE_PARK_NANOS = 1_000_000L;
+
+	private static volatile DecisionTrace current = fromSystemProperties();
+
+	private final Slot[] slots;
+	private final int mask;
+	private final Writer output;
+	private final AtomicLong claimed = new AtomicLong();
+	private final LongAdder dropped = new LongAdder();
+	private final Thread drainer;
+	private final StringBuilder line = new StringBuilder(128);
+	private volatile long consumed;
+	private volatile boolean running = true;
+
+	private DecisionTrace(int capacity, Writer output) {
+		int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+		this.slots = new Slot[size];
+		for (int i = 0; i < size; i++) {
+			slots[i] = new Slot();
+		}
+		this.mask = size - 1;
+		this.output = output;
+		this.drainer = new Thread(this::drain, "packer-trace");
+		this.drainer.setDaemon(true);
+		this.drainer.start();
+	}
+
+	/**
+	 * @return the running trace, or null when tracing is off
+	 */
+	public static DecisionTrace current() {
+		return current;
+	}
+
+	/**
+	 * @param capacity the number of decisions buffered, rounded up to a power of two
+	 * @param output receives one line per decision, it is closed by {@link #stop()},
+	 * null to write to the <code>com.mobiquity.trace</code> logger
+	 * @return the trace, replacing the running one which is stopped
+	 */
+	public static synchronized DecisionTrace start(int capacity, Writer output) {
+		stop();
+		current = new DecisionTrace(capacity, output);
+		return current;
+	}
+
+	/**
+	 * @param capacity the number of decisions buffered, rounded up to a power of two
+	 * @param file the decisions are appended to
+	 * @return the trace, replacing the running one which is stopped
+	 * @throws IOException if the file can not be opened
+	 */
+	public static DecisionTrace start(int capacity, Path file) throws IOException {
+		return start(capacity, Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+				StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+	}
+
+	/**
+	 * Stops the running trace, if any, once the decisions recorded are written
+	 */
+	public static synchronized void stop() {
+		DecisionTrace trace = current;
+		current = null;
+		if (trace != null) {
+			trace.running = false;
+			LockSupport.unpark(trace.drainer);
+			try {
+				trace.drainer.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			if (trace.dropped.sum() > 0) {
+				logger.warn("Decision trace dropped " + trace.dropped.sum() + " decisions, the ring was full");
+			}
+		}
+	}
+
+	/**
+	 * @param problem the line solved
+	 * @param result the answer of the line
+	 */
+	public void record(PackageProblem problem, PackResult result) {
+		long sequence = claim();
+		if (sequence < 0) {
+			return;
+		}
+		Slot slot = slots[(int) (sequence & mask)];
+		slot.engine = result.getEngine();
+		slot.capacity = problem.getTotalCapacity();
+		slot.readIndices(result.getIndices());
+		long weight = 0;
+		long cost = 0;
+		for (int i = 0; i < problem.size(); i++) {
+			if (slot.isChosen(problem.getIndex(i))) {
+				weight += problem.getWeight(i);
+				cost += problem.getCost(i);
+			}
+		}
+		slot.weight = weight;
+		slot.cost = cost;
+		slot.published = sequence;
+	}
+
+	/**
+	 * @param engine the engine which chose the items
+	 * @param capacity the package limit in fixed point
+	 * @param weight the weight of the chosen items in fixed point
+	 * @param cost the cost of the chosen items in fixed point
+	 * @param indices the ascending indices of the chosen items, or "-"
+	 */
+	public void record(SolverEngineEnum engine, long capacity, long weight, long cost, String indices) {
+		long sequence = claim();
+		if (sequence < 0) {
+			return;
+		}
+		Slot slot = slots[(int) (sequence & mask)];
+		slot.engine = engine;
+		slot.capacity = capacity;
+		slot.weight = weight;
+		slot.cost = cost;
+		slot.readIndices(indices);
+		slot.published = sequence;
+	}
+
+	/**
+	 * @return the decisions dropped because the ring was full
+	 */
+	public long getDropped() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return the sequence of a free slot, or -1 if the ring is full
+	 */
+	private long claim() {
+		long sequence;
+		do {
+			sequence = claimed.get();
+			if (sequence - consumed >= slots.length) {
+				dropped.increment();
+				return -1;
+			}
+		} while (!claimed.compareAndSet(sequence, sequence + 1));
+		return sequence;
+	}
+
+	private void drain() {
+		long next = consumed;
+		while (true) {
+			Slot slot = slots[(int) (next & mask)];
+			if (slot.published == next) {
+				write(next, slot);
+				consumed = ++next;
+			} else if (running || claimed.get() > next) {
+				flush();
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+			} else {
+				break;
+			}
+		}
+		close();
+	}
+
+	private void write(long sequence, Slot slot) {
+		line.setLength(0);
+		line.append("decision ").append(sequence)
+				.append(" engine=").append(slot.engine.getCode())
+				.append(" capacity=").append(PackageProblem.format(slot.capacity))
+				.append(" weight=").append(PackageProblem.format(slot.weight))
+				.append(" cost=").append(PackageProblem.format(slot.cost))
+				.append(" items=");
+		if (slot.chosenCount == 0) {
+			line.append('-');
+		}
+		for (int i = 0; i < slot.chosenCount; i++) {
+			line.append(i == 0 ? "" : ",").append(slot.chosen[i]);
+		}
+		try {
+			if (output == null) {
+				traceLogger.info(line);
+			} else {
+				output.append(line).append('\n');
+			}
+		} catch (IOException e) {
+			logger.error("Unable to write the decision trace", e);
+			running = false;
+		}
+	}
+
+	private void flush() {
+		try {
+			if (output != null) {
+				output.flush();
+			}
+		} catch (IOException e) {
+			logger.error("Unable to write the decision trace", e);
+		}
+	}
+
+	private void close() {
+		try {
+			if (output != null) {
+				output.close();
+			}
+		} catch (IOException e) {
+			logger.error("Unable to close the decision trace", e);
+		}
+	}
+
+	private static DecisionTrace fromSystemProperties() {
+		String target = System.getProperty("packer.trace");
+		if (target == null || target.isBlank()) {
+			return null;
+		}
+		int capacity = Integer.getInteger("packer.traceCapacity", 8192);
+		try {
+			DecisionTrace trace = "log".equalsIgnoreCase(target) ? new DecisionTrace(capacity, null)
+					: new DecisionTrace(capacity, Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8,
+							StandardOpenOption.CREATE, StandardOpenOption.APPEND));
+			Runtime.getRuntime().addShutdownHook(new Thread(DecisionTrace::stop, "packer-trace-stop"));
+			return trace;
+		} catch (IOException e) {
+			logger.error("Unable to open the decision trace " + target, e);
+			return null;
+		}
+	}
+
+	/**
+	 * One decision, written by the solver thread which claimed
+	 * it and read by the drainer once published
+	 */
+	private static class Slot {
+
+		private volatile long published = -1;
+		private SolverEngineEnum engine;
+		private long capacity;
+		private long weight;
+		private long cost;
+		private int[] chosen = new int[16];
+		private int chosenCount;
+
+		/**
+		 * Reads the indices of an answer, without creating Strings.
+		 * The indices of a several bag answer are sorted across the bags
+		 */
+		private void readIndices(String indices) {
+			chosenCount = 0;
+			int value = -1;
+			boolean sorted = true;
+			for (int i = 0; i <= indices.length(); i++) {
+				char current = i < indices.length() ? indices.charAt(i) : ',';
+				if (current >= '0' && current <= '9') {
+					value = (value < 0 ? 0 : value * 10) + (current - '0');
+				} else if (value >= 0) {
+					sorted &= chosenCount == 0 || chosen[chosenCount - 1] < value;
+					if (chosenCount == chosen.length) {
+						int[] grown = new int[chosen.length * 2];
+						System.arraycopy(chosen, 0, grown, 0, chosenCount);
+						chosen = grown;
+					}
+					chosen[chosenCount++] = value;
+					value = -1;
+				}
+			}
+			if (!sorted) {
+				Arrays.sort(chosen, 0, chosenCount);
+			}
+		}
+
+		private boolean isChosen(int index) {
+			int low = 0;
+			int high = chosenCount - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (chosen[middle] < index) {
+					low = middle + 1;
+				} else if (chosen[middle] > index) {
+					high = middle - 1;
+				} else {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+}
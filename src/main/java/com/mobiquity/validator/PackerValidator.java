@@ -1,8 +1,11 @@
 package com.mobiquity.validator;
 
+import com.mobiquity.constant.PackerErrorEnum;
 import com.mobiquity.constant.StingDelimitersEnum;
 import com.mobiquity.exception.APIException;
 import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
 import com.mobiquity.service.ValidatorService;
 
 import java.util.Arrays;
@@ -21,11 +24,22 @@ import java.util.regex.Pattern;
  */
 public class PackerValidator implements ValidatorService {
 
-	private final Double MAX_WEIGHT = 100d;
-	private final int MAX_ITEMS = 15;
-	private final Double MAX_COST = 100d;
+	private final PackerLimits limits;
     private final Pattern strPattern = Pattern.compile("^\\((\\d+),(\\d+\\.?\\d*?),€?(\\d+)\\)$");
-    private final Pattern digitPattern = Pattern.compile("^\\d+$");
+    private final Pattern digitPattern = Pattern.compile("^\\d+(\\.\\d+)?(\\s+\\d+(\\.\\d+)?)*$");
+
+    /**
+     * Validates against the limits configured through system properties
+     *
+     * @see PackerLimits#fromSystemProperties()
+     */
+    public PackerValidator() {
+        this(PackerLimits.fromSystemProperties());
+    }
+
+    public PackerValidator(PackerLimits limits) {
+        this.limits = limits;
+    }
 
     /**
      * @param line
@@ -34,13 +48,25 @@ public class PackerValidator implements ValidatorService {
      *
      * Validates the input format and checks if the format
      * is the desired one
+     *
+     * @see #checkInput(String) for the same check without exception
      */
     @Override
     public boolean isValidInput(String line) throws APIException {
+        throwIfRejected(checkInput(line));
+        return true;
+    }
+
+    /**
+     * @param line
+     * @return null if the input format is the correct one, the reason it is not otherwise
+     */
+    @Override
+    public PackerErrorEnum checkInput(String line) {
         int index = line.indexOf(StingDelimitersEnum.COLON.getDelimeter());
 
         if (index < 0) {
-           throw new APIException("Can not read weight of from the given input");
+           return PackerErrorEnum.MISSING_WEIGHT;
         }
 
         String strBeforeColon = line.substring(0, index).trim();
@@ -53,11 +79,7 @@ public class PackerValidator implements ValidatorService {
             return str.isBlank() ? true : this.strPattern.matcher(str).find();
         });
 
-        if(!validStrPattern || !validDigitPattern){
-            throw new APIException("Can not read the input, please align with the format");
-        }
-
-        return validStrPattern && validDigitPattern;
+        return validStrPattern && validDigitPattern ? null : PackerErrorEnum.INVALID_FORMAT;
     }
 
     /**
@@ -69,25 +91,84 @@ public class PackerValidator implements ValidatorService {
      * 2. There might be up to 15 items you need to choose from
      * 3. Max weight and cost of an item is ≤ 100
      *
+     * The bounds above are the defaults, see {@link PackerLimits}
+     *
      */
     @Override
     public boolean hasValidRange(Map<Double, List<PackageMetaData>> allPackage) throws APIException {
+        throwIfRejected(checkRange(allPackage));
+        return true;
+    }
+
+    /**
+     * @param allPackage
+     * @return null if the package list falls with in the range, the first bound exceeded otherwise
+     *
+     * The bounds are compared in fixed point, as {@link #checkRange(PackageProblem)} does
+     *
+     * @see #hasValidRange(Map)
+     */
+    @Override
+    public PackerErrorEnum checkRange(Map<Double, List<PackageMetaData>> allPackage) {
         Double maxWeight = allPackage.keySet().stream().iterator().next();
         List<PackageMetaData> pkgList = allPackage.values().iterator().next();
 
-        if(MAX_WEIGHT < maxWeight){
-            throw new APIException("Max weight that a package can take is 100");
-        } else if(pkgList.size() > 15){
-            throw new APIException("Max items that a package can take is 15");
-        } else {
-            boolean hasMaxWeightExceeded = pkgList.stream().anyMatch(pkg -> {
-                return pkg.getCost() > 100;
-            });
-            if(hasMaxWeightExceeded){
-                throw new APIException("Max Cost that a package can take is 100");
-            }
+        if(PackageProblem.toFixedPoint(limits.getMaxWeight()) < PackageProblem.toFixedPoint(maxWeight)){
+            return PackerErrorEnum.MAX_WEIGHT_EXCEEDED;
+        } else if(pkgList.size() > limits.getMaxItems()){
+            return PackerErrorEnum.MAX_ITEMS_EXCEEDED;
         }
+        long maxCost = PackageProblem.toFixedPoint(limits.getMaxCost());
+        boolean hasMaxCostExceeded = pkgList.stream().anyMatch(pkg -> {
+            return PackageProblem.toFixedPoint(pkg.getCost()) > maxCost;
+        });
+        return hasMaxCostExceeded ? PackerErrorEnum.MAX_COST_EXCEEDED : null;
+    }
 
+    /**
+     * @param problem the line with weights, costs and capacity in fixed point
+     * @return true if the line falls with in the range
+     * @throws APIException if it meets a boundary condition
+     *
+     * Same checks as {@link #hasValidRange(Map)}, on the primitive form
+     */
+    @Override
+    public boolean hasValidRange(PackageProblem problem) throws APIException {
+        throwIfRejected(checkRange(problem));
         return true;
     }
+
+    /**
+     * @param problem the line with weights, costs and capacity in fixed point
+     * @return null if the line falls with in the range, the first bound exceeded otherwise
+     */
+    @Override
+    public PackerErrorEnum checkRange(PackageProblem problem) {
+        long maxWeight = PackageProblem.toFixedPoint(limits.getMaxWeight());
+        for(int i = 0; i < problem.getBags(); i++){
+            if(maxWeight < problem.getCapacity(i)){
+                return PackerErrorEnum.MAX_WEIGHT_EXCEEDED;
+            }
+        }
+        if(problem.size() > limits.getMaxItems()){
+            return PackerErrorEnum.MAX_ITEMS_EXCEEDED;
+        }
+        long maxCost = PackageProblem.toFixedPoint(limits.getMaxCost());
+        for(int i = 0; i < problem.size(); i++){
+            if(problem.getCost(i) > maxCost){
+                return PackerErrorEnum.MAX_COST_EXCEEDED;
+            }
+        }
+        return null;
+    }
+
+    public PackerLimits getLimits() {
+        return limits;
+    }
+
+    private void throwIfRejected(PackerErrorEnum error) throws APIException {
+        if (error != null) {
+            throw new APIException(error, error.getMessage(limits));
+        }
+    }
 }
@@ -0,0 +1,295 @@
+package com.mobiquity.workload;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import com.mobiquity.constant.DistributionEnum;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
+
+/**
+ * Seeded generator of input files, built through {@link #builder()}, so
+ * that throughput runs and tests read the same lines every time.
+ * <br/>
+ * Every line draws its number of items, its capacity and the weight and
+ * cost of each item from their own range and {@link DistributionEnum}.
+ * Weights and capacities are written in units of {@link PackageProblem#SCALE}.
+ * A share of the lines is malformed in one of a few ways the packer
+ * rejects, another share repeats one of the last {@link #HISTORY} valid
+ * lines, as a file of real orders would, to exercise the result cache.
+ */
+public class WorkloadGenerator {
+
+	public static final int HISTORY = 256;
+	private static final int MALFORMED_KINDS = 4;
+
+	private final long seed;
+	private final long lines;
+	private final int minItems;
+	private final int maxItems;
+	private final DistributionEnum capacityDistribution;
+	private final long minCapacity;
+	private final long maxCapacity;
+	private final DistributionEnum weightDistribution;
+	private final long minWeight;
+	private final long maxWeight;
+	private final DistributionEnum costDistribution;
+	private final long minCost;
+	private final long maxCost;
+	private final double malformedRatio;
+	private final double duplicateRatio;
+
+	private WorkloadGenerator(Builder builder) {
+		this.seed = builder.seed;
+		this.lines = builder.lines;
+		this.minItems = builder.minItems;
+		this.maxItems = builder.maxItems;
+		this.capacityDistribution = builder.capacityDistribution;
+		this.minCapacity = PackageProblem.toFixedPoint(builder.minCapacity);
+		this.maxCapacity = PackageProblem.toFixedPoint(builder.maxCapacity);
+		this.weightDistribution = builder.weightDistribution;
+		this.minWeight = PackageProblem.toFixedPoint(builder.minWeight);
+		this.maxWeight = PackageProblem.toFixedPoint(builder.maxWeight);
+		this.costDistribution = builder.costDistribution;
+		this.minCost = builder.minCost;
+		this.maxCost = builder.maxCost;
+		this.malformedRatio = builder.malformedRatio;
+		this.duplicateRatio = builder.duplicateRatio;
+	}
+
+	/**
+	 * @return a builder of lines in the default limits of the packer
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+
+	/**
+	 * @param file created or replaced
+	 * @return what was written
+	 * @throws IOException if the file can not be written
+	 */
+	public WorkloadSummary write(Path file) throws IOException {
+		try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			return write(writer);
+		}
+	}
+
+	/**
+	 * @param output receives the lines, each ended by a line break, and is not closed
+	 * @return what was written, the same for the same settings
+	 * @throws IOException if the output can not be written
+	 */
+	public WorkloadSummary write(Writer output) throws IOException {
+		Random random = new Random(seed);
+		String[] history = new String[HISTORY];
+		long kept = 0;
+		long malformed = 0;
+		long duplicates = 0;
+		StringBuilder line = new StringBuilder(maxItems * 16 + 16);
+		for (long i = 0; i < lines; i++) {
+			double kind = random.nextDouble();
+			line.setLength(0);
+			if (kind < duplicateRatio && kept > 0) {
+				line.append(history[random.nextInt((int) Math.min(kept, HISTORY))]);
+				duplicates++;
+			} else if (kind >= duplicateRatio && kind < duplicateRatio + malformedRatio) {
+				appendLine(random, line);
+				corrupt(random, line);
+				malformed++;
+			} else {
+				appendLine(random, line);
+				history[(int) (kept++ % HISTORY)] = line.toString();
+			}
+			output.append(line).append('\n');
+		}
+		return new WorkloadSummary(lines, malformed, duplicates);
+	}
+
+	/**
+	 * @return limits which accept every valid line written
+	 */
+	public PackerLimits limits() {
+		return new PackerLimits(PackageProblem.toDouble(maxCapacity), maxItems, (double) maxCost);
+	}
+
+	private void appendLine(Random random, StringBuilder line) {
+		int items = minItems + random.nextInt(maxItems - minItems + 1);
+		line.append(PackageProblem.format(sample(random, capacityDistribution, minCapacity, maxCapacity)))
+				.append(" :");
+		for (int i = 1; i <= items; i++) {
+			line.append(" (").append(i).append(',')
+					.append(PackageProblem.format(sample(random, weightDistribution, minWeight, maxWeight)))
+					.append(",€").append(sample(random, costDistribution, minCost, maxCost)).append(')');
+		}
+	}
+
+	/**
+	 * Breaks a valid line: drops its colon, puts a letter in its capacity or
+	 * in its first weight, or leaves its last item unclosed
+	 */
+	private static void corrupt(Random random, StringBuilder line) {
+		switch (random.nextInt(MALFORMED_KINDS)) {
+			case 0:
+				line.deleteCharAt(line.indexOf(":"));
+				break;
+			case 1:
+				line.insert(0, 'w');
+				break;
+			case 2:
+				line.insert(line.indexOf(",") + 1, 'x');
+				break;
+			default:
+				line.setLength(line.length() - 1);
+				break;
+		}
+	}
+
+	/**
+	 * @return a value from min to max, both included, spread by the distribution
+	 */
+	private static long sample(Random random, DistributionEnum distribution, long min, long max) {
+		double fraction;
+		do {
+			switch (distribution) {
+				case NORMAL:
+					fraction = 0.5 + random.nextGaussian() / 6;
+					break;
+				case EXPONENTIAL:
+					fraction = -Math.log(1 - random.nextDouble()) / 4;
+					break;
+				default:
+					fraction = random.nextDouble();
+					break;
+			}
+		} while (fraction < 0 || fraction >= 1);
+		return Math.min(max, min + (long) (fraction * (max - min + 1)));
+	}
+
+	@Override
+	public String toString() {
+		return "WorkloadGenerator{" +
+				"seed=" + seed +
+				", lines=" + lines +
+				", items=" + minItems + ".." + maxItems +
+				", capacity=" + capacityDistribution.getCode() + " " + PackageProblem.format(minCapacity)
+				+ ".." + PackageProblem.format(maxCapacity) +
+				", weight=" + weightDistribution.getCode() + " " + PackageProblem.format(minWeight)
+				+ ".." + PackageProblem.format(maxWeight) +
+				", cost=" + costDistribution.getCode() + " " + minCost + ".." + maxCost +
+				", malformedRatio=" + malformedRatio +
+				", duplicateRatio=" + duplicateRatio +
+				'}';
+	}
+
+	public static class Builder {
+
+		private long seed = 20_181_018L;
+		private long lines = 1000;
+		private int minItems = 1;
+		private int maxItems = PackerLimits.DEFAULT_MAX_ITEMS;
+		private DistributionEnum capacityDistribution = DistributionEnum.UNIFORM;
+		private double minCapacity = 1d;
+		private double maxCapacity = PackerLimits.DEFAULT_MAX_WEIGHT;
+		private DistributionEnum weightDistribution = DistributionEnum.UNIFORM;
+		private double minWeight = 1d;
+		private double maxWeight = PackerLimits.DEFAULT_MAX_WEIGHT;
+		private DistributionEnum costDistribution = DistributionEnum.UNIFORM;
+		private long minCost = 1;
+		private long maxCost = (long) PackerLimits.DEFAULT_MAX_COST;
+		private double malformedRatio;
+		private double duplicateRatio;
+
+		private Builder() {
+		}
+
+		/**
+		 * @param seed the seed of the lines, the same seed writes the same file
+		 */
+		public Builder seed(long seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public Builder lines(long lines) {
+			this.lines = lines;
+			return this;
+		}
+
+		/**
+		 * @param min the fewest items of a line, at least 1
+		 * @param max the most items of a line, drawn uniformly in between
+		 */
+		public Builder items(int min, int max) {
+			this.minItems = min;
+			this.maxItems = max;
+			return this;
+		}
+
+		public Builder capacity(DistributionEnum distribution, double min, double max) {
+			this.capacityDistribution = distribution;
+			this.minCapacity = min;
+			this.maxCapacity = max;
+			return this;
+		}
+
+		public Builder weight(DistributionEnum distribution, double min, double max) {
+			this.weightDistribution = distribution;
+			this.minWeight = min;
+			this.maxWeight = max;
+			return this;
+		}
+
+		/**
+		 * @param min the lowest cost of an item, costs are whole numbers
+		 * @param max the highest cost of an item
+		 */
+		public Builder cost(DistributionEnum distribution, long min, long max) {
+			this.costDistribution = distribution;
+			this.minCost = min;
+			this.maxCost = max;
+			return this;
+		}
+
+		/**
+		 * @param malformedRatio the share of lines the packer rejects
+		 */
+		public Builder malformedRatio(double malformedRatio) {
+			this.malformedRatio = malformedRatio;
+			return this;
+		}
+
+		/**
+		 * @param duplicateRatio the share of lines repeating an earlier valid line
+		 */
+		public Builder duplicateRatio(double duplicateRatio) {
+			this.duplicateRatio = duplicateRatio;
+			return this;
+		}
+
+		public WorkloadGenerator build() {
+			if (lines < 0) {
+				throw new IllegalArgumentException("lines must not be negative");
+			}
+			if (minItems < 1 || maxItems < minItems) {
+				throw new IllegalArgumentException("items must range from at least 1, got " + minItems + ".." + maxItems);
+			}
+			if (capacityDistribution == null || weightDistribution == null || costDistribution == null) {
+				throw new IllegalArgumentException("capacity, weight and cost need a distribution");
+			}
+			if (minCapacity < 0 || maxCapacity < minCapacity || minWeight < 0 || maxWeight < minWeight
+					|| minCost < 0 || maxCost < minCost) {
+				throw new IllegalArgumentException("capacity, weight and cost ranges must be positive and ordered");
+			}
+			if (malformedRatio < 0 || duplicateRatio < 0 || malformedRatio + duplicateRatio > 1) {
+				throw new IllegalArgumentException("malformedRatio and duplicateRatio must be positive and add up to 1 at most");
+			}
+			return new WorkloadGenerator(this);
+		}
+	}
+}
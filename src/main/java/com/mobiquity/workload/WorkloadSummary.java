@@ -0,0 +1,51 @@
+package com.mobiquity.workload;
+
+/**
+ * What a {@link WorkloadGenerator} wrote: the lines, how many of them are
+ * malformed and how many repeat an earlier valid line
+ */
+public class WorkloadSummary {
+
+	private final long lines;
+	private final long malformed;
+	private final long duplicates;
+
+	/**
+	 * @param lines the number of lines written
+	 * @param malformed the number of lines the packer rejects
+	 * @param duplicates the number of valid lines which repeat an earlier one
+	 */
+	public WorkloadSummary(long lines, long malformed, long duplicates) {
+		this.lines = lines;
+		this.malformed = malformed;
+		this.duplicates = duplicates;
+	}
+
+	public long getLines() {
+		return lines;
+	}
+
+	public long getMalformed() {
+		return malformed;
+	}
+
+	public long getDuplicates() {
+		return duplicates;
+	}
+
+	/**
+	 * @return the number of lines answered by the packer
+	 */
+	public long getValid() {
+		return lines - malformed;
+	}
+
+	@Override
+	public String toString() {
+		return "WorkloadSummary{" +
+				"lines=" + lines +
+				", malformed=" + malformed +
+				", duplicates=" + duplicates +
+				'}';
+	}
+}
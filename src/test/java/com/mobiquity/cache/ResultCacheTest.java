@@ -0,0 +1,133 @@
+package com.mobiquity.cache;
+
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.model.PackerLimits;
+import com.mobiquity.packer.Packer;
+import com.mobiquity.packer.PackerHandler;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ResultCacheTest {
+
+    @Test
+    public void itemOrderDoesNotChangeTheKeyTest() {
+        PackageProblem sorted = problem(8100, 1, 5338, 4500, 2, 8862, 9800, 3, 7848, 300);
+        PackageProblem shuffled = problem(8100, 3, 7848, 300, 1, 5338, 4500, 2, 8862, 9800);
+        PackageProblem otherCapacity = problem(8000, 1, 5338, 4500, 2, 8862, 9800, 3, 7848, 300);
+
+        assertEquals(ProblemKey.of(sorted), ProblemKey.of(shuffled));
+        assertEquals(ProblemKey.of(sorted).hashCode(), ProblemKey.of(shuffled).hashCode());
+        assertTrue(!ProblemKey.of(sorted).equals(ProblemKey.of(otherCapacity)));
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedTest() {
+        ResultCache cache = new ResultCache(2);
+        ProblemKey first = ProblemKey.of(problem(100, 1, 10, 10));
+        ProblemKey second = ProblemKey.of(problem(100, 2, 10, 10));
+        ProblemKey third = ProblemKey.of(problem(100, 3, 10, 10));
+        cache.put(first, result("1"));
+        cache.put(second, result("2"));
+        cache.get(first);
+        cache.put(third, result("3"));
+
+        assertEquals(2, cache.size());
+        assertEquals("1", cache.get(first).getIndices());
+        assertNull(cache.get(second));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void handlerAnswersRepeatedLinesFromCacheTest() throws Exception {
+        ResultCache cache = new ResultCache(16);
+        PackerHandler packerHandler = new PackerHandler(PackerLimits.defaults(), 0d, cache);
+        String line = "75 : (1,85.31,€29) (2,14.55,€74) (3,3.98,€16) (4,26.24,€55) (5,63.69,€52) (6,76.25,€75) (7,60.02,€74) (8,93.18,€35) (9,89.95,€78)";
+        String reordered = "75 : (9,89.95,€78) (2,14.55,€74) (3,3.98,€16) (4,26.24,€55) (5,63.69,€52) (6,76.25,€75) (7,60.02,€74) (8,93.18,€35) (1,85.31,€29)";
+
+        PackResult first = packerHandler.evaluatePack(line);
+        assertEquals("2,7", first.getIndices());
+        assertSame(first, packerHandler.evaluatePack(reordered));
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void saveAndLoadTest(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("packer.cache");
+        ResultCache cache = new ResultCache(4);
+        ProblemKey key = ProblemKey.of(problem(8100, 1, 5338, 4500, 2, 8862, 9800));
+        cache.put(key, new PackResult("1", SolverEngineEnum.FPTAS, 0.05));
+        cache.save(file);
+
+        ResultCache loaded = new ResultCache(4);
+        assertEquals(1, loaded.load(file));
+        PackResult result = loaded.get(key);
+        assertEquals("1", result.getIndices());
+        assertEquals(SolverEngineEnum.FPTAS, result.getEngine());
+        assertEquals(0.05, result.getOptimalityGap());
+    }
+
+    @Test
+    public void packRunsReuseTheCacheFileTest(@TempDir Path dir) throws Exception {
+        Path cacheFile = dir.resolve("packer.cache");
+        PackerConfig config = PackerConfig.builder().cacheSize(100).cacheFile(cacheFile).build();
+        Path input = Path.of("./src/test/resources/input.txt");
+        String expected = "4\n" + "-\n" + "2,7\n" + "8,9\n";
+
+        StringWriter first = new StringWriter();
+        Packer.pack(input, first, config);
+        assertTrue(Files.exists(cacheFile));
+        StringWriter second = new StringWriter();
+        Packer.pack(input, second, config);
+
+        assertEquals(expected, first.toString());
+        assertEquals(expected, second.toString());
+        ResultCache saved = new ResultCache(100);
+        assertEquals(4, saved.load(cacheFile));
+    }
+
+    @Test
+    public void otherSettingsIgnoreTheCacheFileTest(@TempDir Path dir) throws Exception {
+        Path cacheFile = dir.resolve("packer.cache");
+        Path input = Path.of("./src/test/resources/input.txt");
+        Packer.pack(input, new StringWriter(), PackerConfig.builder().cacheSize(100).cacheFile(cacheFile)
+                .epsilon(0.5).engine(SolverEngineEnum.GREEDY).build());
+
+        PackerConfig exact = PackerConfig.builder().cacheSize(100).cacheFile(cacheFile).build();
+        assertThrows(IOException.class, () -> new ResultCache(100, ResultCache.settingsOf(exact)).load(cacheFile));
+        assertEquals(0, ResultCache.open(exact).size());
+        StringWriter output = new StringWriter();
+        Packer.pack(input, output, exact);
+        assertEquals("4\n" + "-\n" + "2,7\n" + "8,9\n", output.toString());
+        assertEquals("epsilon=0;engine=auto;mode=best;limits=100/15/100", ResultCache.settingsOf(exact));
+        assertEquals(ResultCache.settingsOf(exact), new ResultCache(1).getSettings());
+    }
+
+    private static PackageProblem problem(long capacity, long... items) {
+        PackageProblem problem = new PackageProblem();
+        problem.setCapacity(capacity);
+        for (int i = 0; i < items.length; i += 3) {
+            problem.add((int) items[i], items[i + 1], items[i + 2]);
+        }
+        return problem;
+    }
+
+    private static PackResult result(String indices) {
+        return new PackResult(indices, SolverEngineEnum.DYNAMIC_PROGRAMMING, 0d);
+    }
+}
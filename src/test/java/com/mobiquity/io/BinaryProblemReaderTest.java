@@ -0,0 +1,84 @@
+package com.mobiquity.io;
+
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.packer.Packer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BinaryProblemReaderTest {
+
+    @Test
+    public void roundTripTest(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("problems.bin");
+        PackageProblem problem = new PackageProblem();
+        try (BinaryProblemWriter writer = BinaryProblemWriter.create(file)) {
+            for (int i = 0; i < 5000; i++) {
+                problem.clear();
+                problem.setCapacity(100 * i);
+                for (int item = 1; item <= i % 20; item++) {
+                    problem.add(item, item * 101L, i + item * 7L);
+                }
+                writer.write(problem);
+            }
+        }
+
+        try (BinaryProblemReader reader = BinaryProblemReader.open(file)) {
+            assertEquals(5000, reader.getRecords());
+            for (int i = 0; i < 5000; i++) {
+                assertTrue(reader.next(problem));
+                assertEquals(100 * i, problem.getCapacity());
+                assertEquals(i % 20, problem.size());
+                for (int item = 0; item < problem.size(); item++) {
+                    assertEquals(item + 1, problem.getIndex(item));
+                    assertEquals((item + 1) * 101L, problem.getWeight(item));
+                    assertEquals(i + (item + 1) * 7L, problem.getCost(item));
+                }
+            }
+            assertFalse(reader.next(problem));
+        }
+    }
+
+    @Test
+    public void convertedFilePacksLikeTheTextTest(@TempDir Path dir) throws APIException, IOException {
+        Path input = Path.of("./src/test/resources/input.txt");
+        Path binary = dir.resolve("input.bin");
+        PackerConfig config = PackerConfig.builder().workers(2).build();
+
+        assertEquals(4, Packer.convert(input, binary, config));
+        assertTrue(BinaryProblemReader.isBinary(binary));
+        assertFalse(BinaryProblemReader.isBinary(input));
+        assertEquals(Packer.pack(input.toString(), config), Packer.pack(binary.toString(), config));
+    }
+
+    @Test
+    public void rejectsOtherFilesTest(@TempDir Path dir) throws IOException {
+        Path text = dir.resolve("input.txt");
+        Files.write(text, List.of("81 : (1,53.38,€45)"));
+        assertThrows(IOException.class, () -> BinaryProblemReader.open(text));
+
+        Path truncated = dir.resolve("truncated.bin");
+        PackageProblem problem = new PackageProblem();
+        problem.add(1, 100, 100);
+        try (BinaryProblemWriter writer = BinaryProblemWriter.create(truncated)) {
+            writer.write(problem);
+        }
+        byte[] bytes = Files.readAllBytes(truncated);
+        Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+        try (BinaryProblemReader reader = BinaryProblemReader.open(truncated)) {
+            assertThrows(IOException.class, () -> reader.next(problem));
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.mobiquity.io;
+
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.packer.Packer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CheckpointTest {
+
+    private static final String[] LINES = {
+            "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)",
+            "8 : (1,15.3,€34)",
+            "not a package line",
+            "75 : (1,85.31,€29) (2,14.55,€74) (3,3.98,€16) (4,26.24,€55) (5,63.69,€52) (6,76.25,€75) "
+                    + "(7,60.02,€74) (8,93.18,€35) (9,89.95,€78)",
+            "56 : (1,90.72,€13) (2,33.80,€40) (3,43.15,€10) (4,37.97,€16) (5,46.81,€36) (6,48.77,€79) "
+                    + "(7,81.80,€45) (8,19.36,€79) (9,6.76,€64)"
+    };
+    private static final String[] ANSWERS = {"4", "-", null, "2,7", "8,9"};
+
+    @Test
+    public void saveAndReadTest(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("output.txt" + Checkpoint.SUFFIX);
+        new Checkpoint(1234L, 56L, 789L, 10L, 5000L, 1_500_000_000_000L).save(file);
+
+        Checkpoint checkpoint = Checkpoint.read(file);
+        assertEquals(1234L, checkpoint.getInputOffset());
+        assertEquals(56L, checkpoint.getLineNumber());
+        assertEquals(789L, checkpoint.getOutputBytes());
+        assertEquals(10L, checkpoint.getRejectedBytes());
+        assertEquals(5000L, checkpoint.getInputSize());
+        assertEquals(1_500_000_000_000L, checkpoint.getInputModified());
+        assertEquals(file, Checkpoint.fileFor(dir.resolve("output.txt")));
+
+        Files.writeString(file, "not a checkpoint");
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+
+    @Test
+    public void completedRunTest(@TempDir Path dir) throws IOException, APIException {
+        Path input = writeInput(dir, 400);
+        Path output = dir.resolve("output.txt");
+        PackerConfig config = PackerConfig.builder().workers(3).queueCapacity(4).checkpointLines(7).build();
+        Packer.pack(input, output, config);
+
+        String expected = expectedAnswers(0, 400);
+        assertEquals(expected, Files.readString(output));
+        Checkpoint checkpoint = Checkpoint.read(Checkpoint.fileFor(output));
+        assertEquals(Files.size(input), checkpoint.getInputOffset());
+        assertEquals(400L, checkpoint.getLineNumber());
+        assertEquals(Files.size(output), checkpoint.getOutputBytes());
+
+        Packer.pack(input, output, PackerConfig.builder().resume(true).build());
+        assertEquals(expected, Files.readString(output));
+
+        Files.writeString(input, LINES[0] + "\n", StandardOpenOption.APPEND);
+        assertThrows(APIException.class, () -> Packer.pack(input, output, PackerConfig.builder().resume(true).build()));
+        assertEquals(expected, Files.readString(output));
+    }
+
+    @Test
+    public void resumeTextTest(@TempDir Path dir) throws IOException, APIException {
+        Path input = writeInput(dir, 400);
+        Path output = dir.resolve("output.txt");
+        Path rejected = dir.resolve("rejected.tsv");
+        int done = 203;
+
+        // the output of a run which died after its checkpoint at line 203, with
+        // answers written after the checkpoint which the resumed run must drop
+        String before = fakeAnswers(done);
+        Files.writeString(output, before + "4\n-\n2,");
+        Files.writeString(rejected, RejectionReport.HEADER + "\nrow kept\n" + "row after the checkpoint\n");
+        long rejectedBytes = (RejectionReport.HEADER + "\nrow kept\n").length();
+        new Checkpoint(offsetOfLine(input, done), done, before.length(), rejectedBytes,
+                Files.size(input), Files.getLastModifiedTime(input).toMillis()).save(Checkpoint.fileFor(output));
+
+        PackerConfig config = PackerConfig.builder().workers(2).queueCapacity(4)
+                .checkpointLines(50).resume(true).rejectionReport(rejected).build();
+        Packer.pack(input, output, config);
+
+        assertEquals(before + expectedAnswers(done, 400), Files.readString(output));
+        List<String> rows = Files.readAllLines(rejected);
+        assertEquals("row kept", rows.get(1));
+        assertEquals((400 - done) / LINES.length, rows.size() - 2);
+        assertEquals("208\t" + offsetOfLine(input, 207) + "\tMISSING_WEIGHT",
+                rows.get(2).substring(0, rows.get(2).lastIndexOf('\t')));
+        assertEquals(400L, Checkpoint.read(Checkpoint.fileFor(output)).getLineNumber());
+    }
+
+    @Test
+    public void resumeBinaryTest(@TempDir Path dir) throws IOException, APIException {
+        Path text = writeInput(dir, 100);
+        Path input = dir.resolve("input.bin");
+        Packer.convert(text, input, PackerConfig.builder().build());
+        Path output = dir.resolve("output.txt");
+        int done = 37;
+
+        long offset;
+        try (BinaryProblemReader reader = BinaryProblemReader.open(input)) {
+            PackageProblem problem = new PackageProblem();
+            for (int i = 0; i < done; i++) {
+                reader.next(problem);
+            }
+            offset = reader.nextOffset();
+        }
+        String before = fakeAnswers(done);
+        Files.writeString(output, before + "8,9\n");
+        new Checkpoint(offset, done, before.length(), 0,
+                Files.size(input), Files.getLastModifiedTime(input).toMillis()).save(Checkpoint.fileFor(output));
+
+        Packer.pack(input, output, PackerConfig.builder().resume(true).build());
+        StringBuilder expected = new StringBuilder(before);
+        int record = 0;
+        for (int line = 0; line < 100; line++) {
+            if (ANSWERS[line % LINES.length] != null && record++ >= done) {
+                expected.append(ANSWERS[line % LINES.length]).append('\n');
+            }
+        }
+        assertEquals(expected.toString(), Files.readString(output));
+    }
+
+    private static Path writeInput(Path dir, int lines) throws IOException {
+        List<String> content = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            content.add(LINES[i % LINES.length]);
+        }
+        Path input = dir.resolve("input.txt");
+        Files.write(input, content, StandardCharsets.UTF_8);
+        return input;
+    }
+
+    private static String expectedAnswers(int from, int to) {
+        StringBuilder answers = new StringBuilder();
+        for (int i = from; i < to; i++) {
+            if (ANSWERS[i % LINES.length] != null) {
+                answers.append(ANSWERS[i % LINES.length]).append('\n');
+            }
+        }
+        return answers.toString();
+    }
+
+    /**
+     * @return answers which no packing gives, so re-read lines would show
+     */
+    private static String fakeAnswers(int lines) {
+        StringBuilder answers = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            answers.append("line ").append(i + 1).append('\n');
+        }
+        return answers.toString();
+    }
+
+    private static long offsetOfLine(Path input, int line) throws IOException {
+        long offset = 0;
+        List<String> lines = Files.readAllLines(input, StandardCharsets.UTF_8);
+        for (int i = 0; i < line; i++) {
+            offset += lines.get(i).getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+        return offset;
+    }
+}
@@ -0,0 +1,58 @@
+package com.mobiquity.io;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MappedInputTest {
+
+    @Test
+    public void chunksCoverEveryLineOnceTest(@TempDir Path dir) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            lines.add(i + " : (1,53.38,€45)" + " (2,1,€1)".repeat(i % 7));
+        }
+        Path input = dir.resolve("input.txt");
+        Files.write(input, lines);
+
+        try (MappedInput mappedInput = MappedInput.open(input)) {
+            for (int parts : new int[]{1, 3, 8, 5000}) {
+                List<String> actual = new ArrayList<>();
+                for (MappedInput.Chunk chunk : mappedInput.split(parts)) {
+                    MappedInput.LineCursor cursor = mappedInput.lines(chunk);
+                    while (cursor.next()) {
+                        byte[] bytes = new byte[cursor.end() - cursor.start()];
+                        for (int i = 0; i < bytes.length; i++) {
+                            bytes[i] = cursor.buffer().get(cursor.start() + i);
+                        }
+                        actual.add(new String(bytes, StandardCharsets.UTF_8));
+                    }
+                }
+                assertEquals(lines, actual, parts + " parts");
+            }
+        }
+    }
+
+    @Test
+    public void lastLineWithoutBreakTest(@TempDir Path dir) throws IOException {
+        Path input = dir.resolve("input.txt");
+        Files.writeString(input, "a\n\nbc");
+        try (MappedInput mappedInput = MappedInput.open(input)) {
+            MappedInput.LineCursor cursor = mappedInput.lines(mappedInput.all());
+            List<Long> offsets = new ArrayList<>();
+            while (cursor.next()) {
+                offsets.add(cursor.offset());
+            }
+            assertEquals(List.of(0L, 2L, 3L), offsets);
+            assertEquals(5L, cursor.nextOffset());
+        }
+    }
+}
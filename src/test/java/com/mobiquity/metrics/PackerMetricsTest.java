@@ -0,0 +1,67 @@
+package com.mobiquity.metrics;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.constant.PackerStageEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.packer.PackerHandler;
+import org.junit.jupiter.api.Test;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackerMetricsTest {
+
+    @Test
+    public void histogramTest() {
+        Histogram histogram = new Histogram();
+        for (int i = 0; i <= 100; i++) {
+            histogram.record(i);
+        }
+        Histogram.Snapshot snapshot = histogram.snapshot();
+        assertEquals(101, snapshot.getCount());
+        assertEquals(50d, snapshot.getMean());
+        assertEquals(100, snapshot.getMax());
+        assertEquals(63, snapshot.getP50());
+        assertEquals(100, snapshot.getP99());
+    }
+
+    @Test
+    public void handlerRecordsLinesTest() throws APIException {
+        PackerMetrics metrics = PackerMetrics.getInstance();
+        MetricsSnapshot before = metrics.snapshot();
+        PackerHandler packerHandler = new PackerHandler();
+
+        packerHandler.processPack("81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3)");
+        assertThrows(APIException.class, () -> packerHandler.processPack("101 : (1,53.38,€45)"));
+        packerHandler.processPacks(List.of("8 : (1,15.3,€34)", "81 : (1,53.38,€101)"));
+
+        MetricsSnapshot after = metrics.snapshot();
+        assertEquals(2, after.getLinesProcessed() - before.getLinesProcessed());
+        assertEquals(2, after.getLinesRejected() - before.getLinesRejected());
+        assertEquals(1, after.getRejections(PackerErrorEnum.MAX_WEIGHT_EXCEEDED)
+                - before.getRejections(PackerErrorEnum.MAX_WEIGHT_EXCEEDED));
+        assertEquals(1, after.getRejections(PackerErrorEnum.MAX_COST_EXCEEDED)
+                - before.getRejections(PackerErrorEnum.MAX_COST_EXCEEDED));
+        assertEquals(2, after.getEngine(SolverEngineEnum.DYNAMIC_PROGRAMMING)
+                - before.getEngine(SolverEngineEnum.DYNAMIC_PROGRAMMING));
+        assertEquals(2, after.getStage(PackerStageEnum.SOLVE).getCount()
+                - before.getStage(PackerStageEnum.SOLVE).getCount());
+        assertEquals(4, after.getStage(PackerStageEnum.PARSE).getCount()
+                - before.getStage(PackerStageEnum.PARSE).getCount());
+        assertTrue(after.getItemsPerLine().getMax() >= 3);
+    }
+
+    @Test
+    public void exposedThroughJmxTest() throws Exception {
+        PackerMetrics.getInstance().recordSolved(SolverEngineEnum.GREEDY, 1, false);
+        Object processed = ManagementFactory.getPlatformMBeanServer()
+                .getAttribute(new ObjectName(PackerMetrics.OBJECT_NAME), "LinesProcessed");
+        assertTrue((Long) processed > 0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.mobiquity.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PackageProblemTest {
+
+    @Test
+    public void toFixedPointTest() {
+        assertEquals(5338, PackageProblem.toFixedPoint(53.38d));
+        assertEquals(29, PackageProblem.toFixedPoint(0.29d));
+        assertEquals(101, PackageProblem.toFixedPoint(1.005d));
+        assertEquals(101, PackageProblem.toFixedPoint("1.005"));
+        assertEquals(7500, PackageProblem.toFixedPoint("75"));
+        assertEquals(7500, PackageProblem.toFixedPoint("74.999"));
+        assertThrows(NumberFormatException.class, () -> PackageProblem.toFixedPoint("7,5"));
+    }
+
+    @Test
+    public void formatTest() {
+        assertEquals("72.3", PackageProblem.format(7230));
+        assertEquals("81.0", PackageProblem.format(8100));
+        assertEquals("0.05", PackageProblem.format(5));
+        assertEquals("100000000.01", PackageProblem.format(10_000_000_001L));
+        assertEquals(5338, PackageProblem.toFixedPoint(PackageProblem.format(5338)));
+    }
+
+    @Test
+    public void scaleTest() {
+        assertEquals(100, PackageProblem.SCALE);
+        assertEquals(2, PackageProblem.SCALE_DIGITS);
+        assertEquals(1, PackageProblem.scaleOf("1"));
+        assertEquals(1000, PackageProblem.scaleOf("1000"));
+        assertEquals(PackageProblem.MAX_SCALE, PackageProblem.scaleOf(String.valueOf(PackageProblem.MAX_SCALE)));
+        assertThrows(IllegalArgumentException.class, () -> PackageProblem.scaleOf("50"));
+        assertThrows(IllegalArgumentException.class, () -> PackageProblem.scaleOf("0"));
+        assertThrows(IllegalArgumentException.class, () -> PackageProblem.scaleOf("10000000"));
+        assertThrows(IllegalArgumentException.class, () -> PackageProblem.scaleOf("ten"));
+    }
+}
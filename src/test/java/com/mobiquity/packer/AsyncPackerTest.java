@@ -0,0 +1,81 @@
+package com.mobiquity.packer;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AsyncPackerTest {
+
+    private static final String LINE = "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)";
+
+    @Test
+    public void processPackAsyncTest() throws Exception {
+        try (AsyncPacker asyncPacker = new AsyncPacker(PackerConfig.builder().workers(2).build())) {
+            List<CompletableFuture<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                futures.add(asyncPacker.processPackAsync(LINE));
+            }
+            for (CompletableFuture<String> future : futures) {
+                assertEquals("4", future.get());
+            }
+            assertTrue(asyncPacker.getPooledHandlers() <= 2);
+            ExecutionException exception = assertThrows(ExecutionException.class,
+                    () -> asyncPacker.processPackAsync("101 : (1,53.38,€45)").get());
+            assertInstanceOf(APIException.class, exception.getCause());
+        }
+    }
+
+    @Test
+    public void malformedLineFailsWithAPIExceptionTest() {
+        try (AsyncPacker asyncPacker = new AsyncPacker(PackerConfig.fromSystemProperties(), Runnable::run)) {
+            String[] lines = {"81 (1,53.38,€45)", "", "8 : (1,15.3,€34) garbage"};
+            PackerErrorEnum[] errors = {PackerErrorEnum.MISSING_WEIGHT, PackerErrorEnum.MISSING_WEIGHT,
+                    PackerErrorEnum.INVALID_FORMAT};
+            for (int i = 0; i < lines.length; i++) {
+                String line = lines[i];
+                ExecutionException exception = assertThrows(ExecutionException.class,
+                        () -> asyncPacker.processPackAsync(line).get());
+                APIException cause = assertInstanceOf(APIException.class, exception.getCause());
+                assertEquals(errors[i], cause.getError());
+            }
+        }
+    }
+
+    @Test
+    public void processPacksAsyncTest() throws Exception {
+        try (AsyncPacker asyncPacker = new AsyncPacker(PackerConfig.fromSystemProperties(), Runnable::run)) {
+            List<String> actual = asyncPacker.processPacksAsync(List.of(LINE, "8 : (1,15.3,€34)", "81 (1,1,€1)")).get();
+            assertEquals(Arrays.asList("4", "-", null), actual);
+        }
+    }
+
+    @Test
+    public void cancelledAndTimedOutCallsAreSkippedTest() {
+        List<Runnable> pending = new ArrayList<>();
+        try (AsyncPacker asyncPacker = new AsyncPacker(PackerConfig.fromSystemProperties(), pending::add)) {
+            CompletableFuture<List<String>> cancelled = asyncPacker.processPacksAsync(List.of(LINE));
+            CompletableFuture<String> timedOut = asyncPacker.processPackAsync(LINE, Duration.ofMillis(10));
+            cancelled.cancel(true);
+
+            ExecutionException exception = assertThrows(ExecutionException.class, timedOut::get);
+            assertInstanceOf(TimeoutException.class, exception.getCause());
+            pending.forEach(Runnable::run);
+            assertTrue(cancelled.isCancelled());
+            assertTrue(timedOut.isCompletedExceptionally());
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.mobiquity.packer;
+
+import com.mobiquity.cache.ResultCache;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.BulkSummary;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class BulkPackerTest {
+
+    @Test
+    public void packAllKeepsOrderPerFileTest(@TempDir Path dir) throws APIException, IOException {
+        Path inputs = Files.createDirectory(dir.resolve("in"));
+        Path outputs = dir.resolve("out");
+        List<String> large = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 300; i++) {
+            large.add("81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)");
+            expected.append("4\n");
+            large.add("not a package line");
+            large.add("8 : (1,15.3,€34)");
+            expected.append("-\n");
+        }
+        Files.write(inputs.resolve("a.txt"), large, StandardCharsets.UTF_8);
+        Files.copy(Path.of("./src/test/resources/input.txt"), inputs.resolve("b.txt"));
+        Files.write(inputs.resolve("c.csv"), List.of("8 : (1,15.3,€34)"), StandardCharsets.UTF_8);
+
+        PackerConfig config = PackerConfig.builder().workers(4).chunkBytes(1024).build();
+        BulkSummary summary = Packer.packAll(inputs.resolve("*.txt").toString(), outputs, config);
+
+        assertEquals(2, summary.getFiles().size());
+        assertEquals(900, summary.getFiles().get(0).getLines());
+        assertEquals(300, summary.getFiles().get(0).getRejected());
+        assertEquals(expected.toString(), Files.readString(outputs.resolve("a.txt.out")));
+        assertEquals("4\n-\n2,7\n8,9\n", Files.readString(outputs.resolve("b.txt.out")));
+        assertFalse(Files.exists(outputs.resolve("c.csv.out")));
+
+        List<String> rejected = Files.readAllLines(outputs.resolve("a.txt.rejected.tsv"), StandardCharsets.UTF_8);
+        assertEquals(301, rejected.size());
+        assertTrue(rejected.get(1).startsWith("2\t"));
+        assertTrue(rejected.get(300).startsWith("899\t"));
+        assertFalse(Files.exists(outputs.resolve("b.txt.rejected.tsv")));
+        assertEquals(4, Files.readAllLines(outputs.resolve(BulkPacker.SUMMARY)).size());
+    }
+
+    @Test
+    public void solverFailureRejectsOnlyItsLineTest(@TempDir Path dir) throws IOException {
+        Path input = dir.resolve("input.txt");
+        Files.write(input, List.of(
+                "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)",
+                "13 : (1,15.3,€34)",
+                "8 : (1,15.3,€34)"), StandardCharsets.UTF_8);
+        Path outputs = dir.resolve("out");
+        PackerConfig config = PackerConfig.builder().workers(2).build();
+        BulkPacker bulkPacker = new BulkPacker(config) {
+            @Override
+            PackerHandler handler(ResultCache resultCache) {
+                return new PackerHandler(config, resultCache) {
+                    @Override
+                    public String processPack(PackageProblem problem) {
+                        if (problem.getCapacity() == PackageProblem.toFixedPoint(13d)) {
+                            throw new IllegalStateException("solver failure");
+                        }
+                        return super.processPack(problem);
+                    }
+                };
+            }
+        };
+        BulkSummary summary = bulkPacker.pack(List.of(input), outputs);
+
+        assertEquals(1, summary.getRejected());
+        assertEquals("4\n-\n", Files.readString(outputs.resolve("input.txt.out")));
+        assertEquals(List.of("line\toffset\terror\tmessage", "2\t99\tUNSOLVABLE\tCan not solve the given input"),
+                Files.readAllLines(outputs.resolve("input.txt" + BulkPacker.REJECTED_SUFFIX), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void packAllWithoutMatchTest(@TempDir Path dir) {
+        assertThrows(APIException.class, () -> Packer.packAll(dir.toString(), dir.resolve("out"),
+                PackerConfig.builder().build()));
+    }
+}
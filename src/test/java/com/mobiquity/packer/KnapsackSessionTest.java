@@ -0,0 +1,110 @@
+package com.mobiquity.packer;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackerLimits;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class KnapsackSessionTest {
+
+    @Test
+    public void sessionFollowsTheEditsTest() throws APIException {
+        KnapsackSession session = new KnapsackSession(PackerLimits.defaults(), 81);
+        session.addItem(1, 53.38, 45);
+        session.addItem(2, 88.62, 98);
+        session.addItem(3, 78.48, 3);
+        session.addItem(4, 72.30, 76);
+        session.addItem(5, 30.18, 9);
+        session.addItem(6, 46.34, 48);
+        assertEquals("4", session.getPack());
+        assertEquals(76d, session.getCost());
+
+        assertTrue(session.removeItem(4));
+        assertFalse(session.removeItem(4));
+        assertEquals("5,6", session.getPack());
+
+        session.setCapacity(8);
+        assertEquals("-", session.getPack());
+        session.setCapacity(100);
+        assertEquals("2", session.getPack());
+    }
+
+    @Test
+    public void sessionMatchesTheHandlerTest() throws APIException {
+        Random random = new Random(18);
+        PackerHandler packerHandler = new PackerHandler(PackerLimits.defaults());
+        KnapsackSession session = new KnapsackSession(PackerLimits.defaults(), 50);
+        List<String> items = new ArrayList<>();
+        List<Integer> indices = new ArrayList<>();
+        double capacity = 50;
+        for (int step = 0; step < 300; step++) {
+            int action = random.nextInt(5);
+            if (action < 3 && items.size() < 15) {
+                int index = step + 1;
+                double weight = random.nextInt(6000) / 100d;
+                int cost = 1 + random.nextInt(100);
+                session.addItem(index, weight, cost);
+                indices.add(index);
+                items.add("(" + index + "," + weight + ",€" + cost + ")");
+            } else if (action == 3 && !items.isEmpty()) {
+                int removed = random.nextInt(items.size());
+                assertTrue(session.removeItem(indices.remove(removed)));
+                items.remove(removed);
+            } else {
+                capacity = random.nextInt(10000) / 100d;
+                session.setCapacity(capacity);
+            }
+            String line = capacity + " : " + String.join(" ", items);
+            assertEquals(items.isEmpty() ? "-" : packerHandler.processPack(line), session.getPack(), line);
+        }
+    }
+
+    @Test
+    public void sessionCountsInWeightStepsTest() throws APIException {
+        KnapsackSession session = new KnapsackSession(new PackerLimits(1_000_000d, 15, 100d), 999_999);
+        session.addItem(1, 600_000, 40);
+        session.addItem(2, 500_000, 30);
+        session.addItem(3, 400_000, 25);
+        assertEquals("2,3", session.getPack());
+
+        // a weight in tenths needs ten times the columns, beyond the table cap
+        APIException table = assertThrows(APIException.class, () -> session.addItem(4, 0.5, 10));
+        assertNull(table.getError());
+        assertEquals(3, session.size());
+        assertEquals("2,3", session.getPack());
+
+        session.setCapacity(50);
+        session.addItem(4, 0.5, 10);
+        assertEquals("4", session.getPack());
+        assertThrows(APIException.class, () -> session.setCapacity(999_999));
+        assertTrue(session.removeItem(4));
+        session.setCapacity(999_999);
+        assertEquals("2,3", session.getPack());
+        assertEquals(55d, session.getCost());
+    }
+
+    @Test
+    public void sessionRespectsTheLimitsTest() throws APIException {
+        KnapsackSession session = new KnapsackSession(new PackerLimits(100d, 2, 100d), 10);
+        APIException weight = assertThrows(APIException.class, () -> session.setCapacity(101));
+        assertEquals(PackerErrorEnum.MAX_WEIGHT_EXCEEDED, weight.getError());
+        APIException cost = assertThrows(APIException.class, () -> session.addItem(1, 1, 101));
+        assertEquals(PackerErrorEnum.MAX_COST_EXCEEDED, cost.getError());
+        session.addItem(1, 1, 1);
+        assertThrows(APIException.class, () -> session.addItem(1, 2, 2));
+        session.addItem(2, 2, 2);
+        APIException items = assertThrows(APIException.class, () -> session.addItem(3, 3, 3));
+        assertEquals(PackerErrorEnum.MAX_ITEMS_EXCEEDED, items.getError());
+        assertEquals("1,2", session.getPack());
+    }
+}
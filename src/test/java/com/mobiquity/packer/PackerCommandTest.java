@@ -0,0 +1,86 @@
+package com.mobiquity.packer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackerCommandTest {
+
+    private static final String INPUT = "./src/test/resources/input.txt";
+    private static final String EXPECTED = "4\n" + "-\n" + "2,7\n" + "8,9\n";
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    public void packFileTest() {
+        assertEquals(PackerCommand.OK, run(InputStream.nullInputStream(), "-t", "2", "--engine", "bnb", INPUT));
+        assertEquals(EXPECTED, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void packStandardInputTest() throws IOException {
+        StringBuilder lines = new StringBuilder();
+        StringBuilder expected = new StringBuilder();
+        // more than one read chunk, so lines straddle the chunk boundaries
+        while (lines.length() < 3 * PackerPipeline.STREAM_CHUNK) {
+            lines.append(new String(Files.readAllBytes(Path.of(INPUT)), StandardCharsets.UTF_8)).append("\r\n");
+            lines.append("not a package line\n");
+            expected.append(EXPECTED);
+        }
+        lines.setLength(lines.length() - "\n".length());
+        InputStream in = new ByteArrayInputStream(lines.toString().getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(PackerCommand.OK, run(in, "--threads", "3", "-p", "2", PackerCommand.STDIN));
+        assertEquals(expected.toString(), out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void packDirectoryTest(@TempDir Path dir) throws IOException {
+        Files.write(dir.resolve("a.txt"), Files.readAllBytes(Path.of(INPUT)));
+        Files.writeString(dir.resolve("b.txt"), "8 : (1,15.3,€34) (2,7.5,€10)\n");
+
+        assertEquals(PackerCommand.OK, run(InputStream.nullInputStream(), "--max-items", "2", dir.toString()));
+        assertEquals("-\n" + "2\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void checkpointedOutputTest(@TempDir Path dir) throws IOException {
+        Path output = dir.resolve("output.txt");
+        assertEquals(PackerCommand.OK, run(InputStream.nullInputStream(), "-o", output.toString(),
+                "--checkpoint", "2", INPUT));
+        assertEquals(EXPECTED, Files.readString(output));
+        assertTrue(Files.exists(dir.resolve("output.txt.checkpoint")));
+
+        assertEquals(PackerCommand.OK, run(InputStream.nullInputStream(), "--resume", "-o", output.toString(), INPUT));
+        assertEquals(EXPECTED, Files.readString(output));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void usageErrorTest() {
+        assertEquals(PackerCommand.USAGE_ERROR, run(InputStream.nullInputStream(), "--speed", "1", INPUT));
+        assertEquals(PackerCommand.USAGE_ERROR, run(InputStream.nullInputStream(), "-t", "2"));
+        assertEquals(PackerCommand.USAGE_ERROR, run(InputStream.nullInputStream(), "-e", "fptas", INPUT));
+        assertEquals(PackerCommand.USAGE_ERROR, run(InputStream.nullInputStream(), "--resume", INPUT));
+        assertEquals(PackerCommand.USAGE_ERROR, run(InputStream.nullInputStream(), "--epsilon", "1.5", INPUT));
+        assertEquals(PackerCommand.FAILED, run(InputStream.nullInputStream(), "./src/test/resources/missing.txt"));
+        assertTrue(err.toString(StandardCharsets.UTF_8).contains("Unknown option --speed"));
+        assertEquals("", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private int run(InputStream in, String... args) {
+        return PackerCommand.run(args, in, out, new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+}
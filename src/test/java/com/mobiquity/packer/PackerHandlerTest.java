@@ -2,12 +2,14 @@ package com.mobiquity.packer;
 
 import com.mobiquity.exception.APIException;
 import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
 import com.mobiquity.validator.PackerValidator;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -44,6 +46,42 @@ public class PackerHandlerTest {
         assertEquals(expectedPkgList.get(0).getWeight(), actualPkgList.get(0).getWeight());
     }
 
+    @Test
+    public void buildProblemTest() throws APIException {
+        PackageProblem problem = packageHandler.buildProblem("81 : (1,53.38,€45) (2,88.62,€98)");
+        assertEquals(8100, problem.getCapacity());
+        assertEquals(2, problem.size());
+        assertEquals(5338, problem.getWeight(0));
+        assertEquals(9800, problem.getCost(1));
+        assertEquals("1", packageHandler.processPack(problem));
+        assertEquals(constructPackage().keySet(), problem.toPackages().keySet());
+    }
+
+    @Test
+    public void processPacksTest() {
+        PackerHandler packerHandler = new PackerHandler();
+        List<String> lines = List.of(
+                "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)",
+                "8 : (1,15.3,€34)",
+                "81 : (1,53.38,€145)",
+                "56 : (1,90.72,€13) (2,33.80,€40) (3,43.15,€10) (4,37.97,€16) (5,46.81,€36) (6,48.77,€79) (7,81.80,€45) (8,19.36,€79) (9,6.76,€64)");
+        List<String> expected = new ArrayList<>(List.of("4", "-"));
+        expected.add(null);
+        expected.add("8,9");
+
+        assertEquals(expected, packerHandler.processPacks(lines));
+        assertEquals(expected, Arrays.asList(packerHandler.processPacks(lines.toArray(new String[0]))));
+
+        List<PackageProblem> problems = new ArrayList<>();
+        for (String line : List.of(lines.get(0), lines.get(3))) {
+            PackageProblem problem = new PackageProblem();
+            problem.copyFrom(packerHandler.buildProblem(line));
+            problems.add(problem);
+        }
+        assertEquals("4", packerHandler.evaluatePacks(problems).get(0).getIndices());
+        assertEquals("8,9", packerHandler.evaluatePacks(problems).get(1).getIndices());
+    }
+
     @Test
     public void evaluateMaxCostPackageTest() throws APIException {
         PackerValidator packageValidator = new PackerValidator();
@@ -55,6 +93,21 @@ public class PackerHandlerTest {
         assertEquals("1", actual);
     }
 
+    @Test
+    public void evaluateMaxCostPackageExactFillTest() {
+        List<PackageMetaData> pkgDataList = new ArrayList<>();
+        double[] weights = {0.1d, 0.2d};
+        for (int i = 0; i < weights.length; i++) {
+            PackageMetaData pkg = new PackageMetaData();
+            pkg.setIndex(i + 1);
+            pkg.setWeight(weights[i]);
+            pkg.setCost(10d);
+            pkgDataList.add(pkg);
+        }
+        // 0.3 - 0.1 is 0.19999999999999998 in doubles, which left out the second item
+        assertEquals("1,2", packageHandler.evaluateMaxCostPackage(0.3d, pkgDataList));
+    }
+
     private Map<Double, List<PackageMetaData>> constructPackage() {
         Map<Double, List<PackageMetaData>> expected = new HashMap<>();
         List<PackageMetaData> packageList = new ArrayList<>();
@@ -1,18 +1,163 @@
 package com.mobiquity.packer;
 
+import com.mobiquity.cache.ResultCache;
+import com.mobiquity.constant.SolutionModeEnum;
 import com.mobiquity.exception.APIException;
+import com.mobiquity.io.RejectionReport;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 import static org.junit.jupiter.api.Assertions.fail;
 
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 public class PackerTest {
 
     @Test
     public void processPackTest() throws APIException {
         String actual = Packer.pack("./src/test/resources/input.txt");
-        String expected =  "4\n" + "-\n" + "2,7\n" +  "6,9\n";
+        String expected =  "4\n" + "-\n" + "2,7\n" +  "8,9\n";
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void parallelPackKeepsInputOrderTest(@TempDir Path dir) throws APIException, IOException {
+        List<String> lines = new ArrayList<>();
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            lines.add("81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)");
+            expected.append("4\n");
+            lines.add("8 : (1,15.3,€34)");
+            expected.append("-\n");
+            lines.add("not a package line");
+            lines.add("56 : (1,90.72,€13) (2,33.80,€40) (3,43.15,€10) (4,37.97,€16) (5,46.81,€36) "
+                    + "(6,48.77,€79) (7,81.80,€45) (8,19.36,€79) (9,6.76,€64)");
+            expected.append("8,9\n");
+        }
+        Path input = dir.resolve("input.txt");
+        Files.write(input, lines);
+
+        PackerConfig config = PackerConfig.builder().workers(4).parsers(2).queueCapacity(8).build();
+        assertEquals(expected.toString(), Packer.pack(input.toString(), config));
+    }
+
+    @Test
+    public void streamingPackTest(@TempDir Path dir) throws APIException, IOException {
+        Path input = Path.of("./src/test/resources/input.txt");
+        Path output = dir.resolve("output.txt");
+        String expected = "4\n" + "-\n" + "2,7\n" + "8,9\n";
+        PackerConfig config = PackerConfig.builder().workers(2).build();
+
+        Packer.pack(input, output, config);
+        assertEquals(expected, Files.readString(output));
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        Packer.pack(input, stream, config);
+        assertEquals(expected, stream.toString(StandardCharsets.UTF_8));
+
+        try (Stream<String> lines = Packer.packLines(input, config)) {
+            assertEquals(expected, lines.map(line -> line + "\n").collect(Collectors.joining()));
+        }
+    }
+
+    @Test
+    public void packLinesReportsRejectedLinesTest(@TempDir Path dir) throws APIException, IOException {
+        Path input = dir.resolve("input.txt");
+        Files.write(input, List.of("8 : (1,15.3,€34)", "101 : (1,53.38,€45)", "81 (1,53.38,€45)",
+                "75 : (1,85.31,€29) (2,14.55,€74)"), StandardCharsets.UTF_8);
+        Path report = dir.resolve("rejected.tsv");
+        PackerConfig config = PackerConfig.builder().rejectionReport(report).build();
+
+        try (Stream<String> lines = Packer.packLines(input, config)) {
+            assertEquals(List.of("-", "2"), lines.collect(Collectors.toList()));
+        }
+        assertEquals(List.of(RejectionReport.HEADER,
+                "2\t19\tMAX_WEIGHT_EXCEEDED\tMax weight that a package can take is 100",
+                "3\t41\tMISSING_WEIGHT\tCan not read weight of from the given input"),
+                Files.readAllLines(report, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void missingInputTest() {
+        APIException exception = assertThrows(APIException.class, () -> {
+            Packer.pack(Path.of("missing.txt"), new ByteArrayOutputStream(), PackerConfig.fromSystemProperties());
+        });
+        assertEquals("Unable to locate the input file!!", exception.getMessage());
+    }
+
+    @Test
+    public void rejectionReportTest(@TempDir Path dir) throws APIException, IOException {
+        Path input = dir.resolve("input.txt");
+        Files.write(input, List.of(
+                "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)",
+                "81 (1,53.38,€45)",
+                "8 : (1,15.3,€34)",
+                "101 : (1,53.38,€45)"), StandardCharsets.UTF_8);
+        Path report = dir.resolve("rejected.tsv");
+        PackerConfig config = PackerConfig.builder().workers(2).rejectionReport(report).build();
+
+        assertEquals("4\n-\n", Packer.pack(input.toString(), config));
+        List<String> rejected = Files.readAllLines(report, StandardCharsets.UTF_8);
+        assertEquals(List.of("line\toffset\terror\tmessage",
+                "2\t99\tMISSING_WEIGHT\tCan not read weight of from the given input",
+                "4\t137\tMAX_WEIGHT_EXCEEDED\tMax weight that a package can take is 100"), rejected);
+    }
+
+    @Test
+    public void solverFailureRejectsOnlyItsLineTest(@TempDir Path dir) throws IOException {
+        Path input = dir.resolve("input.txt");
+        Files.write(input, List.of(
+                "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)",
+                "13 : (1,15.3,€34)",
+                "8 : (1,15.3,€34)"), StandardCharsets.UTF_8);
+        Path report = dir.resolve("rejected.tsv");
+        PackerConfig config = PackerConfig.builder().workers(2).rejectionReport(report).build();
+        PackerPipeline pipeline = new PackerPipeline(config) {
+            @Override
+            PackerHandler handler(ResultCache resultCache) {
+                return new PackerHandler(config, resultCache) {
+                    @Override
+                    public String processPack(PackageProblem problem) {
+                        if (problem.getCapacity() == PackageProblem.toFixedPoint(13d)) {
+                            throw new IllegalStateException("solver failure");
+                        }
+                        return super.processPack(problem);
+                    }
+                };
+            }
+        };
+        StringBuilder output = new StringBuilder();
+        pipeline.run(input, output);
+
+        assertEquals("4\n-\n", output.toString());
+        List<String> rejected = Files.readAllLines(report, StandardCharsets.UTF_8);
+        assertEquals(List.of("line\toffset\terror\tmessage",
+                "2\t99\tUNSOLVABLE\tCan not solve the given input"), rejected);
+    }
+
+    @Test
+    public void topKPackTest() throws APIException {
+        PackerConfig config = PackerConfig.builder().workers(2).mode(SolutionModeEnum.TOP_K).topK(2).build();
+        String[] best = Packer.pack("./src/test/resources/input.txt").split("\n");
+        String[] alternatives = Packer.pack("./src/test/resources/input.txt", config).split("\n");
+        assertEquals(best.length, alternatives.length);
+        for (int i = 0; i < best.length; i++) {
+            assertEquals(best[i], alternatives[i].split("\\|")[0]);
+        }
+        assertEquals("8,9|6,9", alternatives[3]);
+    }
 }
@@ -0,0 +1,159 @@
+package com.mobiquity.pattern;
+
+import com.mobiquity.constant.PackerErrorEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
+import com.mobiquity.validator.PackerValidator;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class PackageParserTest {
+
+    private final PackageParser packageParser = new PackageParser(PackerLimits.defaults());
+
+    @Test
+    public void parseLineTest() {
+        PackageProblem problem = new PackageProblem();
+        assertNull(parse("81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3)\r", problem));
+        assertEquals(8100, problem.getCapacity());
+        assertEquals(3, problem.size());
+        assertEquals(2, problem.getIndex(1));
+        assertEquals(8862, problem.getWeight(1));
+        assertEquals(9800, problem.getCost(1));
+    }
+
+    @Test
+    public void parseSeveralBagsTest() {
+        PackageProblem problem = new PackageProblem();
+        assertNull(parse("81 50.5\t20 : (1,53.38,€45)", problem));
+        assertEquals(3, problem.getBags());
+        assertEquals(8100, problem.getCapacity(0));
+        assertEquals(5050, problem.getCapacity(1));
+        assertEquals(2000, problem.getCapacity(2));
+        assertEquals(PackerErrorEnum.MAX_WEIGHT_EXCEEDED, parse("81 101 : (1,53.38,€45)", problem));
+        assertEquals(PackerErrorEnum.INVALID_FORMAT, parse("81 5a : (1,53.38,€45)", problem));
+        assertNull(parse("81 : (1,53.38,€45)", problem));
+        assertEquals(1, problem.getBags());
+    }
+
+    @Test
+    public void roundsBeyondHundredthsTest() {
+        PackageProblem problem = new PackageProblem();
+        assertNull(parse("75.5 : (1,15.305,34) (2,15.,€1)", problem));
+        assertEquals(7550, problem.getCapacity());
+        assertEquals(1531, problem.getWeight(0));
+        assertEquals(1500, problem.getWeight(1));
+    }
+
+    @Test
+    public void rejectsLikeValidatorTest() {
+        String[] lines = {
+                "81 : (1,53.38,€45) |||(2,88.62,€98)",
+                "81 (1,53.38,€45)",
+                "",
+                "8 1 : (1,53.38,€45)",
+                "81 : (1,53.38,€45)(2,88.62,€98)",
+                "81 : (1,53.38,€45)\t(2,88.62,€98)",
+                "81 : (1,53.38,$45)",
+                "81 : (1,,€45)",
+                "81 : (a,53.38,€45)",
+                " 81\t:(1,53.38,€45)   (2,88.62,98) ",
+                "81 : "
+        };
+        PackerValidator packerValidator = new PackerValidator(PackerLimits.defaults());
+        for (String line : lines) {
+            String expected = null;
+            try {
+                packerValidator.isValidInput(line);
+            } catch (APIException e) {
+                expected = e.getMessage();
+            }
+            PackerErrorEnum actual = parse(line, new PackageProblem());
+            assertEquals(expected, actual == null ? null : actual.getMessage(), line);
+        }
+    }
+
+    @Test
+    public void checkRangeTest() {
+        assertEquals(PackerErrorEnum.MAX_WEIGHT_EXCEEDED, parse("101 : (1,53.38,€45)", new PackageProblem()));
+        assertEquals(PackerErrorEnum.MAX_COST_EXCEEDED, parse("81 : (1,53.38,€101)", new PackageProblem()));
+        StringBuilder line = new StringBuilder("81 :");
+        for (int i = 1; i <= 16; i++) {
+            line.append(" (").append(i).append(",1,€1)");
+        }
+        assertEquals(PackerErrorEnum.MAX_ITEMS_EXCEEDED, parse(line.toString(), new PackageProblem()));
+        assertEquals("Max items that a package can take is 15",
+                PackerErrorEnum.MAX_ITEMS_EXCEEDED.getMessage(PackerLimits.defaults()));
+    }
+
+    @Test
+    public void parseCharactersTest() {
+        PackageProblem problem = new PackageProblem();
+        String[] lines = {
+                "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3)",
+                "81 : (1,53.38,£45)",
+                "81 : (1,53.38,€45) \uD83D\uDCE6",
+                "81 : (1,53.38,€101)"
+        };
+        for (String line : lines) {
+            assertEquals(parse(line, new PackageProblem()), packageParser.parse(line, problem), line);
+        }
+        StringBuilder longLine = new StringBuilder("99 :");
+        for (int i = 1; i <= 15; i++) {
+            longLine.append(" (").append(i).append(",1.5,€").append(i).append(')');
+        }
+        assertNull(packageParser.parse(longLine, problem));
+        assertEquals(15, problem.size());
+        assertEquals(150, problem.getWeight(14));
+    }
+
+    @Test
+    public void largeScaleRejectsNumbersTooLongTest() throws Exception {
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        Process process = new ProcessBuilder(java, "-Dpacker.scale=1000000",
+                "-cp", System.getProperty("java.class.path"), LargeScale.class.getName())
+                .redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        assertEquals(0, process.waitFor(), output);
+        assertEquals("ok 999999999999000000 1000000\n"
+                + "INVALID_FORMAT\n"
+                + "INVALID_FORMAT\n"
+                + "INVALID_FORMAT\n", output);
+    }
+
+    /**
+     * Parses lines at the scale set for its JVM, one outcome per line
+     */
+    public static class LargeScale {
+
+        public static void main(String[] args) {
+            PackageParser parser = new PackageParser(new PackerLimits(1e12, 15, 1e12));
+            PackageProblem problem = new PackageProblem();
+            String[] lines = {
+                    "999999999999 : (1,0.000001,€1)",
+                    "10000000000000 : (1,1,€1)",
+                    "10 : (1,10000000000000,€1)",
+                    "10 : (1,1,€10000000000000)"
+            };
+            for (String line : lines) {
+                PackerErrorEnum error = parser.parse(line, problem);
+                System.out.println(error != null ? error.name()
+                        : "ok " + problem.getCapacity() + " " + problem.getCost(0) / problem.getWeight(0));
+            }
+        }
+    }
+
+    private PackerErrorEnum parse(String line, PackageProblem problem) {
+        byte[] bytes = line.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocate(bytes.length + 4);
+        buffer.put(new byte[]{'x', '\n'}).put(bytes).put(new byte[]{'\n', 'y'});
+        return packageParser.parse(buffer, 2, 2 + bytes.length, problem);
+    }
+}
@@ -0,0 +1,110 @@
+package com.mobiquity.server;
+
+import com.mobiquity.model.PackerConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PackerServerTest {
+
+    private static final String LINE = "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)";
+
+    private static PackerServer server;
+    private static HttpClient client;
+
+    @BeforeAll
+    public static void setup() throws Exception {
+        server = new PackerServer(PackerConfig.builder().workers(2).build(),
+                new InetSocketAddress("127.0.0.1", 0), 64, 2000);
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        server.close();
+    }
+
+    @Test
+    public void packPlainTextTest() throws Exception {
+        HttpResponse<String> response = post(LINE + "\n8 : (1,15.3,€34)\r\n101 : (1,53.38,€45)\n", "text/plain");
+        assertEquals(200, response.statusCode());
+        assertEquals("4\n-\nerror: Max weight that a package can take is 100\n", response.body());
+    }
+
+    @Test
+    public void packNdjsonTest() throws Exception {
+        HttpResponse<String> response = post("\"" + LINE + "\"\n{\"id\": \"7\", \"line\": \"81 (1,53.38,\\u20ac45)\"}\n",
+                PackerServer.NDJSON);
+        assertEquals(200, response.statusCode());
+        assertEquals("{\"result\":\"4\"}\n"
+                + "{\"error\":\"MISSING_WEIGHT\",\"message\":\"Can not read weight of from the given input\"}\n",
+                response.body());
+
+        assertEquals(400, post("[1, 2]\n", PackerServer.NDJSON).statusCode());
+    }
+
+    @Test
+    public void concurrentRequestsAreAnsweredInOrderTest() throws Exception {
+        List<CompletableFuture<HttpResponse<String>>> responses = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String body = i % 2 == 0 ? LINE + "\n8 : (1,15.3,€34)\n" : "8 : (1,15.3,€34)\n" + LINE + "\n";
+            responses.add(client.sendAsync(request("/pack").header("Content-Type", "text/plain")
+                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString()));
+        }
+        for (int i = 0; i < responses.size(); i++) {
+            assertEquals(i % 2 == 0 ? "4\n-\n" : "-\n4\n", responses.get(i).get().body());
+        }
+    }
+
+    @Test
+    public void oversizedRequestsAreRefusedTest() throws Exception {
+        try (PackerServer small = new PackerServer(PackerConfig.builder().workers(1).build(),
+                new InetSocketAddress("127.0.0.1", 0), 64, 0, 2, 256)) {
+            small.start();
+            URI pack = URI.create("http://127.0.0.1:" + small.getPort() + "/pack");
+            assertEquals(200, client.send(HttpRequest.newBuilder(pack).POST(HttpRequest.BodyPublishers.ofString(
+                    LINE + "\n8 : (1,15.3,€34)\n")).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(413, client.send(HttpRequest.newBuilder(pack).POST(HttpRequest.BodyPublishers.ofString(
+                    "8 : (1,15.3,€34)\n".repeat(3))).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+            assertEquals(413, client.send(HttpRequest.newBuilder(pack).POST(HttpRequest.BodyPublishers.ofString(
+                    LINE.repeat(4))).build(), HttpResponse.BodyHandlers.ofString()).statusCode());
+        }
+    }
+
+    @Test
+    public void healthAndMetricsTest() throws Exception {
+        HttpResponse<String> health = client.send(request("/health").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals("OK\n", health.body());
+
+        post(LINE + "\n", "text/plain");
+        HttpResponse<String> metrics = client.send(request("/metrics").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, metrics.statusCode());
+        assertTrue(metrics.body().contains("packer_lines_processed "));
+        assertTrue(metrics.body().contains("packer_server_batch_lines{stat=\"count\"} "));
+
+        HttpResponse<String> wrongMethod = client.send(request("/pack").GET().build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, wrongMethod.statusCode());
+    }
+
+    private static HttpResponse<String> post(String body, String contentType) throws Exception {
+        return client.send(request("/pack").header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + path));
+    }
+}
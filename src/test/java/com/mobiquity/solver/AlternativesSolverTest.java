@@ -0,0 +1,135 @@
+package com.mobiquity.solver;
+
+import com.mobiquity.constant.SolutionModeEnum;
+import com.mobiquity.model.PackageProblem;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class AlternativesSolverTest {
+
+    @Test
+    public void topKMatchesBruteForceTest() {
+        Random random = new Random(19);
+        AlternativesSolver solver = new AlternativesSolver(SolutionModeEnum.TOP_K, 5);
+        for (int line = 0; line < 200; line++) {
+            PackageProblem problem = randomProblem(random, 1 + random.nextInt(12));
+            List<long[]> expected = selections(problem);
+            expected.sort(Comparator.<long[]>comparingLong(s -> -s[1]).thenComparingLong(s -> s[0]));
+            expected = expected.subList(0, Math.min(5, expected.size()));
+
+            List<long[]> actual = parse(problem, solver.solve(problem));
+            assertEquals(format(expected), format(actual), "line " + line + " " + problem);
+        }
+    }
+
+    @Test
+    public void frontierMatchesBruteForceTest() {
+        Random random = new Random(20);
+        AlternativesSolver solver = new AlternativesSolver(SolutionModeEnum.FRONTIER, 1);
+        for (int line = 0; line < 200; line++) {
+            PackageProblem problem = randomProblem(random, 1 + random.nextInt(12));
+            List<long[]> all = selections(problem);
+            List<long[]> expected = new ArrayList<>();
+            for (long[] candidate : all) {
+                boolean dominated = false;
+                for (long[] other : all) {
+                    if (other[1] >= candidate[1] && other[0] <= candidate[0]
+                            && (other[1] > candidate[1] || other[0] < candidate[0])) {
+                        dominated = true;
+                    }
+                }
+                if (!dominated && expected.stream().noneMatch(s -> s[0] == candidate[0] && s[1] == candidate[1])) {
+                    expected.add(candidate);
+                }
+            }
+            expected.sort(Comparator.comparingLong(s -> -s[1]));
+
+            List<long[]> actual = parse(problem, solver.solve(problem));
+            assertEquals(format(expected), format(actual), "line " + line + " " + problem);
+        }
+    }
+
+    @Test
+    public void nothingFitsTest() {
+        PackageProblem problem = new PackageProblem();
+        problem.setCapacity(800);
+        problem.add(1, 1530, 3400);
+        assertEquals("-", new AlternativesSolver(SolutionModeEnum.TOP_K, 3).solve(problem));
+        assertEquals("-", new AlternativesSolver(SolutionModeEnum.FRONTIER, 1).solve(problem));
+    }
+
+    @Test
+    public void alternativesOfSampleLineTest() {
+        PackageProblem problem = new PackageProblem();
+        problem.setCapacity(5600);
+        long[][] items = {{9072, 1300}, {3380, 4000}, {4315, 1000}, {3797, 1600}, {4681, 3600},
+                {4877, 7900}, {8180, 4500}, {1936, 7900}, {676, 6400}};
+        for (int i = 0; i < items.length; i++) {
+            problem.add(i + 1, items[i][0], items[i][1]);
+        }
+        assertEquals("8,9|6,9|2,8", new AlternativesSolver(SolutionModeEnum.TOP_K, 3).solve(problem));
+        assertEquals("8,9|8|9", new AlternativesSolver(SolutionModeEnum.FRONTIER, 1).solve(problem));
+    }
+
+    /**
+     * @return the weight and cost of every non-empty selection which fits
+     */
+    private List<long[]> selections(PackageProblem problem) {
+        List<long[]> selections = new ArrayList<>();
+        for (int mask = 1; mask < 1 << problem.size(); mask++) {
+            long weight = 0;
+            long cost = 0;
+            for (int i = 0; i < problem.size(); i++) {
+                if ((mask & 1 << i) != 0) {
+                    weight += problem.getWeight(i);
+                    cost += problem.getCost(i);
+                }
+            }
+            if (weight <= problem.getCapacity()) {
+                selections.add(new long[]{weight, cost});
+            }
+        }
+        return selections;
+    }
+
+    private List<long[]> parse(PackageProblem problem, String answer) {
+        List<long[]> selections = new ArrayList<>();
+        if (answer.equals("-")) {
+            return selections;
+        }
+        for (String alternative : answer.split("\\|")) {
+            long weight = 0;
+            long cost = 0;
+            for (String index : alternative.split(",")) {
+                int item = Integer.parseInt(index) - 1;
+                weight += problem.getWeight(item);
+                cost += problem.getCost(item);
+            }
+            selections.add(new long[]{weight, cost});
+        }
+        return selections;
+    }
+
+    private String format(List<long[]> selections) {
+        StringBuilder result = new StringBuilder();
+        for (long[] selection : selections) {
+            result.append(selection[1]).append('/').append(selection[0]).append(' ');
+        }
+        return result.toString();
+    }
+
+    private PackageProblem randomProblem(Random random, int size) {
+        PackageProblem problem = new PackageProblem();
+        problem.setCapacity(100 * (1 + random.nextInt(100)));
+        for (int i = 1; i <= size; i++) {
+            problem.add(i, random.nextInt(5000), 100L * (random.nextInt(20) + 1));
+        }
+        return problem;
+    }
+}
@@ -0,0 +1,50 @@
+package com.mobiquity.solver;
+
+import com.mobiquity.model.PackageMetaData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class DynamicProgrammingSolverTest {
+
+    @Test
+    public void prefersLighterPackageOnEqualCostTest() {
+        DynamicProgrammingSolver solver = new DynamicProgrammingSolver();
+        List<PackageMetaData> packages = constructPackages(new double[][]{
+                {1, 90.72, 13}, {2, 33.80, 40}, {3, 43.15, 10}, {4, 37.97, 16}, {5, 46.81, 36},
+                {6, 48.77, 79}, {7, 81.80, 45}, {8, 19.36, 79}, {9, 6.76, 64}});
+        assertEquals("8,9", solver.solve(56d, packages));
+    }
+
+    @Test
+    public void beatsGreedySelectionTest() {
+        DynamicProgrammingSolver solver = new DynamicProgrammingSolver();
+        List<PackageMetaData> packages = constructPackages(new double[][]{
+                {1, 60, 70}, {2, 50, 50}, {3, 50, 50}});
+        assertEquals("2,3", solver.solve(100d, packages));
+    }
+
+    @Test
+    public void reusesBuffersAcrossLinesTest() {
+        DynamicProgrammingSolver solver = new DynamicProgrammingSolver();
+        assertEquals("2,3", solver.solve(100d, constructPackages(new double[][]{
+                {1, 60, 70}, {2, 50, 50}, {3, 50, 50}})));
+        assertEquals("-", solver.solve(8d, constructPackages(new double[][]{{1, 15.3, 34}})));
+        assertEquals("1", solver.solve(75d, constructPackages(new double[][]{{1, 75.00, 10}})));
+    }
+
+    private List<PackageMetaData> constructPackages(double[][] items) {
+        List<PackageMetaData> packageList = new ArrayList<>();
+        for (double[] item : items) {
+            PackageMetaData pkg = new PackageMetaData();
+            pkg.setIndex((int) item[0]);
+            pkg.setWeight(item[1]);
+            pkg.setCost(item[2]);
+            packageList.add(pkg);
+        }
+        return packageList;
+    }
+}
@@ -0,0 +1,64 @@
+package com.mobiquity.solver;
+
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.service.SolverService;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class ExactSolverTest {
+
+    @Test
+    public void solversAgreeOnRandomLinesTest() {
+        Random random = new Random(42);
+        SolverService dynamicProgramming = new DynamicProgrammingSolver();
+        SolverService meetInTheMiddle = new MeetInTheMiddleSolver();
+        SolverService branchAndBound = new BranchAndBoundSolver();
+        for (int line = 0; line < 200; line++) {
+            double maxWeight = 1 + random.nextInt(100);
+            List<PackageMetaData> packages = randomPackages(random, 1 + random.nextInt(20));
+            String expected = dynamicProgramming.solve(maxWeight, packages);
+            assertEquals(expected, meetInTheMiddle.solve(maxWeight, packages), "line " + line);
+            assertEquals(expected, branchAndBound.solve(maxWeight, packages), "line " + line);
+        }
+    }
+
+    @Test
+    public void solvesFortyItemsTest() {
+        Random random = new Random(7);
+        List<PackageMetaData> packages = randomPackages(random, 40);
+        String expected = new DynamicProgrammingSolver().solve(100d, packages);
+        assertEquals(expected, new MeetInTheMiddleSolver().solve(100d, packages));
+        assertEquals(expected, new BranchAndBoundSolver().solve(100d, packages));
+    }
+
+    @Test
+    public void prefersLighterPackageOnEqualCostTest() {
+        List<PackageMetaData> packages = new ArrayList<>();
+        packages.add(constructPackage(1, 48.77, 79));
+        packages.add(constructPackage(2, 6.76, 64));
+        packages.add(constructPackage(3, 19.36, 79));
+        assertEquals("2,3", new MeetInTheMiddleSolver().solve(56d, packages));
+        assertEquals("2,3", new BranchAndBoundSolver().solve(56d, packages));
+    }
+
+    private List<PackageMetaData> randomPackages(Random random, int size) {
+        List<PackageMetaData> packageList = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            packageList.add(constructPackage(i, random.nextInt(10000) / 100d, random.nextInt(20) + 1));
+        }
+        return packageList;
+    }
+
+    private PackageMetaData constructPackage(int index, double weight, double cost) {
+        PackageMetaData pkg = new PackageMetaData();
+        pkg.setIndex(index);
+        pkg.setWeight(weight);
+        pkg.setCost(cost);
+        return pkg;
+    }
+}
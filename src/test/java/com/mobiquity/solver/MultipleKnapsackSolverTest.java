@@ -0,0 +1,135 @@
+package com.mobiquity.solver;
+
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
+import com.mobiquity.packer.PackerHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MultipleKnapsackSolverTest {
+
+    @Test
+    public void matchesBruteForceTest() {
+        Random random = new Random(20);
+        MultipleKnapsackSolver solver = new MultipleKnapsackSolver();
+        for (int line = 0; line < 150; line++) {
+            PackageProblem problem = randomProblem(random, 1 + random.nextInt(8), 2 + random.nextInt(2));
+            long[] expected = bruteForce(problem);
+            long[] actual = check(problem, solver.solve(problem));
+            assertEquals(expected[0], actual[0], "cost of line " + line + " " + problem);
+            assertEquals(expected[1], actual[1], "weight of line " + line + " " + problem);
+        }
+    }
+
+    @Test
+    public void parallelSearchIsExactAndStableTest() {
+        Random random = new Random(21);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int line = 0; line < 5; line++) {
+                PackageProblem problem = randomProblem(random, 12, 2);
+                long[] expected = bruteForce(problem);
+                String answer = new MultipleKnapsackSolver(pool).solve(problem);
+                long[] actual = check(problem, answer);
+                assertEquals(expected[0], actual[0], "cost of line " + line + " " + problem);
+                assertEquals(expected[1], actual[1], "weight of line " + line + " " + problem);
+                assertEquals(answer, new MultipleKnapsackSolver(new ForkJoinPool(1)).solve(problem));
+                for (int run = 0; run < 5; run++) {
+                    assertEquals(answer, new MultipleKnapsackSolver(pool).solve(problem));
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void singleBagMatchesExactSolversTest() {
+        Random random = new Random(22);
+        for (int line = 0; line < 100; line++) {
+            PackageProblem problem = randomProblem(random, 1 + random.nextInt(12), 1);
+            assertEquals(new DynamicProgrammingSolver().solve(problem), new MultipleKnapsackSolver().solve(problem));
+        }
+    }
+
+    @Test
+    public void handlerPacksSeveralBagsTest() throws APIException {
+        PackerHandler packerHandler = new PackerHandler(PackerLimits.defaults());
+        assertEquals("4;6", packerHandler.processPack(
+                "81 50 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)"));
+        assertEquals("-;1", packerHandler.processPack("8 20 : (1,15.3,€34)"));
+    }
+
+    /**
+     * @return the total cost and weight of the answer, after checking every bag holds
+     */
+    private long[] check(PackageProblem problem, String answer) {
+        String[] bags = answer.split(";");
+        assertEquals(problem.getBags(), bags.length, answer);
+        long cost = 0;
+        long weight = 0;
+        for (int bag = 0; bag < bags.length; bag++) {
+            if (bags[bag].equals("-")) {
+                continue;
+            }
+            long bagWeight = 0;
+            for (String index : bags[bag].split(",")) {
+                int item = Integer.parseInt(index) - 1;
+                bagWeight += problem.getWeight(item);
+                cost += problem.getCost(item);
+            }
+            assertTrue(bagWeight <= problem.getCapacity(bag), answer);
+            weight += bagWeight;
+        }
+        return new long[]{cost, weight};
+    }
+
+    private long[] bruteForce(PackageProblem problem) {
+        int bags = problem.getBags();
+        int size = problem.size();
+        int[] assignment = new int[size];
+        long bestCost = -1;
+        long bestWeight = 0;
+        long combinations = (long) Math.pow(bags + 1, size);
+        for (long combination = 0; combination < combinations; combination++) {
+            long code = combination;
+            long[] load = new long[bags];
+            long cost = 0;
+            long weight = 0;
+            boolean fits = true;
+            for (int i = 0; i < size; i++) {
+                assignment[i] = (int) (code % (bags + 1));
+                code /= bags + 1;
+                if (assignment[i] < bags) {
+                    load[assignment[i]] += problem.getWeight(i);
+                    fits &= load[assignment[i]] <= problem.getCapacity(assignment[i]);
+                    cost += problem.getCost(i);
+                    weight += problem.getWeight(i);
+                }
+            }
+            if (fits && (cost > bestCost || cost == bestCost && weight < bestWeight)) {
+                bestCost = cost;
+                bestWeight = weight;
+            }
+        }
+        return new long[]{bestCost, bestWeight};
+    }
+
+    private PackageProblem randomProblem(Random random, int size, int bags) {
+        PackageProblem problem = new PackageProblem();
+        problem.setCapacity(100 * (1 + random.nextInt(60)));
+        for (int bag = 1; bag < bags; bag++) {
+            problem.addBag(100 * (1 + random.nextInt(60)));
+        }
+        for (int i = 1; i <= size; i++) {
+            problem.add(i, random.nextInt(4000), 100L * (random.nextInt(20) + 1));
+        }
+        return problem;
+    }
+}
@@ -0,0 +1,107 @@
+package com.mobiquity.solver;
+
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.model.PackResult;
+import com.mobiquity.model.PackageMetaData;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SolverSelectorTest {
+
+    @Test
+    public void selectsEngineByLineSizeTest() {
+        Random random = new Random(1);
+        SolverSelector exact = new SolverSelector();
+        SolverSelector approximate = new SolverSelector(0.1);
+        SolverSelector greedy = new SolverSelector(0.5);
+
+        assertEquals(SolverEngineEnum.DYNAMIC_PROGRAMMING, exact.select(100d, randomPackages(random, 60)));
+        assertEquals(SolverEngineEnum.MEET_IN_THE_MIDDLE, exact.select(100000d, randomPackages(random, 30)));
+        assertEquals(SolverEngineEnum.BRANCH_AND_BOUND, exact.select(100000d, randomPackages(random, 1000)));
+        assertEquals(SolverEngineEnum.BRANCH_AND_BOUND, approximate.select(100000d, randomPackages(random, 100)));
+        assertEquals(SolverEngineEnum.FPTAS, approximate.select(100000d, randomPackages(random, 1000)));
+        assertEquals(SolverEngineEnum.GREEDY, greedy.select(100000d, randomPackages(random, 1000)));
+    }
+
+    @Test
+    public void forcedEngineTest() {
+        Random random = new Random(2);
+        List<PackageMetaData> packages = randomPackages(random, 60);
+        SolverSelector branchAndBound = new SolverSelector(0d, SolverEngineEnum.BRANCH_AND_BOUND);
+        SolverSelector meetInTheMiddle = new SolverSelector(0d, SolverEngineEnum.MEET_IN_THE_MIDDLE);
+
+        assertEquals(SolverEngineEnum.BRANCH_AND_BOUND, branchAndBound.select(100d, packages));
+        assertEquals(SolverEngineEnum.MEET_IN_THE_MIDDLE, meetInTheMiddle.select(100d, packages.subList(0, 20)));
+        assertEquals(SolverEngineEnum.DYNAMIC_PROGRAMMING, meetInTheMiddle.select(100d, packages));
+
+        SolverSelector dynamicProgramming = new SolverSelector(0d, SolverEngineEnum.DYNAMIC_PROGRAMMING);
+        assertEquals(SolverEngineEnum.DYNAMIC_PROGRAMMING, dynamicProgramming.select(100d, packages));
+        // 60 items by a million in hundredths is far beyond the table cap
+        assertEquals(SolverEngineEnum.BRANCH_AND_BOUND, dynamicProgramming.select(1_000_000d, packages));
+        assertEquals(new SolverSelector().solve(1_000_000d, packages).getIndices(),
+                dynamicProgramming.solve(1_000_000d, packages).getIndices());
+        assertEquals(new SolverSelector().solve(100d, packages).getIndices(),
+                branchAndBound.solve(100d, packages).getIndices());
+    }
+
+    @Test
+    public void wholeWeightsWidenTheTableTest() {
+        List<PackageMetaData> packages = new ArrayList<>();
+        for (int i = 1; i <= 500; i++) {
+            packages.add(constructPackage(i, i % 90 + 1, i % 50 + 1));
+        }
+        assertEquals(SolverEngineEnum.DYNAMIC_PROGRAMMING, new SolverSelector().select(5000d, packages));
+    }
+
+    @Test
+    public void approximationStaysWithinGapTest() {
+        Random random = new Random(3);
+        for (int line = 0; line < 20; line++) {
+            List<PackageMetaData> packages = randomPackages(random, 300);
+            double maxWeight = 2000 + random.nextInt(2000);
+            long optimum = cost(packages, new BranchAndBoundSolver().solve(maxWeight, packages));
+
+            PackResult fptas = new SolverSelector(0.1).solve(maxWeight, packages);
+            assertEquals(SolverEngineEnum.FPTAS, fptas.getEngine());
+            assertTrue(fptas.getOptimalityGap() <= 0.1);
+            assertTrue(cost(packages, fptas.getIndices()) >= (1 - fptas.getOptimalityGap()) * optimum);
+
+            PackResult greedy = new SolverSelector(0.5).solve(maxWeight, packages);
+            assertEquals(SolverEngineEnum.GREEDY, greedy.getEngine());
+            assertTrue(cost(packages, greedy.getIndices()) >= optimum / 2);
+        }
+    }
+
+    private long cost(List<PackageMetaData> packages, String indices) {
+        if ("-".equals(indices)) {
+            return 0;
+        }
+        return Arrays.stream(indices.split(","))
+                .mapToInt(Integer::parseInt)
+                .mapToLong(index -> Math.round(packages.get(index - 1).getCost()))
+                .sum();
+    }
+
+    private List<PackageMetaData> randomPackages(Random random, int size) {
+        List<PackageMetaData> packageList = new ArrayList<>();
+        for (int i = 1; i <= size; i++) {
+            packageList.add(constructPackage(i, random.nextInt(10000) / 100d, random.nextInt(100) + 1));
+        }
+        return packageList;
+    }
+
+    private PackageMetaData constructPackage(int index, double weight, double cost) {
+        PackageMetaData pkg = new PackageMetaData();
+        pkg.setIndex(index);
+        pkg.setWeight(weight);
+        pkg.setCost(cost);
+        return pkg;
+    }
+}
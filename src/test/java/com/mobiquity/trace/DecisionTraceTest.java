@@ -0,0 +1,58 @@
+package com.mobiquity.trace;
+
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.packer.PackerHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class DecisionTraceTest {
+
+    @AfterEach
+    public void tearDown() {
+        DecisionTrace.stop();
+    }
+
+    @Test
+    public void recordsChosenItemsTest() throws APIException {
+        StringWriter output = new StringWriter();
+        DecisionTrace.start(16, output);
+        PackerHandler packerHandler = new PackerHandler();
+        packerHandler.processPack("81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3) (4,72.30,€76) (5,30.18,€9) (6,46.34,€48)");
+        packerHandler.processPack("8 : (1,15.3,€34)");
+        packerHandler.processPack("75 : (1,85.31,€29) (2,14.55,€74) (3,3.98,€16) (4,26.24,€55) (5,63.69,€52) (6,76.25,€75) (7,60.02,€74) (8,93.18,€35) (9,89.95,€78)");
+        DecisionTrace.stop();
+
+        String[] lines = output.toString().split("\n");
+        assertEquals(3, lines.length);
+        assertEquals("decision 0 engine=dp capacity=81.0 weight=72.3 cost=76.0 items=4", lines[0]);
+        assertEquals("decision 1 engine=dp capacity=8.0 weight=0.0 cost=0.0 items=-", lines[1]);
+        assertEquals("decision 2 engine=dp capacity=75.0 weight=74.57 cost=148.0 items=2,7", lines[2]);
+        assertNull(DecisionTrace.current());
+    }
+
+    @Test
+    public void recordsGreedyDecisionsTest() {
+        StringWriter output = new StringWriter();
+        DecisionTrace.start(4, output);
+        List<PackageMetaData> packages = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            PackageMetaData pkg = new PackageMetaData();
+            pkg.setIndex(i);
+            pkg.setWeight(10d * i);
+            pkg.setCost(5d * i);
+            packages.add(pkg);
+        }
+        assertEquals("1,2", new PackerHandler().evaluateMaxCostPackage(35d, packages));
+        DecisionTrace.stop();
+
+        assertEquals("decision 0 engine=greedy capacity=35.0 weight=30.0 cost=15.0 items=1,2\n", output.toString());
+    }
+}
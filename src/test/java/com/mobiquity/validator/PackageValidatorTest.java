@@ -1,7 +1,10 @@
 package com.mobiquity.validator;
 
+import com.mobiquity.constant.PackerErrorEnum;
 import com.mobiquity.exception.APIException;
 import com.mobiquity.model.PackageMetaData;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerLimits;
 import com.mobiquity.packer.PackerHandler;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
@@ -31,6 +34,18 @@ public class PackageValidatorTest {
         assertEquals(hasValidRange, true);
     }
 
+    @Test
+    public void checkWithoutExceptionTest() {
+        PackerValidator packageValidator = new PackerValidator(PackerLimits.defaults());
+        assertEquals(null, packageValidator.checkInput("81 : (1,53.38,€45)"));
+        assertEquals(PackerErrorEnum.MISSING_WEIGHT, packageValidator.checkInput("81 (1,53.38,€45)"));
+        assertEquals(PackerErrorEnum.INVALID_FORMAT, packageValidator.checkInput("81 : (1,53.38,€45) x"));
+        Map<Double, List<PackageMetaData>> pkgList = constructPackage();
+        assertEquals(null, packageValidator.checkRange(pkgList));
+        pkgList.values().iterator().next().get(0).setCost(101d);
+        assertEquals(PackerErrorEnum.MAX_COST_EXCEEDED, packageValidator.checkRange(pkgList));
+    }
+
     @Test
     public void checkInValidRangeTest() throws APIException {
         APIException exception = assertThrows(APIException.class, () -> {
@@ -43,6 +58,34 @@ public class PackageValidatorTest {
         assertEquals("Max Cost that a package can take is 100", exception.getMessage());
     }
 
+    @Test
+    public void checkInValidProblemRangeTest() throws APIException {
+        PackageProblem problem = new PackageProblem();
+        problem.setCapacity(8100);
+        problem.add(1, 5338, 4500);
+        assertEquals(true, packerValidator.hasValidRange(problem));
+
+        problem.add(2, 5338, 10001);
+        APIException exception = assertThrows(APIException.class, () -> packerValidator.hasValidRange(problem));
+        assertEquals("Max Cost that a package can take is 100", exception.getMessage());
+    }
+
+    @Test
+    public void configurableRangeTest() throws APIException {
+        Map<Double, List<PackageMetaData>> pkgList = constructPackage();
+        List<PackageMetaData> pkgDataList = pkgList.values().iterator().next();
+        for (int i = 2; i <= 60; i++) {
+            pkgDataList.add(pkgDataList.get(0));
+        }
+        PackerValidator packageValidator = new PackerValidator(new PackerLimits(100d, 60, 100d));
+        assertEquals(true, packageValidator.hasValidRange(pkgList));
+
+        APIException exception = assertThrows(APIException.class, () -> {
+            new PackerValidator(new PackerLimits(100d, 40, 100d)).hasValidRange(pkgList);
+        });
+        assertEquals("Max items that a package can take is 40", exception.getMessage());
+    }
+
     @Test
     public void validInputTest() throws APIException {
         String input = "81 : (1,53.38,€45) (2,88.62,€98) (3,78.48,€3)";
@@ -50,6 +93,11 @@ public class PackageValidatorTest {
         assertEquals(valid, true);
     }
 
+    @Test
+    public void fractionalCapacityInputTest() throws APIException {
+        assertEquals(true, packerValidator.isValidInput("75.5 : (1,53.38,€45)"));
+    }
+
     @Test
     public void checkInValidInputTest() throws APIException {
         APIException exception = assertThrows(APIException.class, () -> {
@@ -0,0 +1,198 @@
+package com.mobiquity.workload;
+
+import com.mobiquity.constant.DistributionEnum;
+import com.mobiquity.constant.SolverEngineEnum;
+import com.mobiquity.exception.APIException;
+import com.mobiquity.model.PackageProblem;
+import com.mobiquity.model.PackerConfig;
+import com.mobiquity.packer.Packer;
+import com.mobiquity.pattern.PackageParser;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class WorkloadGeneratorTest {
+
+    @Test
+    public void sameSeedSameLinesTest() throws IOException {
+        WorkloadGenerator.Builder builder = WorkloadGenerator.builder().lines(500)
+                .malformedRatio(0.1).duplicateRatio(0.1);
+        StringWriter first = new StringWriter();
+        StringWriter second = new StringWriter();
+        StringWriter other = new StringWriter();
+        WorkloadSummary summary = builder.build().write(first);
+        builder.build().write(second);
+        builder.seed(7).build().write(other);
+
+        assertEquals(first.toString(), second.toString());
+        assertNotEquals(first.toString(), other.toString());
+        assertEquals(500, first.toString().split("\n").length);
+        assertEquals(500, summary.getLines());
+    }
+
+    @Test
+    public void ratiosTest() throws IOException {
+        WorkloadGenerator generator = WorkloadGenerator.builder().lines(10_000).items(1, 15)
+                .malformedRatio(0.05).duplicateRatio(0.2).build();
+        StringWriter output = new StringWriter();
+        WorkloadSummary summary = generator.write(output);
+
+        PackageParser parser = new PackageParser(generator.limits());
+        PackageProblem problem = new PackageProblem();
+        Set<String> seen = new HashSet<>();
+        long rejected = 0;
+        long repeated = 0;
+        for (String line : output.toString().split("\n")) {
+            if (parser.parse(line, problem) != null) {
+                rejected++;
+            } else if (!seen.add(line)) {
+                repeated++;
+            }
+        }
+        assertEquals(summary.getMalformed(), rejected);
+        assertEquals(summary.getDuplicates(), repeated);
+        assertEquals(500, summary.getMalformed(), 100);
+        assertEquals(2000, summary.getDuplicates(), 200);
+    }
+
+    @Test
+    public void distributionsTest() throws IOException {
+        double uniform = meanWeight(DistributionEnum.UNIFORM);
+        double normal = meanWeight(DistributionEnum.NORMAL);
+        double exponential = meanWeight(DistributionEnum.EXPONENTIAL);
+
+        assertEquals(55, uniform, 3);
+        assertEquals(55, normal, 3);
+        assertTrue(exponential < 40, "exponential mean " + exponential);
+        assertThrows(IllegalArgumentException.class, () -> WorkloadGenerator.builder().items(0, 3).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> WorkloadGenerator.builder().malformedRatio(0.6).duplicateRatio(0.5).build());
+        assertEquals(DistributionEnum.EXPONENTIAL, DistributionEnum.fromCode("exponential"));
+    }
+
+    @Test
+    public void matchesBruteForceTest(@TempDir Path dir) throws IOException, APIException {
+        WorkloadGenerator generator = WorkloadGenerator.builder().seed(25).lines(400).items(1, 12)
+                .capacity(DistributionEnum.NORMAL, 1, 60)
+                .weight(DistributionEnum.EXPONENTIAL, 0.01, 50)
+                .cost(DistributionEnum.UNIFORM, 1, 100)
+                .malformedRatio(0.05).duplicateRatio(0.1).build();
+        Path input = dir.resolve("workload.txt");
+        WorkloadSummary summary = generator.write(input);
+
+        PackageParser parser = new PackageParser(generator.limits());
+        List<PackageProblem> problems = new ArrayList<>();
+        for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+            PackageProblem problem = new PackageProblem();
+            if (parser.parse(line, problem) == null) {
+                problems.add(problem);
+            }
+        }
+        assertEquals(summary.getValid(), problems.size());
+
+        SolverEngineEnum[] engines = {null, SolverEngineEnum.DYNAMIC_PROGRAMMING,
+                SolverEngineEnum.MEET_IN_THE_MIDDLE, SolverEngineEnum.BRANCH_AND_BOUND};
+        for (SolverEngineEnum engine : engines) {
+            StringWriter output = new StringWriter();
+            Packer.pack(input, output, PackerConfig.builder().limits(generator.limits())
+                    .workers(2).cacheSize(64).engine(engine).build());
+            String[] answers = output.toString().split("\n");
+            assertEquals(problems.size(), answers.length, "answers of " + engine);
+            for (int i = 0; i < answers.length; i++) {
+                PackageProblem problem = problems.get(i);
+                long[] expected = bruteForce(problem);
+                long[] actual = check(problem, answers[i]);
+                assertEquals(expected[0], actual[0], engine + " cost of " + problem);
+                assertEquals(expected[1], actual[1], engine + " weight of " + problem);
+            }
+        }
+    }
+
+    private static double meanWeight(DistributionEnum distribution) throws IOException {
+        StringWriter output = new StringWriter();
+        WorkloadGenerator generator = WorkloadGenerator.builder().lines(2000).items(5, 5)
+                .weight(distribution, 10, 100).build();
+        generator.write(output);
+        PackageParser parser = new PackageParser(generator.limits());
+        PackageProblem problem = new PackageProblem();
+        double total = 0;
+        long count = 0;
+        for (String line : output.toString().split("\n")) {
+            assertNull(parser.parse(line, problem));
+            for (int i = 0; i < problem.size(); i++) {
+                long weight = problem.getWeight(i);
+                assertTrue(weight >= PackageProblem.toFixedPoint(10d) && weight <= PackageProblem.toFixedPoint(100d));
+                total += PackageProblem.toDouble(weight);
+                count++;
+            }
+        }
+        return total / count;
+    }
+
+    /**
+     * @return the best cost and, among the selections reaching it, the lowest weight
+     */
+    private static long[] bruteForce(PackageProblem problem) {
+        long bestCost = 0;
+        long bestWeight = 0;
+        for (int mask = 1; mask < 1 << problem.size(); mask++) {
+            long cost = 0;
+            long weight = 0;
+            for (int i = 0; i < problem.size(); i++) {
+                if ((mask & 1 << i) != 0) {
+                    cost += problem.getCost(i);
+                    weight += problem.getWeight(i);
+                }
+            }
+            if (weight <= problem.getCapacity()
+                    && (cost > bestCost || cost == bestCost && weight < bestWeight)) {
+                bestCost = cost;
+                bestWeight = weight;
+            }
+        }
+        return new long[]{bestCost, bestWeight};
+    }
+
+    /**
+     * @return the cost and weight of the answer, after checking it fits
+     */
+    private static long[] check(PackageProblem problem, String answer) {
+        assertNotNull(answer);
+        long cost = 0;
+        long weight = 0;
+        if (!answer.equals("-")) {
+            for (String index : answer.split(",")) {
+                int item = itemOf(problem, Integer.parseInt(index));
+                cost += problem.getCost(item);
+                weight += problem.getWeight(item);
+            }
+        }
+        assertTrue(weight <= problem.getCapacity(), answer + " over the capacity of " + problem);
+        return new long[]{cost, weight};
+    }
+
+    private static int itemOf(PackageProblem problem, int index) {
+        for (int i = 0; i < problem.size(); i++) {
+            if (problem.getIndex(i) == index) {
+                return i;
+            }
+        }
+        throw new AssertionError("no item " + index + " in " + problem);
+    }
+}